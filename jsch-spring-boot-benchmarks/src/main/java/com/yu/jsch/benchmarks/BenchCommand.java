@@ -0,0 +1,87 @@
+package com.yu.jsch.benchmarks;
+
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.channel.ChannelSession;
+import org.apache.sshd.server.command.Command;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synthetic exec command so benchmarks measure the client and protocol rather than process spawning:
+ * <ul>
+ *     <li>{@code echo <text>} writes the text and a newline to stdout</li>
+ *     <li>{@code bytes <n>} writes n bytes to stdout</li>
+ * </ul>
+ * Anything else exits with status 127.
+ */
+final class BenchCommand implements Command {
+
+    private static final byte[] CHUNK = new byte[32 * 1024];
+
+    private final String command;
+    private OutputStream out;
+    private OutputStream err;
+    private ExitCallback exitCallback;
+
+    BenchCommand(String command) {
+        this.command = command != null ? command.trim() : "";
+    }
+
+    @Override
+    public void setExitCallback(ExitCallback callback) {
+        this.exitCallback = callback;
+    }
+
+    @Override
+    public void setInputStream(InputStream in) {
+    }
+
+    @Override
+    public void setOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void setErrorStream(OutputStream err) {
+        this.err = err;
+    }
+
+    @Override
+    public void start(ChannelSession channel, Environment env) {
+        Thread t = new Thread(this::run, "bench-command");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @Override
+    public void destroy(ChannelSession channel) {
+    }
+
+    private void run() {
+        int exit = 0;
+        try {
+            if (command.startsWith("echo ")) {
+                out.write((command.substring(5) + "\n").getBytes(StandardCharsets.UTF_8));
+            } else if (command.startsWith("bytes ")) {
+                long remaining = Long.parseLong(command.substring(6).trim());
+                while (remaining > 0) {
+                    int n = (int) Math.min(CHUNK.length, remaining);
+                    out.write(CHUNK, 0, n);
+                    remaining -= n;
+                }
+            } else {
+                err.write(("unknown command: " + command + "\n").getBytes(StandardCharsets.UTF_8));
+                exit = 127;
+            }
+            out.flush();
+            err.flush();
+        } catch (IOException | RuntimeException e) {
+            exit = 1;
+        }
+        exitCallback.onExit(exit);
+    }
+}
@@ -0,0 +1,45 @@
+package com.yu.jsch.benchmarks;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.yu.jsch.JschSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a full session establishment (TCP connect, key exchange, password auth) and disconnect.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectBenchmark {
+
+    private JschSessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp(EmbeddedServerState state) {
+        sessionFactory = state.server.sessionFactory();
+    }
+
+    @Benchmark
+    public boolean connectAndDisconnect() throws JSchException {
+        Session session = sessionFactory.createAndConnect();
+        boolean connected = session.isConnected();
+        session.disconnect();
+        return connected;
+    }
+}
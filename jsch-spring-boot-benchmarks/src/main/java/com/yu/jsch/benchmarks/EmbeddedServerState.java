@@ -0,0 +1,49 @@
+package com.yu.jsch.benchmarks;
+
+import com.yu.jsch.JschSessionManager;
+import com.yu.jsch.PooledJschSessionManager;
+import com.yu.jsch.SessionPoolProperties;
+import com.yu.jsch.SingleUseJschSessionManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * One embedded SSH server per benchmark trial, shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class EmbeddedServerState {
+
+    EmbeddedSshServer server;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = EmbeddedSshServer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        if (server != null) server.close();
+    }
+
+    JschSessionManager sessionManager(String kind, int maxTotal) {
+        if ("single-use".equals(kind)) {
+            return new SingleUseJschSessionManager(server.sessionFactory());
+        }
+        SessionPoolProperties props = new SessionPoolProperties();
+        props.setEnabled(true);
+        props.setMaxTotal(maxTotal);
+        props.setMaxIdle(maxTotal);
+        return new PooledJschSessionManager(server.sessionFactory(), props);
+    }
+
+    static void shutdown(JschSessionManager manager) {
+        if (manager instanceof PooledJschSessionManager pooled) {
+            pooled.shutdown();
+        }
+    }
+}
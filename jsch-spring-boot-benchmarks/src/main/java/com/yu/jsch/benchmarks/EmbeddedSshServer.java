@@ -0,0 +1,91 @@
+package com.yu.jsch.benchmarks;
+
+import com.jcraft.jsch.JSch;
+import com.yu.jsch.JschSessionFactory;
+import com.yu.jsch.KnownHostsMode;
+import com.yu.jsch.auth.PasswordAuthStrategy;
+import com.yu.jsch.channel.ChannelTuning;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * In-process Apache MINA SSHD server on a loopback ephemeral port with password auth, an SFTP subsystem rooted
+ * in a temporary directory, and the synthetic exec commands of {@link BenchCommand}.
+ */
+public final class EmbeddedSshServer implements AutoCloseable {
+
+    public static final String USERNAME = "bench";
+    public static final String PASSWORD = "bench";
+
+    private final SshServer sshd;
+    private final Path root;
+
+    private EmbeddedSshServer(SshServer sshd, Path root) {
+        this.sshd = sshd;
+        this.root = root;
+    }
+
+    public static EmbeddedSshServer start() throws IOException {
+        Path root = Files.createTempDirectory("jsch-bench-sftp");
+        SshServer sshd = SshServer.setUpDefaultServer();
+        sshd.setHost("127.0.0.1");
+        sshd.setPort(0);
+        sshd.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(root.resolve(".hostkey.ser")));
+        sshd.setPasswordAuthenticator((username, password, session) -> USERNAME.equals(username) && PASSWORD.equals(password));
+        sshd.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        sshd.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        sshd.setCommandFactory((channel, command) -> new BenchCommand(command));
+        sshd.start();
+        return new EmbeddedSshServer(sshd, root);
+    }
+
+    public int getPort() {
+        return sshd.getPort();
+    }
+
+    /**
+     * Local directory backing the SFTP root.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    public JschSessionFactory sessionFactory() {
+        return sessionFactory(null);
+    }
+
+    public JschSessionFactory sessionFactory(ChannelTuning tuning) {
+        JSch jsch = new JSch();
+        return JschSessionFactory.builder()
+                .jsch(() -> jsch)
+                .host("127.0.0.1")
+                .port(getPort())
+                .username(USERNAME)
+                .connectTimeoutMillis(5000)
+                .socketTimeoutMillis(30000)
+                .knownHostsMode(KnownHostsMode.OFF)
+                .authStrategy(new PasswordAuthStrategy(PASSWORD))
+                .channelTuning(tuning)
+                .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sshd.stop(true);
+        } finally {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
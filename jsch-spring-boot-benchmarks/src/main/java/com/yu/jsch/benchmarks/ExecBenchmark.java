@@ -0,0 +1,58 @@
+package com.yu.jsch.benchmarks;
+
+import com.yu.jsch.JschSessionManager;
+import com.yu.jsch.SshTemplate;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exec round-trip on a pooled session: channel open, command, output drain and exit status.
+ * The {@code bytes} command measures output draining throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecBenchmark {
+
+    @Param({"echo ping", "bytes 1048576"})
+    public String command;
+
+    private JschSessionManager sessionManager;
+    private SshTemplate template;
+    private SshCommandRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp(EmbeddedServerState state) {
+        sessionManager = state.sessionManager("pooled", 1);
+        template = new SshTemplate(sessionManager);
+        request = SshCommandRequest.builder(command).connectTimeoutMillis(5000).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EmbeddedServerState.shutdown(sessionManager);
+    }
+
+    @Benchmark
+    public ExecResult exec() throws Exception {
+        return template.execute(request);
+    }
+}
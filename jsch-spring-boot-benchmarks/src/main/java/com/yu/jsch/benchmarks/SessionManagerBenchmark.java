@@ -0,0 +1,59 @@
+package com.yu.jsch.benchmarks;
+
+import com.yu.jsch.JschSessionManager;
+import com.yu.jsch.SshTemplate;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled vs single-use session management under concurrent exec load.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SessionManagerBenchmark {
+
+    @Param({"single-use", "pooled"})
+    public String manager;
+
+    private JschSessionManager sessionManager;
+    private SshTemplate template;
+    private SshCommandRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp(EmbeddedServerState state) {
+        sessionManager = state.sessionManager(manager, 8);
+        template = new SshTemplate(sessionManager);
+        request = SshCommandRequest.builder("echo ping").connectTimeoutMillis(5000).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EmbeddedServerState.shutdown(sessionManager);
+    }
+
+    @Benchmark
+    public ExecResult exec() throws Exception {
+        return template.execute(request);
+    }
+}
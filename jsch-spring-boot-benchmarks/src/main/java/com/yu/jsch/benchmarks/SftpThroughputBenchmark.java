@@ -0,0 +1,86 @@
+package com.yu.jsch.benchmarks;
+
+import com.yu.jsch.JschSessionManager;
+import com.yu.jsch.SftpChannelPoolProperties;
+import com.yu.jsch.SftpTemplate;
+import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.channel.SftpChannelPool;
+import com.yu.jsch.observability.ObservabilityConfig;
+import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.strategy.NoRetryStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SFTP upload/download of small and large files on a pooled session, with and without the SFTP channel pool.
+ * Throughput in bytes/s is {@code fileSize * ops/s}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SftpThroughputBenchmark {
+
+    @Param({"4096", "67108864"})
+    public int fileSize;
+
+    @Param({"false", "true"})
+    public boolean channelPool;
+
+    private JschSessionManager sessionManager;
+    private SftpChannelPool pool;
+    private SftpTemplate template;
+    private byte[] payload;
+    private TransferOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp(EmbeddedServerState state) throws IOException {
+        sessionManager = state.sessionManager("pooled", 1);
+        SftpChannelFactory channelFactory = new SftpChannelFactory();
+        if (channelPool) {
+            SftpChannelPoolProperties props = new SftpChannelPoolProperties();
+            props.setEnabled(true);
+            pool = new SftpChannelPool(channelFactory, props);
+        }
+        template = new SftpTemplate(sessionManager, channelFactory, new NoRetryStrategy(), ObservabilityConfig.disabled(), null, pool);
+        payload = new byte[fileSize];
+        ThreadLocalRandom.current().nextBytes(payload);
+        options = TransferOptions.builder().atomic(false).overwrite(true).connectTimeoutMillis(5000).build();
+        Files.write(state.server.getRoot().resolve("download.bin"), payload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) pool.close();
+        EmbeddedServerState.shutdown(sessionManager);
+    }
+
+    @Benchmark
+    public void upload() throws SftpClientException {
+        template.upload(payload, "/upload.bin", options);
+    }
+
+    @Benchmark
+    public byte[] download() throws SftpClientException {
+        return template.download("/download.bin", 5000);
+    }
+}
@@ -0,0 +1,99 @@
+package com.yu.jsch.benchmarks;
+
+import com.yu.jsch.PooledJschSessionManager;
+import com.yu.jsch.SessionPoolProperties;
+import com.yu.jsch.SftpTemplate;
+import com.yu.jsch.channel.ChannelTuning;
+import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.observability.ObservabilityConfig;
+import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.strategy.NoRetryStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Large-file SFTP upload/download with one channel tuning setting changed at a time against the JSch defaults
+ * ({@code default}), and all of them together ({@code all}). Throughput in bytes/s is {@code fileSize * ops/s}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SftpTuningBenchmark {
+
+    @Param({"default", "window", "packet", "bulk", "buffer", "all"})
+    public String tuning;
+
+    @Param({"67108864"})
+    public int fileSize;
+
+    private PooledJschSessionManager sessionManager;
+    private SftpTemplate template;
+    private Path localSource;
+    private Path localTarget;
+    private TransferOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp(EmbeddedServerState state) throws IOException {
+        SessionPoolProperties props = new SessionPoolProperties();
+        props.setEnabled(true);
+        props.setMaxTotal(1);
+        props.setMaxIdle(1);
+        sessionManager = new PooledJschSessionManager(state.server.sessionFactory(tuningFor(tuning)), props);
+        template = new SftpTemplate(sessionManager, new SftpChannelFactory(), new NoRetryStrategy(), ObservabilityConfig.disabled(), null);
+        byte[] payload = new byte[fileSize];
+        ThreadLocalRandom.current().nextBytes(payload);
+        localSource = Files.createTempFile("sftp-tuning", ".src");
+        localTarget = Files.createTempFile("sftp-tuning", ".dst");
+        Files.write(localSource, payload);
+        Files.write(state.server.getRoot().resolve("download.bin"), payload);
+        options = TransferOptions.builder().atomic(false).overwrite(true).connectTimeoutMillis(5000).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        EmbeddedServerState.shutdown(sessionManager);
+        Files.deleteIfExists(localSource);
+        Files.deleteIfExists(localTarget);
+    }
+
+    static ChannelTuning tuningFor(String name) {
+        ChannelTuning.Builder b = ChannelTuning.builder();
+        boolean all = "all".equals(name);
+        if (all || "window".equals(name)) b.windowSize(16 * 1024 * 1024);
+        if (all || "packet".equals(name)) b.maxPacketSize(16 * 1024);
+        if (all || "bulk".equals(name)) b.bulkRequests(64);
+        if (all || "buffer".equals(name)) b.copyBufferSize(1024 * 1024);
+        return b.build();
+    }
+
+    @Benchmark
+    public void upload() throws SftpClientException {
+        template.upload(localSource, "/upload.bin", options);
+    }
+
+    @Benchmark
+    public void download() throws SftpClientException {
+        template.download("/download.bin", localTarget, options);
+    }
+}
@@ -0,0 +1,53 @@
+package com.yu.jsch;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Properties for the asynchronous AsyncSshClient/AsyncSftpClient facades.
+ */
+@Validated
+@ConfigurationProperties(prefix = "ssh.async")
+public class AsyncClientProperties {
+
+    /**
+     * Register AsyncSshClient/AsyncSftpClient beans next to the blocking clients.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Run tasks on virtual threads when the JDK supports them (21+).
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Maximum number of platform threads used when virtual threads are disabled or unavailable.
+     */
+    @Positive
+    private int maxThreads = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+}
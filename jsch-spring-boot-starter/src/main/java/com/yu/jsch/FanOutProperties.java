@@ -0,0 +1,41 @@
+package com.yu.jsch;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Concurrency limits for multi-host fan-out execution (FanOutExecutor).
+ */
+@Validated
+@ConfigurationProperties(prefix = "ssh.fan-out")
+public class FanOutProperties {
+
+    /**
+     * Maximum number of executions in flight across all hosts.
+     */
+    @Positive
+    private int maxConcurrency = 32;
+
+    /**
+     * Maximum number of executions in flight against a single host.
+     */
+    @Positive
+    private int maxPerHost = 2;
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setMaxPerHost(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+}
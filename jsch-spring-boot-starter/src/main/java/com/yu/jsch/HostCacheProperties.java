@@ -0,0 +1,87 @@
+package com.yu.jsch;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Properties for caching the HostConfig returned by the HostResolver, so executions do not resolve (e.g. query a
+ * database) on every call.
+ */
+@Validated
+@ConfigurationProperties(prefix = "ssh.host-cache")
+public class HostCacheProperties {
+
+    /**
+     * Register a primary CachingHostResolver in front of the application's (or the default) HostResolver.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of cached host ids; the least recently used are dropped first.
+     */
+    @Positive
+    private int maxSize = 10_000;
+
+    /**
+     * How long a resolved config is served before it is resolved again on the calling thread.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Age after which a config is resolved again in the background while the cached one keeps being served.
+     * Zero or negative, or not below the ttl, disables refresh-ahead.
+     */
+    @NotNull
+    private Duration refreshAfter = Duration.ofMinutes(4);
+
+    /**
+     * How long an unknown host id is remembered. Zero or negative disables negative caching.
+     */
+    @NotNull
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getRefreshAfter() {
+        return refreshAfter;
+    }
+
+    public void setRefreshAfter(Duration refreshAfter) {
+        this.refreshAfter = refreshAfter;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+}
@@ -5,39 +5,56 @@ import com.jcraft.jsch.Session;
 import com.yu.jsch.auth.PasswordAuthStrategy;
 import com.yu.jsch.auth.PublicKeyAuthStrategy;
 import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.observability.JschMetrics;
+import com.yu.jsch.observability.ObservabilityConfig;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.PooledObjectFactory;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * SessionManager implementation that manages a pool per HostConfig stable key (host:port:username).
  * Allows invalidation of individual pools or all pools, and optionally enforces version matching.
+ * With {@code multiplex} enabled each host gets a {@link SessionMultiplexer} that shares sessions between
+ * concurrent executions instead of a pool of exclusively borrowed sessions.
  */
 public class HostConfigJschSessionManager implements JschSessionManager {
 
     private final Supplier<JSch> jschSupplier;
     private final SessionPoolProperties poolProps;
+    private final ObservabilityConfig observability;
 
     private final Map<String, PoolHolder> pools = new ConcurrentHashMap<>();
+    private final List<SessionCloseListener> closeListeners = new CopyOnWriteArrayList<>();
 
     public HostConfigJschSessionManager(Supplier<JSch> jschSupplier, SessionPoolProperties poolProps) {
+        this(jschSupplier, poolProps, ObservabilityConfig.disabled());
+    }
+
+    public HostConfigJschSessionManager(Supplier<JSch> jschSupplier, SessionPoolProperties poolProps, ObservabilityConfig observability) {
         this.jschSupplier = Objects.requireNonNull(jschSupplier, "jschSupplier");
         this.poolProps = poolProps != null ? poolProps : new SessionPoolProperties();
+        this.observability = observability != null ? observability : ObservabilityConfig.disabled();
     }
 
     @Override
     public <T> T execute(HostConfig hostConfig, SessionCallback<T> callback) throws Exception {
         Objects.requireNonNull(hostConfig, "hostConfig");
         Objects.requireNonNull(callback, "callback");
-        String key = hostConfig.stableKey();
-        PoolHolder holder = pools.compute(key, (k, existing) -> ensurePool(existing, hostConfig));
+        PoolHolder holder = poolFor(hostConfig);
+        if (holder.multiplexer != null) {
+            return holder.multiplexer.execute(callback);
+        }
         GenericObjectPool<Session> pool = holder.pool;
         Session session = null;
         boolean returnedOrInvalidated = false;
@@ -69,31 +86,103 @@ public class HostConfigJschSessionManager implements JschSessionManager {
         }
     }
 
+    @Override
+    public SessionLease lease(HostConfig hostConfig) throws Exception {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        PoolHolder holder = poolFor(hostConfig);
+        return holder.multiplexer != null ? holder.multiplexer.acquire() : SessionPools.lease(holder.pool);
+    }
+
+    /**
+     * Create the pool for the given host if needed and fill it to min-idle, so the first executions
+     * do not pay the SSH handshake. Failures are logged and leave the pool usable.
+     */
+    public void prewarm(HostConfig hostConfig) {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        PoolHolder holder = poolFor(hostConfig);
+        if (holder.multiplexer != null) {
+            holder.multiplexer.prewarm();
+        } else {
+            SessionPools.prewarm(holder.pool, hostConfig.stableKey());
+        }
+    }
+
+    /**
+     * Lock-free lookup for the common case; the map bin is only locked to create a missing or closed pool
+     * or to replace one whose version changed.
+     */
+    private PoolHolder poolFor(HostConfig cfg) {
+        String key = cfg.stableKey();
+        PoolHolder holder = pools.get(key);
+        if (holder != null && !holder.isClosed() && !isVersionChanged(holder, cfg)) {
+            return holder;
+        }
+        return pools.compute(key, (k, existing) -> ensurePool(existing, cfg));
+    }
+
+    private static boolean isVersionChanged(PoolHolder holder, HostConfig cfg) {
+        Long ver = cfg.getVersion();
+        return ver != null && !ver.equals(holder.version);
+    }
+
     private PoolHolder ensurePool(PoolHolder existing, HostConfig cfg) {
         Long ver = cfg.getVersion();
-        if (existing == null) {
-            return new PoolHolder(createPool(cfg), ver);
+        if (existing == null || existing.isClosed()) {
+            return createPool(cfg, ver);
         }
         // If version provided and does not match, recreate pool (treat null as different)
-        if (ver != null && !ver.equals(existing.version)) {
-            try {
-                existing.pool.close();
-            } catch (Exception ignore) {
-            }
-            return new PoolHolder(createPool(cfg), ver);
+        if (isVersionChanged(existing, cfg)) {
+            existing.close();
+            return createPool(cfg, ver);
         }
         return existing;
     }
 
-    private GenericObjectPool<Session> createPool(HostConfig cfg) {
-        GenericObjectPoolConfig<Session> cfgPool = new GenericObjectPoolConfig<>();
-        cfgPool.setMaxTotal(poolProps.getMaxTotal());
-        cfgPool.setMaxIdle(poolProps.getMaxIdle());
-        cfgPool.setMinIdle(poolProps.getMinIdle());
-        cfgPool.setBlockWhenExhausted(true);
-        cfgPool.setTestOnBorrow(poolProps.isValidateOnBorrow());
+    private PoolHolder createPool(HostConfig cfg, Long version) {
         JschSessionFactory sessionFactory = buildSessionFactory(cfg);
-        return new GenericObjectPool<>(new Factory(sessionFactory), cfgPool);
+        String key = cfg.stableKey();
+        registerPoolGauges(key);
+        if (poolProps.isMultiplex()) {
+            return new PoolHolder(null, new SessionMultiplexer(sessionFactory, poolProps, closeListeners, observability, key), version);
+        }
+        GenericObjectPoolConfig<Session> cfgPool = SessionPools.poolConfig(poolProps);
+        return new PoolHolder(new GenericObjectPool<>(new Factory(sessionFactory, poolProps, closeListeners, observability, key), cfgPool),
+                null, version);
+    }
+
+    /**
+     * Gauges look the pool up by key on every read, so they keep reporting after a version bump recreates the pool.
+     * Registering the same key again is a no-op in Micrometer.
+     */
+    private void registerPoolGauges(String key) {
+        JschMetrics metrics = observability.metrics();
+        if (!metrics.isEnabled()) return;
+        metrics.gauge(JschMetrics.SESSION_POOL_ACTIVE, key, this, m -> m.poolStat(key, PooledJschSessionManager.PoolStats::active));
+        metrics.gauge(JschMetrics.SESSION_POOL_IDLE, key, this, m -> m.poolStat(key, PooledJschSessionManager.PoolStats::idle));
+        metrics.gauge(JschMetrics.SESSION_POOL_WAITERS, key, this, m -> m.poolStat(key, PooledJschSessionManager.PoolStats::waiters));
+        if (poolProps.isMultiplex()) {
+            metrics.gauge(JschMetrics.SESSION_CHANNELS_ACTIVE, key, this, m -> {
+                PoolHolder holder = m.pools.get(key);
+                return holder != null && holder.multiplexer != null ? holder.multiplexer.stats().channelsInUse() : 0d;
+            });
+        }
+    }
+
+    private double poolStat(String key, ToIntFunction<PooledJschSessionManager.PoolStats> stat) {
+        PoolHolder holder = pools.get(key);
+        return holder != null ? stat.applyAsInt(holder.stats()) : 0d;
+    }
+
+    /**
+     * Get pool statistics per host key (host:port:username) for monitoring. When multiplexing, active and idle
+     * count sessions with and without executions in progress.
+     */
+    public Map<String, PooledJschSessionManager.PoolStats> getPoolStats() {
+        Map<String, PooledJschSessionManager.PoolStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, PoolHolder> e : pools.entrySet()) {
+            stats.put(e.getKey(), e.getValue().stats());
+        }
+        return stats;
     }
 
     private JschSessionFactory buildSessionFactory(HostConfig cfg) {
@@ -105,7 +194,8 @@ public class HostConfigJschSessionManager implements JschSessionManager {
                 .connectTimeoutMillis(cfg.getConnectTimeoutMillis())
                 .socketTimeoutMillis(cfg.getReadTimeoutMillis())
                 .knownHostsMode(cfg.getKnownHosts() != null ? cfg.getKnownHosts().getMode() : null)
-                .knownHostsPath(cfg.getKnownHosts() != null ? cfg.getKnownHosts().getPath() : null);
+                .knownHostsPath(cfg.getKnownHosts() != null ? cfg.getKnownHosts().getPath() : null)
+                .channelTuning(cfg.getTuning());
         HostConfig.Auth a = cfg.getAuth();
         if (a != null) {
             if (a.getType() == AuthType.PASSWORD) {
@@ -131,30 +221,34 @@ public class HostConfigJschSessionManager implements JschSessionManager {
 
     @Override
     public void close(Session session) {
-        if (session != null) try {
-            session.disconnect();
-        } catch (Throwable ignore) {
+        if (session != null) {
+            notifyBeforeClose(closeListeners, session);
+            try {
+                session.disconnect();
+            } catch (Throwable ignore) {
+            }
+        }
+    }
+
+    @Override
+    public void addSessionCloseListener(SessionCloseListener listener) {
+        if (listener != null) {
+            closeListeners.add(listener);
         }
     }
 
     @Override
     public void invalidate(String hostKey) {
         PoolHolder holder = pools.remove(hostKey);
-        if (holder != null && holder.pool != null) {
-            try {
-                holder.pool.close();
-            } catch (Exception ignore) {
-            }
+        if (holder != null) {
+            holder.close();
         }
     }
 
     @Override
     public void invalidateAll() {
         for (Map.Entry<String, PoolHolder> e : pools.entrySet()) {
-            try {
-                e.getValue().pool.close();
-            } catch (Exception ignore) {
-            }
+            e.getValue().close();
         }
         pools.clear();
     }
@@ -165,29 +259,40 @@ public class HostConfigJschSessionManager implements JschSessionManager {
 
     private static class Factory implements PooledObjectFactory<Session> {
         private final JschSessionFactory sessionFactory;
+        private final SessionPoolProperties poolProps;
+        private final List<SessionCloseListener> closeListeners;
+        private final ObservabilityConfig observability;
+        private final String hostKey;
 
-        Factory(JschSessionFactory sessionFactory) {
+        Factory(JschSessionFactory sessionFactory, SessionPoolProperties poolProps, List<SessionCloseListener> closeListeners,
+                ObservabilityConfig observability, String hostKey) {
             this.sessionFactory = sessionFactory;
+            this.poolProps = poolProps;
+            this.closeListeners = closeListeners;
+            this.observability = observability;
+            this.hostKey = hostKey;
         }
 
         @Override
         public PooledObject<Session> makeObject() throws Exception {
-            return new DefaultPooledObject<>(sessionFactory.createAndConnect());
+            return new DefaultPooledObject<>(sessionFactory.createAndConnect(observability, hostKey));
         }
 
         @Override
         public void destroyObject(PooledObject<Session> p) {
             Session s = p.getObject();
-            if (s != null) try {
-                s.disconnect();
-            } catch (Throwable ignore) {
+            if (s != null) {
+                notifyBeforeClose(closeListeners, s);
+                try {
+                    s.disconnect();
+                } catch (Throwable ignore) {
+                }
             }
         }
 
         @Override
         public boolean validateObject(PooledObject<Session> p) {
-            Session s = p.getObject();
-            return s != null && s.isConnected();
+            return SessionPools.validate(p, poolProps);
         }
 
         @Override
@@ -199,6 +304,43 @@ public class HostConfigJschSessionManager implements JschSessionManager {
         }
     }
 
-    private record PoolHolder(GenericObjectPool<Session> pool, Long version) {
+    private static void notifyBeforeClose(List<SessionCloseListener> listeners, Session session) {
+        for (SessionCloseListener l : listeners) {
+            try {
+                l.beforeClose(session);
+            } catch (Throwable ignore) {
+            }
+        }
+    }
+
+    /**
+     * Either a pool of exclusively borrowed sessions or, when multiplexing, a multiplexer of shared ones.
+     */
+    private record PoolHolder(GenericObjectPool<Session> pool, SessionMultiplexer multiplexer, Long version) {
+
+        boolean isClosed() {
+            return multiplexer != null ? multiplexer.isClosed() : pool.isClosed();
+        }
+
+        void close() {
+            if (multiplexer != null) {
+                multiplexer.close();
+                return;
+            }
+            try {
+                pool.close();
+            } catch (Exception ignore) {
+            }
+        }
+
+        PooledJschSessionManager.PoolStats stats() {
+            if (multiplexer != null) {
+                MultiplexingJschSessionManager.MultiplexStats m = multiplexer.stats();
+                return new PooledJschSessionManager.PoolStats(m.activeSessions(), m.sessions() - m.activeSessions(),
+                        m.maxSessions(), m.maxSessions(), m.waiters());
+            }
+            return new PooledJschSessionManager.PoolStats(pool.getNumActive(), pool.getNumIdle(), pool.getMaxTotal(),
+                    pool.getMaxIdle(), pool.getNumWaiters());
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.yu.jsch;
 
+import com.yu.jsch.channel.ChannelTuning;
 import lombok.Builder;
 import lombok.Value;
 
@@ -20,6 +21,7 @@ public class HostDefinition {
     Retry retry;
     Pool pool;
     Timeouts timeouts;
+    ChannelTuning tuning;
 
     @Value
     @Builder
@@ -54,6 +56,7 @@ public class HostDefinition {
         int maxIdle;
         int minIdle;
         Duration maxWait;
+        int maxChannelsPerSession;
     }
 
     @Value
@@ -3,24 +3,49 @@ package com.yu.jsch;
 import com.jcraft.jsch.JSch;
 import com.yu.jsch.channel.ExecChannelFactory;
 import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.channel.SftpChannelPool;
+import com.yu.jsch.client.AsyncSftpClient;
+import com.yu.jsch.client.AsyncSshClient;
+import com.yu.jsch.client.AsyncSupport;
+import com.yu.jsch.client.DefaultAsyncSftpClient;
+import com.yu.jsch.client.DefaultAsyncSshClient;
 import com.yu.jsch.client.ResolverBackedSftpClient;
 import com.yu.jsch.client.ResolverBackedSshClient;
 import com.yu.jsch.client.SftpClient;
 import com.yu.jsch.client.SshClient;
+import com.yu.jsch.fanout.FanOutExecutor;
+import com.yu.jsch.host.CachingHostResolver;
 import com.yu.jsch.host.HostResolver;
 import com.yu.jsch.host.PropertiesHostResolver;
+import com.yu.jsch.observability.JschMetrics;
 import com.yu.jsch.observability.ObservabilityConfig;
+import io.micrometer.core.instrument.MeterRegistry;
 import com.yu.jsch.strategy.NoRetryStrategy;
+import com.yu.jsch.sync.DirectorySync;
+import com.yu.jsch.warmup.ConnectionWarmUp;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 @AutoConfiguration
 @ConditionalOnClass(JSch.class)
-@EnableConfigurationProperties({SshProperties.class, SessionPoolProperties.class})
+@EnableConfigurationProperties({SshProperties.class, SessionPoolProperties.class, SftpChannelPoolProperties.class,
+        AsyncClientProperties.class, FanOutProperties.class, WarmUpProperties.class, HostCacheProperties.class})
 public class JschAutoConfiguration {
 
     @Bean
@@ -41,25 +66,86 @@ public class JschAutoConfiguration {
         return new SftpChannelFactory();
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "ssh.sftp-channel-pool", name = "enabled", havingValue = "true")
+    public SftpChannelPool sftpChannelPool(SftpChannelFactory sftpChannelFactory, SftpChannelPoolProperties channelPoolProps,
+                                           JschMetrics jschMetrics) {
+        SftpChannelPool pool = new SftpChannelPool(sftpChannelFactory, channelPoolProps);
+        jschMetrics.bindChannelPool(pool);
+        return pool;
+    }
+
+    /**
+     * Micrometer instrumentation; records into the application's MeterRegistry when one is present, otherwise a no-op.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JschMetrics jschMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfUnique();
+        return registry != null ? new JschMetrics(registry) : JschMetrics.noop();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public HostResolver hostResolver(SshProperties properties) {
         return new PropertiesHostResolver(properties);
     }
 
+    /**
+     * Caches lookups of the application's HostResolver, or of the default one (ssh.host-cache.enabled=true). The
+     * cache is primary, so HostResolver injection points get it while the delegate stays injectable by its own type.
+     * Declared after hostResolver, whose missing-bean condition must not see it.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnMissingBean(CachingHostResolver.class)
+    @ConditionalOnProperty(prefix = "ssh.host-cache", name = "enabled", havingValue = "true")
+    public CachingHostResolver cachingHostResolver(ConfigurableListableBeanFactory beanFactory, HostCacheProperties props,
+                                                   ObjectProvider<JschSessionManager> jschSessionManager,
+                                                   JschMetrics jschMetrics) {
+        CachingHostResolver cache = new CachingHostResolver(cachedHostResolver(beanFactory), props);
+        // Looked up when a host changes, so the cache does not depend on the session manager
+        cache.addHostChangeListener((hostId, previous, current) ->
+                jschSessionManager.ifAvailable(sm -> sm.invalidate(previous.stableKey())));
+        jschMetrics.bindHostCache(cache);
+        return cache;
+    }
+
+    private static HostResolver cachedHostResolver(ConfigurableListableBeanFactory beanFactory) {
+        List<String> names = new ArrayList<>();
+        for (String name : beanFactory.getBeanNamesForType(HostResolver.class)) {
+            Class<?> type = beanFactory.getType(name);
+            if (type == null || !CachingHostResolver.class.isAssignableFrom(type)) {
+                names.add(name);
+            }
+        }
+        if (names.size() != 1) {
+            throw new IllegalStateException("ssh.host-cache needs exactly one HostResolver bean to cache, found " + names);
+        }
+        String name = names.get(0);
+        if (beanFactory.containsBeanDefinition(name) && beanFactory.getBeanDefinition(name).isPrimary()) {
+            throw new IllegalStateException("HostResolver bean '" + name
+                    + "' must not be @Primary when ssh.host-cache is enabled; the cache is the primary HostResolver");
+        }
+        return beanFactory.getBean(name, HostResolver.class);
+    }
+
     @Bean
     @ConditionalOnBean(JSch.class)
     @ConditionalOnMissingBean(JschSessionManager.class)
-    public JschSessionManager jschSessionManager(JSch jsch, SessionPoolProperties poolProps) {
-        return new HostConfigJschSessionManager(() -> jsch, poolProps);
+    public JschSessionManager jschSessionManager(JSch jsch, SessionPoolProperties poolProps, SshProperties properties,
+                                                 JschMetrics jschMetrics) {
+        ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability()).withMetrics(jschMetrics);
+        return new HostConfigJschSessionManager(() -> jsch, poolProps, observability);
     }
 
     @Bean
     @ConditionalOnBean(JSch.class)
     @ConditionalOnMissingBean(SshClient.class)
     public SshClient sshClient(SshProperties properties, JschSessionManager jschSessionManager,
-                               HostResolver resolver, ExecChannelFactory execChannelFactory) {
-        ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability());
+                               HostResolver resolver, ExecChannelFactory execChannelFactory, JschMetrics jschMetrics) {
+        ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability()).withMetrics(jschMetrics);
         SshTemplate template = new SshTemplate(jschSessionManager, execChannelFactory, new NoRetryStrategy(), observability, null);
         String defaultAlias = properties.getHosts().size() == 1 ? properties.getHosts().keySet().iterator().next() : null;
         return new ResolverBackedSshClient(resolver, template, defaultAlias);
@@ -69,10 +155,68 @@ public class JschAutoConfiguration {
     @ConditionalOnBean(JSch.class)
     @ConditionalOnMissingBean(SftpClient.class)
     public SftpClient sftpClient(SshProperties properties, JschSessionManager jschSessionManager,
-                                 HostResolver resolver, SftpChannelFactory sftpChannelFactory) {
-        ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability());
-        SftpTemplate template = new SftpTemplate(jschSessionManager, sftpChannelFactory, new NoRetryStrategy(), observability, null);
+                                 HostResolver resolver, SftpChannelFactory sftpChannelFactory,
+                                 ObjectProvider<SftpChannelPool> sftpChannelPool, JschMetrics jschMetrics) {
+        ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability()).withMetrics(jschMetrics);
+        SftpTemplate template = new SftpTemplate(jschSessionManager, sftpChannelFactory, new NoRetryStrategy(), observability, null,
+                sftpChannelPool.getIfAvailable());
         String defaultAlias = properties.getHosts().size() == 1 ? properties.getHosts().keySet().iterator().next() : null;
         return new ResolverBackedSftpClient(resolver, template, defaultAlias);
     }
+
+    @Bean(name = "jschAsyncExecutor", destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(name = "jschAsyncExecutor")
+    @ConditionalOnProperty(prefix = "ssh.async", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ExecutorService jschAsyncExecutor(AsyncClientProperties asyncProps) {
+        return AsyncSupport.defaultExecutor(asyncProps.isVirtualThreads(), asyncProps.getMaxThreads());
+    }
+
+    @Bean
+    @ConditionalOnBean(SshClient.class)
+    @ConditionalOnMissingBean(AsyncSshClient.class)
+    @ConditionalOnProperty(prefix = "ssh.async", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AsyncSshClient asyncSshClient(SshClient sshClient, @Qualifier("jschAsyncExecutor") Executor jschAsyncExecutor) {
+        return new DefaultAsyncSshClient(sshClient, jschAsyncExecutor);
+    }
+
+    @Bean
+    @ConditionalOnBean(SftpClient.class)
+    @ConditionalOnMissingBean(AsyncSftpClient.class)
+    @ConditionalOnProperty(prefix = "ssh.async", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AsyncSftpClient asyncSftpClient(SftpClient sftpClient, @Qualifier("jschAsyncExecutor") Executor jschAsyncExecutor) {
+        return new DefaultAsyncSftpClient(sftpClient, jschAsyncExecutor);
+    }
+
+    @Bean
+    @ConditionalOnBean(SftpClient.class)
+    @ConditionalOnMissingBean
+    public DirectorySync directorySync(SftpClient sftpClient, ObjectProvider<SshClient> sshClient) {
+        return new DirectorySync(sftpClient, sshClient.getIfAvailable());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(SshClient.class)
+    @ConditionalOnMissingBean
+    public FanOutExecutor fanOutExecutor(SshClient sshClient, FanOutProperties fanOutProps, HostResolver resolver,
+                                         @Qualifier("jschAsyncExecutor") ObjectProvider<Executor> jschAsyncExecutor) {
+        return new FanOutExecutor(sshClient, resolver, jschAsyncExecutor.getIfAvailable(), fanOutProps.getMaxConcurrency(),
+                fanOutProps.getMaxPerHost());
+    }
+
+    /**
+     * Connects to the configured and hinted hosts during startup (ssh.warm-up.enabled=true).
+     */
+    @Bean
+    @ConditionalOnBean(JschSessionManager.class)
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "ssh.warm-up", name = "enabled", havingValue = "true")
+    public ConnectionWarmUp connectionWarmUp(SshProperties properties, WarmUpProperties warmUpProps, HostResolver resolver,
+                                             JschSessionManager jschSessionManager) {
+        Set<String> hostIds = new LinkedHashSet<>();
+        if (warmUpProps.isIncludeConfigured()) {
+            hostIds.addAll(properties.getHosts().keySet());
+        }
+        hostIds.addAll(warmUpProps.getHosts());
+        return new ConnectionWarmUp(jschSessionManager, resolver, hostIds, warmUpProps.getMaxConcurrency(), warmUpProps.getTimeout());
+    }
 }
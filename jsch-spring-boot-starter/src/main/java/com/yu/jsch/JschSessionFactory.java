@@ -4,16 +4,21 @@ import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import com.yu.jsch.auth.AuthStrategy;
+import com.yu.jsch.channel.ChannelTuning;
+import com.yu.jsch.observability.JschMetrics;
+import com.yu.jsch.observability.ObservabilityConfig;
 
 import java.util.Objects;
 import java.util.function.Supplier;
 
 /**
  * Factory for creating configured JSch Session instances.
- * Applies timeouts, compression, keepalive, known_hosts, and authentication strategies.
+ * Applies timeouts, compression, keepalive, known_hosts, channel tuning, and authentication strategies.
  */
 public class JschSessionFactory {
 
+    private static final Class<?> DEFAULT_HOST_KEY_REPOSITORY = new JSch().getHostKeyRepository().getClass();
+
     private final Supplier<JSch> jschSupplier;
     private final String host;
     private final int port;
@@ -33,6 +38,8 @@ public class JschSessionFactory {
 
     private final AuthStrategy authStrategy;
 
+    private final ChannelTuning channelTuning;
+
     private JschSessionFactory(Builder builder) {
         this.jschSupplier = builder.jschSupplier;
         this.host = builder.host;
@@ -47,16 +54,38 @@ public class JschSessionFactory {
         this.knownHostsMode = builder.knownHostsMode;
         this.knownHostsPath = builder.knownHostsPath;
         this.authStrategy = builder.authStrategy;
+        this.channelTuning = builder.channelTuning;
+    }
+
+    /**
+     * Create and connect a session, recording the connect timer (op=connect) and failures.
+     */
+    public Session createAndConnect(ObservabilityConfig observability, String alias) throws JSchException {
+        JschMetrics metrics = observability != null ? observability.metrics() : JschMetrics.noop();
+        if (!metrics.isEnabled()) {
+            return createAndConnect();
+        }
+        long start = System.nanoTime();
+        try {
+            Session session = createAndConnect();
+            metrics.recordTime(observability.sessionConnectMetric(), alias, "connect", JschMetrics.OUTCOME_SUCCESS, System.nanoTime() - start);
+            return session;
+        } catch (JSchException | RuntimeException ex) {
+            metrics.recordTime(observability.sessionConnectMetric(), alias, "connect", JschMetrics.outcomeOf(ex), System.nanoTime() - start);
+            metrics.recordFailure(observability.sessionConnectMetric(), alias, "connect", ex);
+            throw ex;
+        }
     }
 
     public Session createAndConnect() throws JSchException {
         JSch jsch = Objects.requireNonNull(jschSupplier.get(), "JSch supplier returned null");
-        if (knownHostsPath != null && !knownHostsPath.isBlank()) {
-            jsch.setKnownHosts(knownHostsPath);
-        }
         Session session = null;
         try {
             session = jsch.getSession(username, host, port);
+            // The parsed file is cached and set on the session, leaving a custom repository of the JSch instance alone
+            if (knownHostsPath != null && !knownHostsPath.isBlank() && usesDefaultHostKeyRepository(jsch)) {
+                session.setHostKeyRepository(KnownHostsCache.shared().get(knownHostsPath));
+            }
             if (socketTimeoutMillis > 0) {
                 session.setTimeout(socketTimeoutMillis);
             }
@@ -81,6 +110,10 @@ public class JschSessionFactory {
                 session.setConfig("compression_level", String.valueOf(Math.max(0, Math.min(9, compressionLevel))));
             }
 
+            if (channelTuning != null) {
+                channelTuning.applyTo(session);
+            }
+
             if (authStrategy != null) {
                 authStrategy.configure(jsch, session);
             }
@@ -102,6 +135,10 @@ public class JschSessionFactory {
         }
     }
 
+    private static boolean usesDefaultHostKeyRepository(JSch jsch) {
+        return jsch.getHostKeyRepository().getClass() == DEFAULT_HOST_KEY_REPOSITORY;
+    }
+
     public String getHost() {
         return host;
     }
@@ -132,6 +169,7 @@ public class JschSessionFactory {
         private KnownHostsMode knownHostsMode = KnownHostsMode.STRICT;
         private String knownHostsPath = System.getProperty("user.home", "") + "/.ssh/known_hosts";
         private AuthStrategy authStrategy;
+        private ChannelTuning channelTuning;
 
         public Builder jsch(Supplier<JSch> supplier) {
             this.jschSupplier = Objects.requireNonNull(supplier);
@@ -213,6 +251,11 @@ public class JschSessionFactory {
             return this;
         }
 
+        public Builder channelTuning(ChannelTuning channelTuning) {
+            this.channelTuning = channelTuning;
+            return this;
+        }
+
         public JschSessionFactory build() {
             Objects.requireNonNull(jschSupplier, "jschSupplier");
             Objects.requireNonNull(host, "host");
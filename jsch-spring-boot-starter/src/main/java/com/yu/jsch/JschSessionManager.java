@@ -13,6 +13,23 @@ public interface JschSessionManager {
         T doInSession(Session session) throws Exception;
     }
 
+    @FunctionalInterface
+    interface SessionCloseListener {
+        void beforeClose(Session session);
+    }
+
+    /**
+     * A session held by the caller until {@link #close()}, for results that outlive a callback (e.g. an open
+     * remote stream). Closing hands the session back to its pool, or disconnects it when it is no longer usable
+     * or not pooled. Closing more than once has no effect.
+     */
+    interface SessionLease extends AutoCloseable {
+        Session session();
+
+        @Override
+        void close();
+    }
+
     <T> T execute(SessionCallback<T> callback) throws Exception;
 
     /**
@@ -24,6 +41,22 @@ public interface JschSessionManager {
         throw new UnsupportedOperationException("HostConfig-aware execute is not supported by this SessionManager");
     }
 
+    /**
+     * Acquire a session that stays with the caller until the returned lease is closed.
+     * Default implementation throws UnsupportedOperationException.
+     */
+    default SessionLease lease() throws Exception {
+        throw new UnsupportedOperationException("Session leases are not supported by this SessionManager");
+    }
+
+    /**
+     * Acquire a session resolved by the provided HostConfig that stays with the caller until the lease is closed.
+     * Default implementation throws UnsupportedOperationException.
+     */
+    default SessionLease lease(HostConfig hostConfig) throws Exception {
+        throw new UnsupportedOperationException("HostConfig-aware session leases are not supported by this SessionManager");
+    }
+
     boolean isValid(Session session);
 
     void close(Session session);
@@ -41,4 +74,12 @@ public interface JschSessionManager {
      */
     default void invalidateAll() {
     }
+
+    /**
+     * Register a listener invoked right before a session owned by this manager is disconnected
+     * (pool eviction/invalidation or the end of a single-use execution).
+     * Default no-op for managers that do not track session lifecycle.
+     */
+    default void addSessionCloseListener(SessionCloseListener listener) {
+    }
 }
@@ -0,0 +1,64 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.HostKeyRepository;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.yu.jsch.util.ResourceUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parsed known_hosts files shared by all sessions, keyed by path and reloaded when the file's modification time or
+ * size changes. Host keys accepted in ACCEPT_NEW mode are written back to the file by JSch, which makes the next
+ * connect reload it once.
+ */
+public final class KnownHostsCache {
+
+    private static final int MAX_ENTRIES = 64;
+    private static final KnownHostsCache SHARED = new KnownHostsCache();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public static KnownHostsCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Host key repository backed by the known_hosts file at {@code path} (~ is expanded). A missing file yields an
+     * empty repository that is re-checked on every call until the file appears.
+     */
+    public HostKeyRepository get(String path) throws JSchException {
+        ResourceUtils.FileStamp stamp = ResourceUtils.stamp(path);
+        synchronized (entries) {
+            Entry entry = entries.get(path);
+            if (entry != null && stamp != null && stamp.equals(entry.stamp)) {
+                return entry.repository;
+            }
+            JSch parser = new JSch();
+            parser.setKnownHosts(path);
+            HostKeyRepository repository = parser.getHostKeyRepository();
+            if (stamp != null) {
+                entries.put(path, new Entry(stamp, repository));
+            }
+            return repository;
+        }
+    }
+
+    /**
+     * Drop all cached files so the next connect re-reads them.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private record Entry(ResourceUtils.FileStamp stamp, HostKeyRepository repository) {
+    }
+}
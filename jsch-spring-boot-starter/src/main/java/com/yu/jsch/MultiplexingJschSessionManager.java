@@ -0,0 +1,120 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.Session;
+import com.yu.jsch.observability.JschMetrics;
+import com.yu.jsch.observability.ObservabilityConfig;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SessionManager that lets concurrent callbacks share a session instead of borrowing one exclusively: each session
+ * carries up to max-channels-per-session callbacks (each opening its own channel), and further sessions, up to
+ * max-total, are only connected when every open one is full. Callbacks must therefore not disconnect the session or
+ * change its settings. Keep max-channels-per-session within the server's MaxSessions (OpenSSH default 10), counting
+ * idle channels kept by the SFTP channel pool; a refused channel open lowers the limit of that session automatically.
+ */
+public class MultiplexingJschSessionManager implements JschSessionManager {
+
+    private final SessionMultiplexer multiplexer;
+    private final List<SessionCloseListener> closeListeners = new CopyOnWriteArrayList<>();
+
+    public MultiplexingJschSessionManager(JschSessionFactory sessionFactory, SessionPoolProperties props) {
+        this(sessionFactory, props, ObservabilityConfig.disabled(), null);
+    }
+
+    public MultiplexingJschSessionManager(JschSessionFactory sessionFactory, SessionPoolProperties props,
+                                          ObservabilityConfig observability, String hostAlias) {
+        Objects.requireNonNull(sessionFactory, "sessionFactory");
+        Objects.requireNonNull(props, "props");
+        ObservabilityConfig obs = observability != null ? observability : ObservabilityConfig.disabled();
+        String name = hostAlias != null ? hostAlias : sessionFactory.getHost();
+        this.multiplexer = new SessionMultiplexer(sessionFactory, props, closeListeners, obs, name);
+        registerGauges(obs.metrics(), hostAlias, multiplexer);
+        if (props.isPrewarm()) {
+            multiplexer.prewarm();
+        }
+    }
+
+    /**
+     * Session gauges report sessions with and without leased channels; channels in use are reported separately.
+     */
+    private static void registerGauges(JschMetrics metrics, String alias, SessionMultiplexer multiplexer) {
+        if (!metrics.isEnabled()) return;
+        metrics.gauge(JschMetrics.SESSION_POOL_ACTIVE, alias, multiplexer, m -> m.stats().activeSessions());
+        metrics.gauge(JschMetrics.SESSION_POOL_IDLE, alias, multiplexer,
+                m -> m.stats().sessions() - m.stats().activeSessions());
+        metrics.gauge(JschMetrics.SESSION_POOL_WAITERS, alias, multiplexer, m -> m.stats().waiters());
+        metrics.gauge(JschMetrics.SESSION_CHANNELS_ACTIVE, alias, multiplexer, m -> m.stats().channelsInUse());
+    }
+
+    @Override
+    public <T> T execute(SessionCallback<T> callback) throws Exception {
+        Objects.requireNonNull(callback, "callback");
+        return multiplexer.execute(callback);
+    }
+
+    /**
+     * Lease a slot on a shared session; the session stays shared with other callers while the lease is held.
+     */
+    @Override
+    public SessionLease lease() throws Exception {
+        return multiplexer.acquire();
+    }
+
+    @Override
+    public boolean isValid(Session session) {
+        return session != null && session.isConnected();
+    }
+
+    @Override
+    public void close(Session session) {
+        if (session != null) {
+            for (SessionCloseListener l : closeListeners) {
+                try {
+                    l.beforeClose(session);
+                } catch (Throwable ignore) {
+                }
+            }
+            try {
+                session.disconnect();
+            } catch (Throwable ignore) {
+            }
+        }
+    }
+
+    @Override
+    public void addSessionCloseListener(SessionCloseListener listener) {
+        if (listener != null) {
+            closeListeners.add(listener);
+        }
+    }
+
+    /**
+     * Stop handing out sessions and disconnect them; sessions in use are disconnected when released.
+     */
+    public void shutdown() {
+        multiplexer.close();
+    }
+
+    /**
+     * Get session and channel statistics for monitoring.
+     */
+    public MultiplexStats getStats() {
+        return multiplexer.stats();
+    }
+
+    /**
+     * @param sessions              connected sessions
+     * @param activeSessions        sessions with at least one callback or lease
+     * @param channelsInUse         callbacks and leases currently running across all sessions
+     * @param maxSessions           max-total sessions
+     * @param maxChannelsPerSession lowest per-session limit of the connected sessions, lowered on a session whose
+     *                              server refused a channel
+     * @param waiters               callers waiting for a slot
+     */
+    public static record MultiplexStats(int sessions, int activeSessions, int channelsInUse, int maxSessions,
+                                        int maxChannelsPerSession, int waiters) {
+    }
+}
@@ -2,32 +2,46 @@ package com.yu.jsch;
 
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import com.yu.jsch.observability.JschMetrics;
+import com.yu.jsch.observability.ObservabilityConfig;
 import org.apache.commons.pool2.BasePooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * SessionManager backed by an Apache Commons Pool2 GenericObjectPool of JSch Sessions.
  * Validates sessions before use (configurable) and returns/invalidates them depending on outcome.
+ * A background evictor closes idle, dead and over-age sessions and refills the pool to min-idle.
  */
 public class PooledJschSessionManager implements JschSessionManager {
 
     private final GenericObjectPool<Session> pool;
+    private final List<SessionCloseListener> closeListeners = new CopyOnWriteArrayList<>();
 
     public PooledJschSessionManager(JschSessionFactory sessionFactory, SessionPoolProperties props) {
+        this(sessionFactory, props, ObservabilityConfig.disabled(), null);
+    }
+
+    public PooledJschSessionManager(JschSessionFactory sessionFactory, SessionPoolProperties props,
+                                    ObservabilityConfig observability, String hostAlias) {
         Objects.requireNonNull(sessionFactory, "sessionFactory");
         Objects.requireNonNull(props, "props");
-        GenericObjectPoolConfig<Session> cfg = new GenericObjectPoolConfig<>();
-        cfg.setMaxTotal(props.getMaxTotal());
-        cfg.setMaxIdle(props.getMaxIdle());
-        cfg.setMinIdle(props.getMinIdle());
-        cfg.setTestOnBorrow(props.isValidateOnBorrow());
-        cfg.setBlockWhenExhausted(true);
-        this.pool = new GenericObjectPool<>(new SessionPooledObjectFactory(sessionFactory), cfg);
+        GenericObjectPoolConfig<Session> cfg = SessionPools.poolConfig(props);
+        ObservabilityConfig obs = observability != null ? observability : ObservabilityConfig.disabled();
+        this.pool = new GenericObjectPool<>(new SessionPooledObjectFactory(sessionFactory, props, closeListeners, obs, hostAlias), cfg);
+        JschMetrics metrics = obs.metrics();
+        metrics.gauge(JschMetrics.SESSION_POOL_ACTIVE, hostAlias, pool, GenericObjectPool::getNumActive);
+        metrics.gauge(JschMetrics.SESSION_POOL_IDLE, hostAlias, pool, GenericObjectPool::getNumIdle);
+        metrics.gauge(JschMetrics.SESSION_POOL_WAITERS, hostAlias, pool, GenericObjectPool::getNumWaiters);
+        if (props.isPrewarm()) {
+            SessionPools.prewarm(pool, hostAlias != null ? hostAlias : sessionFactory.getHost());
+        }
     }
 
     @Override
@@ -75,6 +89,11 @@ public class PooledJschSessionManager implements JschSessionManager {
         }
     }
 
+    @Override
+    public SessionLease lease() throws Exception {
+        return SessionPools.lease(pool);
+    }
+
     @Override
     public boolean isValid(Session session) {
         return session != null && session.isConnected();
@@ -83,6 +102,7 @@ public class PooledJschSessionManager implements JschSessionManager {
     @Override
     public void close(Session session) {
         if (session != null) {
+            notifyBeforeClose(closeListeners, session);
             try {
                 session.disconnect();
             } catch (Throwable ignore) {
@@ -90,6 +110,13 @@ public class PooledJschSessionManager implements JschSessionManager {
         }
     }
 
+    @Override
+    public void addSessionCloseListener(SessionCloseListener listener) {
+        if (listener != null) {
+            closeListeners.add(listener);
+        }
+    }
+
     /**
      * Shutdown the connection pool and close all sessions.
      * Should be called when the SessionManager is no longer needed.
@@ -109,29 +136,48 @@ public class PooledJschSessionManager implements JschSessionManager {
      */
     public PoolStats getPoolStats() {
         if (pool == null) {
-            return new PoolStats(0, 0, 0, 0);
+            return new PoolStats(0, 0, 0, 0, 0);
         }
         return new PoolStats(
                 pool.getNumActive(),
                 pool.getNumIdle(),
                 pool.getMaxTotal(),
-                pool.getMaxIdle()
+                pool.getMaxIdle(),
+                pool.getNumWaiters()
         );
     }
 
-    public static record PoolStats(int active, int idle, int maxTotal, int maxIdle) {
+    private static void notifyBeforeClose(List<SessionCloseListener> listeners, Session session) {
+        for (SessionCloseListener l : listeners) {
+            try {
+                l.beforeClose(session);
+            } catch (Throwable ignore) {
+            }
+        }
+    }
+
+    public static record PoolStats(int active, int idle, int maxTotal, int maxIdle, int waiters) {
     }
 
     private static class SessionPooledObjectFactory extends BasePooledObjectFactory<Session> {
         private final JschSessionFactory sessionFactory;
+        private final SessionPoolProperties props;
+        private final List<SessionCloseListener> closeListeners;
+        private final ObservabilityConfig observability;
+        private final String hostAlias;
 
-        SessionPooledObjectFactory(JschSessionFactory sessionFactory) {
+        SessionPooledObjectFactory(JschSessionFactory sessionFactory, SessionPoolProperties props, List<SessionCloseListener> closeListeners,
+                                   ObservabilityConfig observability, String hostAlias) {
             this.sessionFactory = sessionFactory;
+            this.props = props;
+            this.closeListeners = closeListeners;
+            this.observability = observability;
+            this.hostAlias = hostAlias;
         }
 
         @Override
         public Session create() throws Exception {
-            return sessionFactory.createAndConnect();
+            return sessionFactory.createAndConnect(observability, hostAlias);
         }
 
         @Override
@@ -141,14 +187,14 @@ public class PooledJschSessionManager implements JschSessionManager {
 
         @Override
         public boolean validateObject(PooledObject<Session> p) {
-            Session s = p.getObject();
-            return s != null && s.isConnected();
+            return SessionPools.validate(p, props);
         }
 
         @Override
         public void destroyObject(PooledObject<Session> p) {
             Session s = p.getObject();
             if (s != null) {
+                notifyBeforeClose(closeListeners, s);
                 try {
                     s.disconnect();
                 } catch (Throwable ignore) {
@@ -0,0 +1,488 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.yu.jsch.observability.ObservabilityConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares the connected sessions of one host between concurrent callers, like OpenSSH's ControlMaster: a session
+ * carries up to max-channels-per-session leases at once and another session is only connected when every open one
+ * is full, up to max-total sessions; beyond that callers wait up to max-wait. When the server refuses a channel
+ * (its MaxSessions limit) the number of leases on that session is lowered to what it was carrying; sessions connected
+ * later start at the configured limit again, so a transient refusal does not stick. Refilling to min-idle after an
+ * eviction run connects on a refill thread of its own, so a slow host does not hold up the eviction of others.
+ */
+final class SessionMultiplexer {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionMultiplexer.class);
+
+    private static final String CHANNEL_NOT_OPENED = "channel is not opened";
+
+    private final JschSessionFactory sessionFactory;
+    private final SessionPoolProperties props;
+    private final List<JschSessionManager.SessionCloseListener> closeListeners;
+    private final ObservabilityConfig observability;
+    private final String name;
+    private final int maxSessions;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<Shared> sessions = new ArrayList<>();
+    private final ScheduledFuture<?> eviction;
+    /**
+     * Configured leases per session; each session starts with it and lowers its own limit on a refused channel.
+     */
+    private final int channelLimit;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    /**
+     * Sessions being connected, and the callers (including the connecting ones) that will lease a slot on them.
+     */
+    private int connecting;
+    private int claims;
+    private int waiters;
+    private boolean closed;
+
+    SessionMultiplexer(JschSessionFactory sessionFactory, SessionPoolProperties props,
+                       List<JschSessionManager.SessionCloseListener> closeListeners, ObservabilityConfig observability,
+                       String name) {
+        this.sessionFactory = sessionFactory;
+        this.props = props;
+        this.closeListeners = closeListeners;
+        this.observability = observability;
+        this.name = name;
+        this.maxSessions = Math.max(1, props.getMaxTotal());
+        this.channelLimit = Math.max(1, props.getMaxChannelsPerSession());
+        Duration interval = props.getEvictionInterval();
+        if (isPositive(interval)) {
+            long millis = interval.toMillis();
+            this.eviction = Evictor.EXECUTOR.scheduleWithFixedDelay(this::evict, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.eviction = null;
+        }
+    }
+
+    /**
+     * Run the callback on a shared session slot. A refused channel lowers the per-session limit before the
+     * failure is rethrown, so a retry lands on a session with room.
+     */
+    <T> T execute(JschSessionManager.SessionCallback<T> callback) throws Exception {
+        Lease lease = acquire();
+        try {
+            return callback.doInSession(lease.session());
+        } catch (Exception e) {
+            if (isChannelRefused(e)) channelRefused(lease.shared);
+            throw e;
+        } finally {
+            lease.close();
+        }
+    }
+
+    /**
+     * Lease a slot on the least loaded session with room, connecting a new session when all are full.
+     */
+    Lease acquire() throws JSchException {
+        long remaining = isPositive(props.getMaxWait()) ? props.getMaxWait().toNanos() : -1L;
+        List<Shared> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) throw new IllegalStateException("Session multiplexer " + name + " is closed");
+                Shared best = leastLoaded(expired);
+                if (best != null) {
+                    best.leases++;
+                    return new Lease(best);
+                }
+                if (claims < connecting * channelLimit) {
+                    // A session being connected will have room for this caller
+                    claims++;
+                    try {
+                        remaining = await(remaining);
+                    } finally {
+                        claims--;
+                    }
+                } else if (sessions.size() + connecting < maxSessions) {
+                    connecting++;
+                    claims++;
+                    break;
+                } else {
+                    remaining = await(remaining);
+                }
+            }
+        } finally {
+            lock.unlock();
+            expired.forEach(s -> disconnect(s.session));
+        }
+        return new Lease(open(true));
+    }
+
+    /**
+     * Connect sessions up to min-idle. Failures are logged; sessions are connected on demand instead.
+     */
+    void prewarm() {
+        int target = Math.min(props.getMinIdle(), maxSessions);
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || sessions.size() + connecting >= target) return;
+                connecting++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                open(false);
+            } catch (Exception e) {
+                log.warn("Failed to pre-warm SSH sessions of {}: {}", name, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Connect a session reserved by {@code connecting++}, optionally leasing its first slot to the caller.
+     */
+    private Shared open(boolean lease) throws JSchException {
+        Session session = null;
+        try {
+            session = sessionFactory.createAndConnect(observability, name);
+        } finally {
+            lock.lock();
+            try {
+                connecting--;
+                if (lease) claims--;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        Shared shared = new Shared(session, channelLimit);
+        lock.lock();
+        try {
+            if (!closed) {
+                if (lease) shared.leases = 1;
+                sessions.add(shared);
+                changed.signalAll();
+                return shared;
+            }
+        } finally {
+            lock.unlock();
+        }
+        disconnect(session);
+        throw new IllegalStateException("Session multiplexer " + name + " is closed");
+    }
+
+    /**
+     * Least loaded connected session with a free slot. Dead and over-age sessions are retired on the way; those
+     * without leases are added to {@code expired} for the caller to disconnect outside the lock.
+     */
+    private Shared leastLoaded(List<Shared> expired) {
+        Shared best = null;
+        for (int i = 0; i < sessions.size(); i++) {
+            Shared s = sessions.get(i);
+            if (!s.session.isConnected() || isOverAge(s)) {
+                sessions.remove(i--);
+                s.retired = true;
+                if (s.leases == 0) expired.add(s);
+                continue;
+            }
+            if (s.leases < s.channelLimit && (best == null || s.leases < best.leases)) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    private long await(long remainingNanos) throws JSchException {
+        if (remainingNanos == 0L) {
+            throw new JSchException("No SSH session slot available within " + props.getMaxWait().toMillis() + " ms (max "
+                    + maxSessions + " sessions with up to " + channelLimit + " channels each)");
+        }
+        waiters++;
+        try {
+            if (remainingNanos < 0L) {
+                changed.await();
+                return remainingNanos;
+            }
+            return Math.max(0L, changed.awaitNanos(remainingNanos));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new JSchException("Interrupted while waiting for an SSH session", ie);
+        } finally {
+            waiters--;
+        }
+    }
+
+    private void release(Shared shared) {
+        boolean disconnect;
+        lock.lock();
+        try {
+            shared.leases--;
+            shared.lastUsedNanos = System.nanoTime();
+            if (!shared.retired && !shared.session.isConnected()) {
+                sessions.remove(shared);
+                shared.retired = true;
+            }
+            disconnect = shared.retired && shared.leases == 0;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (disconnect) disconnect(shared.session);
+    }
+
+    private void channelRefused(Shared shared) {
+        lock.lock();
+        try {
+            // The refused lease is still counted; the others are what the server accepted
+            int limit = Math.max(1, shared.leases - 1);
+            if (limit < shared.channelLimit) {
+                log.warn("SSH server of {} refused a channel with {} in use on the session; limiting the session to {} "
+                        + "concurrent channels", name, shared.leases - 1, limit);
+                shared.channelLimit = limit;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isChannelRefused(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof JSchException && t.getMessage() != null && t.getMessage().contains(CHANNEL_NOT_OPENED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Close sessions idle past min-evictable-idle-time (keeping min-idle) or past max-lifetime, probe the remaining
+     * idle sessions with a keepalive when test-while-idle is set, and start refilling to min-idle.
+     */
+    private void evict() {
+        try {
+            List<Shared> idle = new ArrayList<>();
+            List<Shared> evicted = new ArrayList<>();
+            Duration minIdleTime = props.getMinEvictableIdleTime();
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                if (closed) return;
+                for (int i = 0; i < sessions.size(); i++) {
+                    Shared s = sessions.get(i);
+                    if (s.leases > 0) continue;
+                    boolean idleTooLong = isPositive(minIdleTime) && now - s.lastUsedNanos > minIdleTime.toNanos()
+                            && sessions.size() > props.getMinIdle();
+                    if (!s.session.isConnected() || isOverAge(s) || idleTooLong) {
+                        sessions.remove(i--);
+                        s.retired = true;
+                        evicted.add(s);
+                    } else {
+                        idle.add(s);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            evicted.forEach(s -> disconnect(s.session));
+            if (props.isTestWhileIdle()) {
+                for (Shared s : idle) {
+                    try {
+                        s.session.sendKeepAliveMsg();
+                    } catch (Exception e) {
+                        retire(s);
+                    }
+                }
+            }
+            refillAsync();
+        } catch (RuntimeException e) {
+            log.debug("SSH session eviction of {} failed: {}", name, e.toString());
+        }
+    }
+
+    /**
+     * Connect sessions up to min-idle on a refill thread, unless a refill of this multiplexer is still running.
+     */
+    private void refillAsync() {
+        lock.lock();
+        try {
+            if (closed || sessions.size() + connecting >= Math.min(props.getMinIdle(), maxSessions)) return;
+        } finally {
+            lock.unlock();
+        }
+        if (!refilling.compareAndSet(false, true)) return;
+        try {
+            Refill.EXECUTOR.execute(() -> {
+                try {
+                    prewarm();
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    private void retire(Shared shared) {
+        boolean disconnect = false;
+        lock.lock();
+        try {
+            if (sessions.remove(shared)) {
+                shared.retired = true;
+                disconnect = shared.leases == 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (disconnect) disconnect(shared.session);
+    }
+
+    private boolean isOverAge(Shared shared) {
+        Duration maxLifetime = props.getMaxLifetime();
+        return isPositive(maxLifetime) && System.nanoTime() - shared.createdNanos > maxLifetime.toNanos();
+    }
+
+    MultiplexingJschSessionManager.MultiplexStats stats() {
+        lock.lock();
+        try {
+            int active = 0;
+            int leases = 0;
+            int limit = channelLimit;
+            for (Shared s : sessions) {
+                if (s.leases > 0) active++;
+                leases += s.leases;
+                limit = Math.min(limit, s.channelLimit);
+            }
+            return new MultiplexingJschSessionManager.MultiplexStats(sessions.size(), active, leases, maxSessions,
+                    limit, waiters);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop handing out sessions. Idle sessions are disconnected now, leased ones when their last lease is closed.
+     */
+    void close() {
+        List<Shared> idle = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            if (eviction != null) eviction.cancel(false);
+            for (Shared s : sessions) {
+                s.retired = true;
+                if (s.leases == 0) idle.add(s);
+            }
+            sessions.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        idle.forEach(s -> disconnect(s.session));
+    }
+
+    private void disconnect(Session session) {
+        for (JschSessionManager.SessionCloseListener l : closeListeners) {
+            try {
+                l.beforeClose(session);
+            } catch (Throwable ignore) {
+            }
+        }
+        try {
+            session.disconnect();
+        } catch (Throwable ignore) {
+        }
+    }
+
+    private static boolean isPositive(Duration d) {
+        return d != null && !d.isZero() && !d.isNegative();
+    }
+
+    /**
+     * A slot on a shared session; closing it frees the slot. Closing more than once has no effect.
+     */
+    final class Lease implements JschSessionManager.SessionLease {
+        private final Shared shared;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Shared shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public Session session() {
+            return shared.session;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) release(shared);
+        }
+    }
+
+    /**
+     * A connected session, its lease count and lease limit; guarded by the multiplexer lock. Retired sessions take
+     * no new leases and are disconnected once the last one is closed.
+     */
+    private static final class Shared {
+        private final Session session;
+        private final long createdNanos = System.nanoTime();
+        private long lastUsedNanos = createdNanos;
+        private int leases;
+        private int channelLimit;
+        private boolean retired;
+
+        private Shared(Session session, int channelLimit) {
+            this.session = session;
+            this.channelLimit = channelLimit;
+        }
+    }
+
+    /**
+     * One daemon thread runs the eviction of every multiplexer; created on first use.
+     */
+    private static final class Evictor {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "jsch-session-multiplexer-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Daemon threads connecting sessions for refills, at most one per multiplexer at a time; created on first use.
+     */
+    private static final class Refill {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "jsch-session-multiplexer-refill-" + COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
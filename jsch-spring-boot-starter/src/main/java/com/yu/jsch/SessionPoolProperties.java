@@ -1,13 +1,16 @@
 package com.yu.jsch;
 
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 /**
  * Global session pool properties controlling whether commons-pool2-backed session pooling is enabled
- * and the pool sizing/validation settings.
+ * and the pool sizing, validation, eviction and lifetime settings, or whether sessions are multiplexed.
  */
 @Validated
 @ConfigurationProperties(prefix = "ssh.session-pool")
@@ -41,6 +44,54 @@ public class SessionPoolProperties {
      */
     private boolean validateOnBorrow = true;
 
+    /**
+     * Max time to wait for a session when the pool is exhausted. Zero or negative waits indefinitely.
+     */
+    @NotNull
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * Fill the pool to min-idle when it is created instead of on first use.
+     */
+    private boolean prewarm = true;
+
+    /**
+     * Interval of the background evictor. Zero or negative disables eviction, idle validation and min-idle refill.
+     */
+    @NotNull
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Idle sessions unused for longer than this are closed by the evictor (min-idle sessions are kept).
+     */
+    @NotNull
+    private Duration minEvictableIdleTime = Duration.ofMinutes(5);
+
+    /**
+     * Validate idle sessions during eviction runs. Validation also writes a keepalive message so dead
+     * connections are dropped instead of being handed out.
+     */
+    private boolean testWhileIdle = true;
+
+    /**
+     * Maximum lifetime of a session; older sessions are rotated when validated. Zero or negative disables.
+     */
+    @NotNull
+    private Duration maxLifetime = Duration.ofMinutes(30);
+
+    /**
+     * Share sessions between concurrent executions instead of leasing each one exclusively. Max-total then bounds
+     * the sessions per host, each carrying up to max-channels-per-session executions.
+     */
+    private boolean multiplex = false;
+
+    /**
+     * Concurrent executions (channels) per session when multiplexing. Keep within the server's MaxSessions
+     * (OpenSSH default 10).
+     */
+    @Positive
+    private int maxChannelsPerSession = 8;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -80,4 +131,89 @@ public class SessionPoolProperties {
     public void setValidateOnBorrow(boolean validateOnBorrow) {
         this.validateOnBorrow = validateOnBorrow;
     }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public boolean isPrewarm() {
+        return prewarm;
+    }
+
+    public void setPrewarm(boolean prewarm) {
+        this.prewarm = prewarm;
+    }
+
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    public Duration getMinEvictableIdleTime() {
+        return minEvictableIdleTime;
+    }
+
+    public void setMinEvictableIdleTime(Duration minEvictableIdleTime) {
+        this.minEvictableIdleTime = minEvictableIdleTime;
+    }
+
+    public boolean isTestWhileIdle() {
+        return testWhileIdle;
+    }
+
+    public void setTestWhileIdle(boolean testWhileIdle) {
+        this.testWhileIdle = testWhileIdle;
+    }
+
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public boolean isMultiplex() {
+        return multiplex;
+    }
+
+    public void setMultiplex(boolean multiplex) {
+        this.multiplex = multiplex;
+    }
+
+    public int getMaxChannelsPerSession() {
+        return maxChannelsPerSession;
+    }
+
+    public void setMaxChannelsPerSession(int maxChannelsPerSession) {
+        this.maxChannelsPerSession = maxChannelsPerSession;
+    }
+
+    /**
+     * Copy of these properties, used to derive per-host pool settings.
+     */
+    public SessionPoolProperties copy() {
+        SessionPoolProperties c = new SessionPoolProperties();
+        c.enabled = enabled;
+        c.maxTotal = maxTotal;
+        c.maxIdle = maxIdle;
+        c.minIdle = minIdle;
+        c.validateOnBorrow = validateOnBorrow;
+        c.maxWait = maxWait;
+        c.prewarm = prewarm;
+        c.evictionInterval = evictionInterval;
+        c.minEvictableIdleTime = minEvictableIdleTime;
+        c.testWhileIdle = testWhileIdle;
+        c.maxLifetime = maxLifetime;
+        c.multiplex = multiplex;
+        c.maxChannelsPerSession = maxChannelsPerSession;
+        return c;
+    }
 }
@@ -0,0 +1,113 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool configuration and validation shared by the commons-pool2 backed session managers.
+ */
+final class SessionPools {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionPools.class);
+
+    private SessionPools() {
+    }
+
+    static GenericObjectPoolConfig<Session> poolConfig(SessionPoolProperties props) {
+        GenericObjectPoolConfig<Session> cfg = new GenericObjectPoolConfig<>();
+        cfg.setMaxTotal(props.getMaxTotal());
+        cfg.setMaxIdle(props.getMaxIdle());
+        cfg.setMinIdle(props.getMinIdle());
+        cfg.setTestOnBorrow(props.isValidateOnBorrow());
+        cfg.setBlockWhenExhausted(true);
+        Duration maxWait = props.getMaxWait();
+        cfg.setMaxWait(isPositive(maxWait) ? maxWait : Duration.ofMillis(-1));
+        Duration interval = props.getEvictionInterval();
+        if (isPositive(interval)) {
+            cfg.setTimeBetweenEvictionRuns(interval);
+            cfg.setTestWhileIdle(props.isTestWhileIdle());
+            // Examine every idle session on each run
+            cfg.setNumTestsPerEvictionRun(-1);
+            if (props.getMinEvictableIdleTime() != null) {
+                cfg.setMinEvictableIdleDuration(props.getMinEvictableIdleTime());
+            }
+        }
+        cfg.setJmxEnabled(false);
+        return cfg;
+    }
+
+    /**
+     * A pooled session is valid while connected and younger than max-lifetime. When {@code probe} is set a keepalive
+     * message is written so a half-closed TCP connection is detected before the session is handed out again.
+     */
+    static boolean validate(PooledObject<Session> p, SessionPoolProperties props) {
+        Session s = p.getObject();
+        if (s == null || !s.isConnected()) return false;
+        Duration maxLifetime = props.getMaxLifetime();
+        if (isPositive(maxLifetime) && p.getCreateInstant().plus(maxLifetime).isBefore(Instant.now())) {
+            return false;
+        }
+        if (props.isTestWhileIdle()) {
+            try {
+                s.sendKeepAliveMsg();
+            } catch (Exception e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fill the pool to min-idle. Failures are logged; the pool keeps working and retries on demand.
+     */
+    static void prewarm(GenericObjectPool<Session> pool, String poolName) {
+        if (pool.getMinIdle() <= 0) return;
+        try {
+            pool.preparePool();
+        } catch (Exception e) {
+            log.warn("Failed to pre-warm SSH session pool {}: {}", poolName, e.getMessage());
+        }
+    }
+
+    /**
+     * Borrow a connected session as a lease that returns it to the pool on close, or invalidates it when it
+     * disconnected in the meantime.
+     */
+    static JschSessionManager.SessionLease lease(GenericObjectPool<Session> pool) throws Exception {
+        Session session = pool.borrowObject();
+        if (session == null || !session.isConnected()) {
+            pool.invalidateObject(session);
+            throw new JSchException("Borrowed session is not connected");
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return new JschSessionManager.SessionLease() {
+            @Override
+            public Session session() {
+                return session;
+            }
+
+            @Override
+            public void close() {
+                if (!closed.compareAndSet(false, true)) return;
+                try {
+                    if (session.isConnected()) pool.returnObject(session);
+                    else pool.invalidateObject(session);
+                } catch (Exception ignore) {
+                }
+            }
+        };
+    }
+
+    private static boolean isPositive(Duration d) {
+        return d != null && !d.isZero() && !d.isNegative();
+    }
+}
@@ -0,0 +1,100 @@
+package com.yu.jsch;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Properties controlling pooling of long-lived SFTP channels on top of (pooled) SSH sessions.
+ * When enabled, SftpTemplate leases an already-connected ChannelSftp instead of starting the
+ * SFTP subsystem for every operation.
+ */
+@Validated
+@ConfigurationProperties(prefix = "ssh.sftp-channel-pool")
+public class SftpChannelPoolProperties {
+
+    /**
+     * Enable pooling of SFTP channels per session.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of open SFTP channels (leased + idle) kept per SSH session.
+     */
+    @Positive
+    private int maxChannelsPerSession = 4;
+
+    /**
+     * Idle channels unused for longer than this are closed.
+     */
+    @NotNull
+    private Duration maxIdleTime = Duration.ofMinutes(1);
+
+    /**
+     * Interval of the background idle-channel evictor. Zero or negative disables it.
+     */
+    @NotNull
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Max time to wait for a channel when a session already has max-channels-per-session channels leased.
+     */
+    @NotNull
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * Health-check an idle channel with a cheap realpath round-trip before handing it out.
+     */
+    private boolean validateOnBorrow = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxChannelsPerSession() {
+        return maxChannelsPerSession;
+    }
+
+    public void setMaxChannelsPerSession(int maxChannelsPerSession) {
+        this.maxChannelsPerSession = maxChannelsPerSession;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    public void setValidateOnBorrow(boolean validateOnBorrow) {
+        this.validateOnBorrow = validateOnBorrow;
+    }
+}
@@ -3,9 +3,15 @@ package com.yu.jsch;
 import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.Session;
 import com.jcraft.jsch.SftpException;
+import com.yu.jsch.channel.ChannelTuning;
 import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.channel.SftpChannelPool;
+import com.yu.jsch.channel.SftpReadPipeline;
+import com.yu.jsch.client.AsyncSupport;
 import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.observability.JschMetrics;
 import com.yu.jsch.observability.ObservabilityConfig;
 import com.yu.jsch.sftp.*;
 import com.yu.jsch.strategy.NoRetryStrategy;
@@ -14,25 +20,90 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Vector;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Template to perform SFTP operations managing session/channel lifecycle and retries.
+ * When an {@link SftpChannelPool} is supplied, channels are leased from the pool and kept open
+ * across operations on the same session instead of being opened and disconnected per call.
  */
 public class SftpTemplate {
 
     private static final Logger log = LoggerFactory.getLogger(SftpTemplate.class);
 
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Largest array size the JVM reliably allocates; bounds in-memory downloads.
+     */
+    private static final long MAX_ARRAY_BYTES = Integer.MAX_VALUE - 8;
+
+    /**
+     * ChannelSftp opens the target with TRUNC only for OVERWRITE and shifts the offset by the current remote size
+     * only for RESUME/APPEND; any other mode opens it for writing as-is and writes at exactly the given offset.
+     */
+    static final int WRITE_AT_OFFSET = 3;
+
+    /**
+     * Largest region of an upload source mapped at once when memory-mapped reads are enabled.
+     */
+    private static final long MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Uploaded ranges wait for the server's acknowledgements (and checkpoint) at least this often.
+     */
+    private static final long UPLOAD_CHECKPOINT_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * Trailing bytes of a partial file compared with the source before resuming after it.
+     */
+    private static final int RESUME_VERIFY_BYTES = 64 * 1024;
+
+    /**
+     * Suffix of the sidecar file recording how far a partial file is known to be contiguous. It is kept while a
+     * transfer may leave holes (ranges completing out of order, or a resume rewriting the unverified tail of a partial
+     * file), so that a resume after a failure or a crash never trusts more than the recorded offset.
+     */
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
     private final JschSessionManager jschSessionManager;
     private final SftpChannelFactory sftpChannelFactory;
     private final RetryStrategy retryStrategy;
     private final ObservabilityConfig observability;
     private final String hostAlias;
+    private final SftpChannelPool channelPool;
 
     public SftpTemplate(JschSessionManager jschSessionManager) {
         this(jschSessionManager, new SftpChannelFactory(), new NoRetryStrategy(), ObservabilityConfig.disabled(), null);
@@ -44,11 +115,21 @@ public class SftpTemplate {
 
     public SftpTemplate(JschSessionManager jschSessionManager, SftpChannelFactory sftpChannelFactory, RetryStrategy retryStrategy,
                         ObservabilityConfig observability, String hostAlias) {
+        this(jschSessionManager, sftpChannelFactory, retryStrategy, observability, hostAlias, null);
+    }
+
+    public SftpTemplate(JschSessionManager jschSessionManager, SftpChannelFactory sftpChannelFactory, RetryStrategy retryStrategy,
+                        ObservabilityConfig observability, String hostAlias, SftpChannelPool channelPool) {
         this.jschSessionManager = Objects.requireNonNull(jschSessionManager, "sessionManager");
         this.sftpChannelFactory = Objects.requireNonNull(sftpChannelFactory, "sftpChannelFactory");
         this.retryStrategy = Objects.requireNonNullElseGet(retryStrategy, NoRetryStrategy::new);
         this.observability = observability != null ? observability : ObservabilityConfig.disabled();
         this.hostAlias = hostAlias;
+        this.channelPool = channelPool;
+        if (channelPool != null) {
+            // Pooled channels must not outlive the session they were opened on
+            this.jschSessionManager.addSessionCloseListener(channelPool::closeAll);
+        }
     }
 
     public void mkdir(String path, int connectTimeoutMillis) throws SftpClientException {
@@ -65,6 +146,16 @@ public class SftpTemplate {
         });
     }
 
+    /**
+     * Remove an empty remote directory.
+     */
+    public void rmdir(String path, int connectTimeoutMillis) throws SftpClientException {
+        execute("rmdir", idempotent(true), connectTimeoutMillis, sftp -> {
+            sftp.rmdir(path);
+            return null;
+        });
+    }
+
     public void rename(String from, String to, boolean overwrite, int connectTimeoutMillis) throws SftpClientException {
         execute("rename", idempotent(true), connectTimeoutMillis, sftp -> {
             try {
@@ -86,22 +177,80 @@ public class SftpTemplate {
     }
 
     public List<SftpFileInfo> list(String path, int connectTimeoutMillis) throws SftpClientException {
-        return execute("list", idempotent(true), connectTimeoutMillis, sftp -> {
-            Vector<ChannelSftp.LsEntry> entries = sftp.ls(path);
-            List<SftpFileInfo> list = new ArrayList<>();
-            for (ChannelSftp.LsEntry e : entries) {
-                String name = e.getFilename();
-                if (".".equals(name) || "..".equals(name)) continue;
-                SftpATTRS a = e.getAttrs();
-                boolean dir = a != null && a.isDir();
-                long size = a != null ? a.getSize() : 0L;
-                Instant mtime = a != null ? Instant.ofEpochSecond(a.getMTime()) : null;
-                list.add(new SftpFileInfo(name, dir, size, mtime));
-            }
-            return list;
+        return list(path, null, 0, connectTimeoutMillis);
+    }
+
+    /**
+     * List the entries accepted by {@code filter} (null accepts all), stopping once {@code limit} of them were
+     * collected (zero or negative means no limit). The last path element may be a glob such as {@code *.csv}.
+     * Entries are filtered while the listing is read, so rejected entries are never retained.
+     */
+    public List<SftpFileInfo> list(String path, Predicate<SftpFileInfo> filter, int limit, int connectTimeoutMillis) throws SftpClientException {
+        return execute("list", idempotent(true), connectTimeoutMillis, sftp -> collectEntries(sftp, path, filter, limit));
+    }
+
+    /**
+     * Hand each entry to the visitor as the listing is read, without retaining the listing; the visitor stops the
+     * listing by returning false. Not retried, since entries may already have been delivered when a failure occurs.
+     */
+    public void forEachEntry(String path, SftpEntryVisitor visitor, int connectTimeoutMillis) throws SftpClientException {
+        Objects.requireNonNull(visitor, "visitor");
+        execute("list", idempotent(false), connectTimeoutMillis, sftp -> {
+            visitEntries(sftp, path, visitor);
+            return null;
         });
     }
 
+    /**
+     * Walk the tree below {@code root}, listing up to {@link WalkOptions#getParallelism()} directories concurrently,
+     * each over its own pooled session/channel. Every entry accepted by the filter is handed to the visitor with the
+     * attributes from the listing, so no follow-up stat is needed. Symbolic links are reported but not followed.
+     */
+    public void walk(String root, WalkOptions options, SftpWalkVisitor visitor, int connectTimeoutMillis) throws SftpClientException {
+        walkTree(this::execute, root, options, visitor, connectTimeoutMillis);
+    }
+
+    /**
+     * Collect the entries of a {@link #walk} keyed by remote path, in path order.
+     */
+    public Map<String, SftpFileInfo> find(String root, WalkOptions options, int connectTimeoutMillis) throws SftpClientException {
+        Map<String, SftpFileInfo> found = new TreeMap<>();
+        walk(root, options, (path, entry) -> {
+            found.put(path, entry);
+            return true;
+        }, connectTimeoutMillis);
+        return found;
+    }
+
+    /**
+     * Run the operations recorded by {@code ops} in order over one session/channel, logged and measured as a single
+     * {@code batch} operation. A status error answered by the server (missing file, permission denied, ...) is
+     * recorded for its operation and the batch goes on; a transport failure stops the batch and is recorded for every
+     * operation that did not complete. Not retried, since part of the batch may already have been applied.
+     *
+     * @return one result per recorded operation, in recording order
+     * @throws SftpClientException if the batch failed before any operation completed (e.g. connection failure)
+     */
+    public List<SftpOpResult> batch(Consumer<SftpBatch> ops, int connectTimeoutMillis) throws SftpClientException {
+        return runBatch(this::execute, ops, connectTimeoutMillis);
+    }
+
+    /**
+     * Read many small remote files over one session/channel with their open/read/close requests pipelined, keeping
+     * up to {@link BulkReadOptions#getWindow()} files in flight, and hand each file's content to the handler as soon
+     * as it was read. Files that cannot be read (missing, permission denied, too large) are reported in the results
+     * without stopping the others; a transport failure stops the read and is recorded for every file not yet
+     * finished. Not retried, since content may already have been delivered.
+     *
+     * @return one result per path, in the order of {@code remotePaths}
+     * @throws SftpClientException if the read failed before any file finished (e.g. connection failure) or the
+     *                             handler threw
+     */
+    public List<SftpOpResult> readFiles(List<String> remotePaths, BulkReadOptions options, SftpContentHandler handler,
+                                        int connectTimeoutMillis) throws SftpClientException {
+        return readPipelined(hostAlias, jschSessionManager::execute, remotePaths, options, handler, connectTimeoutMillis);
+    }
+
     public void upload(byte[] data, String remotePath, TransferOptions options) throws SftpClientException {
         Objects.requireNonNull(data, "data");
         try (ByteArrayInputStream bais = new ByteArrayInputStream(data)) {
@@ -147,19 +296,55 @@ public class SftpTemplate {
     }
 
     public byte[] download(String remotePath, int connectTimeoutMillis) throws SftpClientException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        download(remotePath, baos, connectTimeoutMillis);
-        return baos.toByteArray();
+        return downloadBytes(this::execute, remotePath, 0L, connectTimeoutMillis);
+    }
+
+    /**
+     * Download a remote file into an exactly sized array. The size is checked first and files above
+     * {@link TransferOptions#getMaxInMemoryBytes()} are refused with {@link SftpFileTooLargeException}.
+     */
+    public byte[] download(String remotePath, TransferOptions options) throws SftpClientException {
+        TransferOptions opts = options != null ? options : TransferOptions.defaults();
+        return downloadBytes(this::execute, remotePath, opts.getMaxInMemoryBytes(), opts.getConnectTimeoutMillis());
+    }
+
+    /**
+     * Open a remote file for reading without buffering it. The stream holds its SFTP channel and session until
+     * it is closed, so callers must close it. Opening is retried like other idempotent operations; reads are not.
+     */
+    public InputStream openInputStream(String remotePath, int connectTimeoutMillis) throws SftpClientException {
+        Objects.requireNonNull(remotePath, "remotePath");
+        return withRetries(hostAlias, "open-stream", idempotent(true), connectTimeoutMillis,
+                () -> openLeasedStream(jschSessionManager.lease(), remotePath, connectTimeoutMillis));
     }
 
     public void download(String remotePath, OutputStream out, int connectTimeoutMillis) throws SftpClientException {
         Objects.requireNonNull(out, "out");
+        AtomicLong delivered = new AtomicLong();
         execute("download", idempotent(true), connectTimeoutMillis, sftp -> {
-            sftp.get(remotePath, out);
+            streamFrom(sftp, remotePath, out, delivered);
             return null;
         });
     }
 
+    /**
+     * Upload a local file. With {@link TransferOptions#getParallelism()} greater than 1 the file is split into
+     * chunk-size ranges written concurrently over separate sessions/channels at their offsets of the remote (temp)
+     * file; a failed range is retried on its own. The remote size is verified before the atomic rename.
+     */
+    public void upload(Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        uploadFromFile(this::execute, localFile, remotePath, options);
+    }
+
+    /**
+     * Download a remote file into a local file, replacing its content. With {@link TransferOptions#getParallelism()}
+     * greater than 1 the file is split into chunk-size ranges fetched concurrently over separate sessions/channels,
+     * each written at its offset. The local size is verified against the remote size once all ranges completed.
+     */
+    public void download(String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        downloadToFile(this::execute, remotePath, localFile, options);
+    }
+
     // ---- HostConfig-aware variants ----
 
     public void mkdir(HostConfig hostConfig, String path, int connectTimeoutMillis) throws SftpClientException {
@@ -176,6 +361,13 @@ public class SftpTemplate {
         });
     }
 
+    public void rmdir(HostConfig hostConfig, String path, int connectTimeoutMillis) throws SftpClientException {
+        execute(hostConfig, "rmdir", idempotent(true), connectTimeoutMillis, sftp -> {
+            sftp.rmdir(path);
+            return null;
+        });
+    }
+
     public void rename(HostConfig hostConfig, String from, String to, boolean overwrite, int connectTimeoutMillis) throws SftpClientException {
         execute(hostConfig, "rename", idempotent(true), connectTimeoutMillis, sftp -> {
             try {
@@ -196,22 +388,48 @@ public class SftpTemplate {
     }
 
     public List<SftpFileInfo> list(HostConfig hostConfig, String path, int connectTimeoutMillis) throws SftpClientException {
-        return execute(hostConfig, "list", idempotent(true), connectTimeoutMillis, sftp -> {
-            Vector<ChannelSftp.LsEntry> entries = sftp.ls(path);
-            List<SftpFileInfo> list = new ArrayList<>();
-            for (ChannelSftp.LsEntry e : entries) {
-                String name = e.getFilename();
-                if (".".equals(name) || "..".equals(name)) continue;
-                SftpATTRS a = e.getAttrs();
-                boolean dir = a != null && a.isDir();
-                long size = a != null ? a.getSize() : 0L;
-                Instant mtime = a != null ? Instant.ofEpochSecond(a.getMTime()) : null;
-                list.add(new SftpFileInfo(name, dir, size, mtime));
-            }
-            return list;
+        return list(hostConfig, path, null, 0, connectTimeoutMillis);
+    }
+
+    public List<SftpFileInfo> list(HostConfig hostConfig, String path, Predicate<SftpFileInfo> filter, int limit,
+                                   int connectTimeoutMillis) throws SftpClientException {
+        return execute(hostConfig, "list", idempotent(true), connectTimeoutMillis, sftp -> collectEntries(sftp, path, filter, limit));
+    }
+
+    public void forEachEntry(HostConfig hostConfig, String path, SftpEntryVisitor visitor, int connectTimeoutMillis) throws SftpClientException {
+        Objects.requireNonNull(visitor, "visitor");
+        execute(hostConfig, "list", idempotent(false), connectTimeoutMillis, sftp -> {
+            visitEntries(sftp, path, visitor);
+            return null;
         });
     }
 
+    public void walk(HostConfig hostConfig, String root, WalkOptions options, SftpWalkVisitor visitor, int connectTimeoutMillis)
+            throws SftpClientException {
+        walkTree(executorFor(hostConfig), root, options, visitor, connectTimeoutMillis);
+    }
+
+    public Map<String, SftpFileInfo> find(HostConfig hostConfig, String root, WalkOptions options, int connectTimeoutMillis)
+            throws SftpClientException {
+        Map<String, SftpFileInfo> found = new TreeMap<>();
+        walk(hostConfig, root, options, (path, entry) -> {
+            found.put(path, entry);
+            return true;
+        }, connectTimeoutMillis);
+        return found;
+    }
+
+    public List<SftpOpResult> batch(HostConfig hostConfig, Consumer<SftpBatch> ops, int connectTimeoutMillis) throws SftpClientException {
+        return runBatch(executorFor(hostConfig), ops, connectTimeoutMillis);
+    }
+
+    public List<SftpOpResult> readFiles(HostConfig hostConfig, List<String> remotePaths, BulkReadOptions options,
+                                        SftpContentHandler handler, int connectTimeoutMillis) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return readPipelined(metricAlias(hostConfig), callback -> jschSessionManager.execute(hostConfig, callback),
+                remotePaths, options, handler, connectTimeoutMillis);
+    }
+
     public void upload(HostConfig hostConfig, byte[] data, String remotePath, TransferOptions options) throws SftpClientException {
         Objects.requireNonNull(data, "data");
         try (ByteArrayInputStream bais = new ByteArrayInputStream(data)) {
@@ -255,105 +473,1044 @@ public class SftpTemplate {
     }
 
     public byte[] download(HostConfig hostConfig, String remotePath, int connectTimeoutMillis) throws SftpClientException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        download(hostConfig, remotePath, baos, connectTimeoutMillis);
-        return baos.toByteArray();
+        return downloadBytes(executorFor(hostConfig), remotePath, 0L, connectTimeoutMillis);
+    }
+
+    public byte[] download(HostConfig hostConfig, String remotePath, TransferOptions options) throws SftpClientException {
+        TransferOptions opts = options != null ? options : TransferOptions.defaults();
+        return downloadBytes(executorFor(hostConfig), remotePath, opts.getMaxInMemoryBytes(), opts.getConnectTimeoutMillis());
+    }
+
+    public InputStream openInputStream(HostConfig hostConfig, String remotePath, int connectTimeoutMillis) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        Objects.requireNonNull(remotePath, "remotePath");
+        return withRetries(metricAlias(hostConfig), "open-stream", idempotent(true), connectTimeoutMillis,
+                () -> openLeasedStream(jschSessionManager.lease(hostConfig), remotePath, connectTimeoutMillis));
     }
 
     public void download(HostConfig hostConfig, String remotePath, OutputStream out, int connectTimeoutMillis) throws SftpClientException {
         Objects.requireNonNull(out, "out");
+        AtomicLong delivered = new AtomicLong();
         execute(hostConfig, "download", idempotent(true), connectTimeoutMillis, sftp -> {
-            sftp.get(remotePath, out);
+            streamFrom(sftp, remotePath, out, delivered);
             return null;
         });
     }
 
+    public void upload(HostConfig hostConfig, Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        uploadFromFile(executorFor(hostConfig), localFile, remotePath, options);
+    }
+
+    public void download(HostConfig hostConfig, String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        downloadToFile(executorFor(hostConfig), remotePath, localFile, options);
+    }
+
     // --------------- internals ---------------
 
     private interface SftpCallback<T> {
         T doInSftp(ChannelSftp sftp) throws Exception;
     }
 
-    private record ExecConfig(boolean idempotent) {
+    /**
+     * Runs one SFTP operation with retries, either against the default session manager target or a given HostConfig.
+     */
+    private interface SftpExecutor {
+        <T> T execute(String op, ExecConfig cfg, int connectTimeoutMillis, SftpCallback<T> callback) throws SftpClientException;
     }
 
-    private ExecConfig idempotent(boolean v) {
-        return new ExecConfig(v);
+    private static List<SftpFileInfo> collectEntries(ChannelSftp sftp, String path, Predicate<SftpFileInfo> filter, int limit)
+            throws SftpException {
+        List<SftpFileInfo> list = new ArrayList<>();
+        visitEntries(sftp, path, entry -> {
+            if (filter == null || filter.test(entry)) {
+                list.add(entry);
+            }
+            return limit <= 0 || list.size() < limit;
+        });
+        return list;
     }
 
-    private <T> T execute(String op, ExecConfig cfg, int connectTimeoutMillis, SftpCallback<T> callback) throws SftpClientException {
-        Objects.requireNonNull(callback, "callback");
-        int attempt = 0;
-        while (true) {
-            attempt++;
-            Instant start = Instant.now();
-            if (observability.isLoggingEnabled()) {
-                log.atInfo()
-                        .addKeyValue("event", "start")
-                        .addKeyValue("metric", observability.sftpOperationMetric())
-                        .addKeyValue("alias", hostAlias)
-                        .addKeyValue("op", op)
-                        .addKeyValue("attempt", attempt)
-                        .addKeyValue("idempotent", cfg.idempotent)
-                        .addKeyValue("connect_timeout_ms", connectTimeoutMillis)
-                        .log("sftp op");
+    private static void visitEntries(ChannelSftp sftp, String path, SftpEntryVisitor visitor) throws SftpException {
+        // Entries are read one READDIR batch at a time; BREAK skips the rest of the batch and closes the handle
+        sftp.ls(path, e -> {
+            String name = e.getFilename();
+            if (".".equals(name) || "..".equals(name)) return ChannelSftp.LsEntrySelector.CONTINUE;
+            boolean more = visitor.visit(fileInfo(name, e.getAttrs()));
+            return more ? ChannelSftp.LsEntrySelector.CONTINUE : ChannelSftp.LsEntrySelector.BREAK;
+        });
+    }
+
+    private List<SftpOpResult> runBatch(SftpExecutor executor, Consumer<SftpBatch> ops, int timeout) throws SftpClientException {
+        Objects.requireNonNull(ops, "ops");
+        BatchOps batch = new BatchOps();
+        ops.accept(batch);
+        List<SftpOpResult> results = new ArrayList<>(batch.ops.size());
+        if (batch.ops.isEmpty()) return results;
+        try {
+            executor.execute("batch", idempotent(false), timeout, sftp -> {
+                for (BatchOp op : batch.ops) {
+                    if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+                    try {
+                        op.action().doInSftp(sftp);
+                        results.add(new SftpOpResult(op.op(), op.path(), null));
+                    } catch (SftpException ex) {
+                        // JSch attaches a cause only to transport failures; a plain status reply keeps the channel usable
+                        if (ex.getCause() != null) throw ex;
+                        results.add(new SftpOpResult(op.op(), op.path(), mapSftpException(ex)));
+                    }
+                }
+                return null;
+            });
+        } catch (SftpClientException ex) {
+            if (results.isEmpty()) throw ex;
+            for (int i = results.size(); i < batch.ops.size(); i++) {
+                BatchOp op = batch.ops.get(i);
+                results.add(new SftpOpResult(op.op(), op.path(), ex));
+            }
+        }
+        return results;
+    }
+
+    private interface SessionExecutor {
+        void execute(JschSessionManager.SessionCallback<Void> callback) throws Exception;
+    }
+
+    private List<SftpOpResult> readPipelined(String metricAlias, SessionExecutor sessions, List<String> paths,
+                                             BulkReadOptions options, SftpContentHandler handler, int timeout)
+            throws SftpClientException {
+        Objects.requireNonNull(paths, "remotePaths");
+        Objects.requireNonNull(handler, "handler");
+        BulkReadOptions opts = options != null ? options : BulkReadOptions.defaults();
+        SftpOpResult[] results = new SftpOpResult[paths.size()];
+        if (paths.isEmpty()) return List.of();
+        AtomicBoolean handlerFailed = new AtomicBoolean();
+        SftpReadPipeline.Listener listener = new SftpReadPipeline.Listener() {
+            @Override
+            public void completed(int index, byte[] content) throws Exception {
+                try {
+                    handler.handle(paths.get(index), content);
+                } catch (Exception ex) {
+                    handlerFailed.set(true);
+                    throw ex;
+                }
+                results[index] = new SftpOpResult("read", paths.get(index), null);
+            }
+
+            @Override
+            public void failed(int index, Exception error) throws Exception {
+                results[index] = new SftpOpResult("read", paths.get(index), mapException(error));
+            }
+        };
+        try {
+            withRetries(metricAlias, "bulk-read", idempotent(false), timeout, () -> {
+                sessions.execute(session -> {
+                    try (SftpReadPipeline pipeline = SftpReadPipeline.open(session, timeout)) {
+                        pipeline.readAll(paths, opts.getWindow(), opts.getMaxFileBytes(), listener);
+                    }
+                    return null;
+                });
+                return null;
+            });
+        } catch (SftpClientException ex) {
+            // Handler failures belong to the caller; only transport failures are folded into the results
+            if (handlerFailed.get() || Arrays.stream(results).allMatch(Objects::isNull)) throw ex;
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) results[i] = new SftpOpResult("read", paths.get(i), ex);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private record BatchOp(String op, String path, SftpCallback<Void> action) {
+    }
+
+    private final class BatchOps implements SftpBatch {
+        private final List<BatchOp> ops = new ArrayList<>();
+
+        @Override
+        public SftpBatch mkdir(String path) {
+            return add("mkdir", path, sftp -> sftp.mkdir(path));
+        }
+
+        @Override
+        public SftpBatch delete(String path) {
+            return add("delete", path, sftp -> sftp.rm(path));
+        }
+
+        @Override
+        public SftpBatch rmdir(String path) {
+            return add("rmdir", path, sftp -> sftp.rmdir(path));
+        }
+
+        @Override
+        public SftpBatch rename(String from, String to, boolean overwrite) {
+            Objects.requireNonNull(to, "to");
+            return add("rename", from, sftp -> performRenameWithOverwrite(sftp, from, to, overwrite));
+        }
+
+        @Override
+        public SftpBatch chmod(String path, int permissions) {
+            return add("chmod", path, sftp -> sftp.chmod(permissions, path));
+        }
+
+        private interface Action {
+            void apply(ChannelSftp sftp) throws SftpException;
+        }
+
+        private SftpBatch add(String op, String path, Action action) {
+            Objects.requireNonNull(path, "path");
+            ops.add(new BatchOp(op, path, sftp -> {
+                action.apply(sftp);
+                return null;
+            }));
+            return this;
+        }
+    }
+
+    private void walkTree(SftpExecutor executor, String root, WalkOptions options, SftpWalkVisitor visitor, int timeout)
+            throws SftpClientException {
+        Objects.requireNonNull(root, "root");
+        Objects.requireNonNull(visitor, "visitor");
+        WalkOptions opts = options != null ? options : WalkOptions.defaults();
+        TreeWalk walk = new TreeWalk(new WalkDirectory(root, 0));
+        Callable<Void> worker = () -> {
+            WalkDirectory dir;
+            while ((dir = walk.next()) != null) {
+                List<WalkDirectory> children = new ArrayList<>();
+                try {
+                    walkDirectory(executor, dir, opts, visitor, walk, children, timeout);
+                } catch (Throwable ex) {
+                    walk.fail(ex);
+                } finally {
+                    walk.done(children);
+                }
             }
+            return null;
+        };
+        int parallelism = opts.getParallelism();
+        if (parallelism <= 1) {
             try {
-                T result = jschSessionManager.execute(session -> {
-                    ChannelSftp sftp = null;
-                    try {
-                        sftp = sftpChannelFactory.open(session, connectTimeoutMillis);
-                        return callback.doInSftp(sftp);
-                    } finally {
-                        if (sftp != null) {
-                            try {
-                                sftp.disconnect();
-                            } catch (Throwable ignore) {
-                            }
+                worker.call();
+            } catch (Exception ex) {
+                throw mapException(ex);
+            }
+        } else {
+            ExecutorService workers = AsyncSupport.defaultExecutor(true, parallelism);
+            List<Future<Void>> futures = new ArrayList<>(parallelism);
+            try {
+                ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(workers);
+                for (int i = 0; i < parallelism; i++) {
+                    futures.add(completion.submit(worker));
+                }
+                for (int i = 0; i < parallelism; i++) {
+                    completion.take().get();
+                }
+            } catch (ExecutionException ee) {
+                throw mapException(ee.getCause());
+            } catch (InterruptedException ie) {
+                throw mapException(ie);
+            } finally {
+                for (Future<Void> f : futures) {
+                    f.cancel(true);
+                }
+                workers.shutdownNow();
+            }
+        }
+        if (walk.failure() != null) {
+            throw mapException(walk.failure());
+        }
+    }
+
+    private void walkDirectory(SftpExecutor executor, WalkDirectory dir, WalkOptions opts, SftpWalkVisitor visitor, TreeWalk walk,
+                               List<WalkDirectory> children, int timeout) throws SftpClientException {
+        Predicate<SftpFileInfo> filter = opts.getFilter();
+        Predicate<SftpFileInfo> descendFilter = opts.getDescendFilter();
+        int depth = dir.depth() + 1;
+        Predicate<SftpFileInfo> matches = e -> filter == null || filter.test(e);
+        Predicate<SftpFileInfo> descends = e -> e.isDirectory() && !e.isSymbolicLink() && depth < opts.getMaxDepth()
+                && (descendFilter == null || descendFilter.test(e));
+        List<SftpFileInfo> entries;
+        try {
+            // Only entries that are reported or descended into are retained while the directory is read
+            entries = executor.execute("list", idempotent(true), timeout,
+                    sftp -> collectEntries(sftp, dir.path(), e -> matches.test(e) || descends.test(e), 0));
+        } catch (SftpNoSuchFileException | SftpPermissionDeniedException ex) {
+            if (dir.depth() > 0 && opts.isSkipUnreadable()) return;
+            throw ex;
+        }
+        for (SftpFileInfo e : entries) {
+            String path = dir.path().endsWith("/") ? dir.path() + e.getName() : dir.path() + "/" + e.getName();
+            if (matches.test(e) && !walk.deliver(visitor, path, e)) return;
+            if (descends.test(e)) {
+                children.add(new WalkDirectory(path, depth));
+            }
+        }
+    }
+
+    private record WalkDirectory(String path, int depth) {
+    }
+
+    /**
+     * Shared state of a walk: directories waiting to be listed, how many are being listed, and whether the walk
+     * stopped (visitor returned false or a listing failed). Workers exit once nothing is pending or being listed.
+     */
+    private static final class TreeWalk {
+        private final Deque<WalkDirectory> pending = new ArrayDeque<>();
+        private int active;
+        private boolean stopped;
+        private Throwable failure;
+
+        TreeWalk(WalkDirectory root) {
+            pending.add(root);
+        }
+
+        synchronized WalkDirectory next() throws InterruptedException {
+            while (!stopped && pending.isEmpty() && active > 0) {
+                wait();
+            }
+            if (stopped || pending.isEmpty()) {
+                notifyAll();
+                return null;
+            }
+            active++;
+            // Depth-first order keeps the pending queue small on wide trees
+            return pending.pollLast();
+        }
+
+        synchronized void done(List<WalkDirectory> children) {
+            active--;
+            if (!stopped) {
+                pending.addAll(children);
+            }
+            notifyAll();
+        }
+
+        synchronized boolean deliver(SftpWalkVisitor visitor, String path, SftpFileInfo entry) {
+            if (stopped) return false;
+            if (!visitor.visit(path, entry)) {
+                stopped = true;
+                notifyAll();
+            }
+            return !stopped;
+        }
+
+        synchronized void fail(Throwable ex) {
+            if (failure == null) failure = ex;
+            stopped = true;
+            notifyAll();
+        }
+
+        synchronized Throwable failure() {
+            return failure;
+        }
+    }
+
+    private static SftpFileInfo fileInfo(String name, SftpATTRS a) {
+        if (a == null) return new SftpFileInfo(name, false, 0L, null);
+        return new SftpFileInfo(name, a.isDir(), a.getSize(), Instant.ofEpochSecond(a.getMTime()), a.isLink(),
+                a.getPermissions(), a.getUId(), a.getGId(), Instant.ofEpochSecond(a.getATime()));
+    }
+
+    private SftpExecutor executorFor(HostConfig hostConfig) {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return new SftpExecutor() {
+            @Override
+            public <T> T execute(String op, ExecConfig cfg, int connectTimeoutMillis, SftpCallback<T> callback) throws SftpClientException {
+                return SftpTemplate.this.execute(hostConfig, op, cfg, connectTimeoutMillis, callback);
+            }
+        };
+    }
+
+    private void downloadToFile(SftpExecutor executor, String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        Objects.requireNonNull(remotePath, "remotePath");
+        Objects.requireNonNull(localFile, "localFile");
+        TransferOptions opts = options != null ? options : TransferOptions.defaults();
+        int timeout = opts.getConnectTimeoutMillis();
+        SftpATTRS attrs = executor.execute("stat", idempotent(true), timeout, sftp -> sftp.stat(remotePath));
+        long size = attrs.getSize();
+        try (FileChannel target = FileChannel.open(localFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            Checkpoint checkpoint = new LocalCheckpoint(localFile);
+            long start = opts.isResume()
+                    ? verifiedResumeOffset(executor, remotePath, target, Math.min(target.size(), checkpoint.load()), size, timeout)
+                    : 0L;
+            target.truncate(start);
+            TransferProgress progress = new TransferProgress(start, size, opts);
+            Checkpoint ranges = progress.chunks() > 1 ? checkpoint : null;
+            if (ranges != null) {
+                ranges.save(start);
+            }
+            TransferBuffers buffers = new TransferBuffers();
+            try {
+                transferRanges(progress, opts.getParallelism(), ranges, chunk ->
+                        executor.execute(progress.chunks() == 1 ? "download" : "download-chunk", idempotent(true), timeout, sftp -> {
+                            readRange(sftp, remotePath, target, progress, chunk, buffers);
+                            return null;
+                        }));
+            } catch (SftpClientException | RuntimeException ex) {
+                // Parallel ranges may have left holes; keep only the prefix a later resume can trust
+                target.truncate(progress.verifiedOffset());
+                checkpoint.clear();
+                throw ex;
+            }
+            checkpoint.clear();
+            long written = target.size();
+            if (written != size) {
+                throw new IOException("downloaded " + written + " bytes of " + remotePath + " but the remote size is " + size);
+            }
+            if (opts.isPreserveModifiedTime()) {
+                Files.setLastModifiedTime(localFile, FileTime.from(attrs.getMTime() & 0xFFFFFFFFL, TimeUnit.SECONDS));
+            }
+        } catch (IOException ioe) {
+            throw new SftpIOException("I/O error writing " + localFile + ": " + ioe.getMessage(), ioe);
+        }
+    }
+
+    private byte[] downloadBytes(SftpExecutor executor, String remotePath, long maxBytes, int timeout) throws SftpClientException {
+        Objects.requireNonNull(remotePath, "remotePath");
+        long size = executor.execute("stat", idempotent(true), timeout, sftp -> sftp.stat(remotePath).getSize());
+        long limit = maxBytes > 0 ? Math.min(maxBytes, MAX_ARRAY_BYTES) : MAX_ARRAY_BYTES;
+        if (size > limit) {
+            throw new SftpFileTooLargeException("Remote file " + remotePath + " has " + size + " bytes, above the in-memory limit of "
+                    + limit + " bytes; stream it with openInputStream or download it to a file");
+        }
+        byte[] data = new byte[(int) size];
+        AtomicInteger filled = new AtomicInteger();
+        // Reads at most the stat size; a retried attempt continues where the previous one stopped
+        executor.execute("download", idempotent(true), timeout, sftp -> {
+            try (InputStream in = sftp.get(remotePath, null, (long) filled.get())) {
+                while (filled.get() < data.length) {
+                    int n = in.read(data, filled.get(), data.length - filled.get());
+                    if (n < 0) break;
+                    filled.addAndGet(n);
+                }
+            }
+            return null;
+        });
+        return filled.get() == data.length ? data : Arrays.copyOf(data, filled.get());
+    }
+
+    private InputStream openLeasedStream(JschSessionManager.SessionLease lease, String remotePath, int timeout) throws Exception {
+        ChannelSftp sftp = null;
+        try {
+            sftp = openChannel(lease.session(), timeout);
+            return new LeasedInputStream(sftp.get(remotePath), sftp, lease);
+        } catch (Throwable ex) {
+            if (sftp != null) {
+                releaseChannel(lease.session(), sftp, isChannelReusableAfter(ex));
+            }
+            lease.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Remote file stream that hands its channel and session back when closed. The channel is only kept for reuse
+     * when no read failed.
+     */
+    private final class LeasedInputStream extends FilterInputStream {
+        private final ChannelSftp sftp;
+        private final JschSessionManager.SessionLease lease;
+        private boolean failed;
+        private boolean closed;
+
+        LeasedInputStream(InputStream in, ChannelSftp sftp, JschSessionManager.SessionLease lease) {
+            super(in);
+            this.sftp = sftp;
+            this.lease = lease;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            try {
+                return super.skip(n);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                super.close();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            } finally {
+                releaseChannel(lease.session(), sftp, !failed);
+                lease.close();
+            }
+        }
+    }
+
+    private void uploadFromFile(SftpExecutor executor, Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        Objects.requireNonNull(localFile, "localFile");
+        Objects.requireNonNull(remotePath, "remotePath");
+        TransferOptions opts = options != null ? options : TransferOptions.defaults();
+        int timeout = opts.getConnectTimeoutMillis();
+        boolean resume = opts.isResume();
+        String target = !opts.isAtomic() ? remotePath : resume ? derivePartialPath(remotePath) : deriveTempPath(remotePath);
+        try (FileChannel source = FileChannel.open(localFile, StandardOpenOption.READ)) {
+            long size = source.size();
+            long mtime = opts.isPreserveModifiedTime() ? Files.getLastModifiedTime(localFile).to(TimeUnit.SECONDS) : -1L;
+            Checkpoint checkpoint = new RemoteCheckpoint(executor, target + CHECKPOINT_SUFFIX, timeout);
+            // Create (or truncate) the target once, unless resuming a partial one; ranges then open it without truncation
+            long partial = executor.execute("upload-open", idempotent(true), timeout, sftp -> {
+                if (!opts.isAtomic() && !opts.isOverwrite()) {
+                    // Never resuming here: TransferOptions rejects a non-atomic resume without overwrite
+                    failIfExists(sftp, remotePath);
+                }
+                long existing = resume ? sizeIfExists(sftp, target) : -1L;
+                if (existing < 0) {
+                    sftp.put(target, null, ChannelSftp.OVERWRITE, 0L).close();
+                }
+                return Math.max(0L, existing);
+            });
+            long recorded = resume && partial > 0L ? checkpoint.load() : Checkpoint.NONE;
+            long start = resume ? verifiedResumeOffset(executor, target, source, Math.min(partial, recorded), size, timeout) : 0L;
+            if (start == 0L && partial > 0L) {
+                executor.execute("upload-open", idempotent(true), timeout, sftp -> {
+                    sftp.put(target, null, ChannelSftp.OVERWRITE, 0L).close();
+                    return null;
+                });
+            }
+            TransferProgress progress = new TransferProgress(start, size, opts);
+            // SFTP offers no plain truncate, so resuming before the end of a partial file rewrites its unverified tail
+            Checkpoint ranges = progress.chunks() > 1 || (start > 0L && start < partial) ? checkpoint : null;
+            if (ranges != null) {
+                ranges.save(start);
+            }
+            TransferBuffers buffers = new TransferBuffers();
+            boolean completed = false;
+            try {
+                transferRanges(progress, opts.getParallelism(), ranges, chunk ->
+                        executor.execute(progress.chunks() == 1 ? "upload" : "upload-chunk", idempotent(true), timeout, sftp -> {
+                            writeRange(sftp, source, target, progress, chunk, buffers, opts.isMemoryMapped());
+                            return null;
+                        }));
+                executor.execute("upload-commit", idempotent(false), timeout, sftp -> {
+                    long written = sftp.stat(target).getSize();
+                    if (written != size) {
+                        throw new IOException("uploaded " + written + " bytes to " + target + " but the local size is " + size);
+                    }
+                    if (opts.isAtomic()) {
+                        performRenameWithOverwrite(sftp, target, remotePath, opts.isOverwrite());
+                    }
+                    if (opts.getPermissions() != null) {
+                        safeChmod(sftp, opts.getPermissions(), remotePath);
+                    }
+                    if (mtime >= 0) {
+                        sftp.setMtime(remotePath, (int) mtime);
+                    }
+                    return null;
+                });
+                completed = true;
+            } finally {
+                if (!completed) {
+                    cleanUpFailedUpload(executor, target, resume || !opts.isAtomic(), progress, ranges, timeout);
+                }
+            }
+            if (ranges != null || recorded != Checkpoint.NONE) {
+                checkpoint.clear();
+            }
+        } catch (IOException ioe) {
+            throw new SftpIOException("I/O error reading " + localFile + ": " + ioe.getMessage(), ioe);
+        }
+    }
+
+    /**
+     * Offset a partial file can be resumed from. {@code partialSize} is its size, or the offset recorded by its
+     * checkpoint when that is smaller; it is used when it is not larger than the complete file and the bytes before it
+     * match the source, 0 otherwise.
+     */
+    private long verifiedResumeOffset(SftpExecutor executor, String remotePath, FileChannel local, long partialSize,
+                                      long fullSize, int timeout) throws SftpClientException {
+        if (partialSize <= 0 || partialSize > fullSize) return 0L;
+        int length = (int) Math.min(RESUME_VERIFY_BYTES, partialSize);
+        long offset = partialSize - length;
+        boolean matches = executor.execute("resume-check", idempotent(true), timeout,
+                sftp -> tailMatches(sftp, remotePath, local, offset, length));
+        return matches ? partialSize : 0L;
+    }
+
+    /**
+     * Clean up after a failed upload: a temp file that cannot be resumed is removed, any other target is kept. A single
+     * stream writes in order, so what it leaves is a contiguous prefix. After {@code ranges} that may have left holes
+     * the target is only one when its size is exactly the verified offset; otherwise the checkpoint keeps a later
+     * resume from trusting more than that offset.
+     */
+    private void cleanUpFailedUpload(SftpExecutor executor, String path, boolean keep, TransferProgress progress,
+                                     Checkpoint ranges, int timeout) {
+        try {
+            if (!keep) {
+                executor.execute("delete", idempotent(false), timeout, sftp -> {
+                    sftp.rm(path);
+                    return null;
+                });
+                if (ranges != null) {
+                    ranges.clear();
+                }
+            } else if (ranges != null) {
+                long verified = progress.verifiedOffset();
+                long written = executor.execute("stat", idempotent(true), timeout, sftp -> sizeIfExists(sftp, path));
+                if (written == verified) {
+                    ranges.clear();
+                } else {
+                    ranges.save(verified);
+                }
+            }
+        } catch (SftpClientException ignore) {
+        }
+    }
+
+    private void failIfExists(ChannelSftp sftp, String remotePath) throws SftpException, SftpFileAlreadyExistsException {
+        if (sizeIfExists(sftp, remotePath) >= 0) {
+            throw new SftpFileAlreadyExistsException("Remote file already exists: " + remotePath);
+        }
+    }
+
+    private static long sizeIfExists(ChannelSftp sftp, String path) throws SftpException {
+        try {
+            return sftp.stat(path).getSize();
+        } catch (SftpException e) {
+            if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) throw e;
+            return -1L;
+        }
+    }
+
+    private interface RangeTransfer {
+        void transfer(int chunk) throws SftpClientException;
+    }
+
+    /**
+     * Verified offset of a partial file persisted next to it, see {@link #CHECKPOINT_SUFFIX}. Saved offsets only grow,
+     * and each was verified when it was saved, so the recorded one never exceeds the contiguous prefix.
+     */
+    private abstract static class Checkpoint {
+        /**
+         * Loaded when there is no checkpoint: the partial file was written in order.
+         */
+        static final long NONE = Long.MAX_VALUE;
+
+        private long saved = -1L;
+
+        /**
+         * The recorded offset, {@link #NONE} when there is none, or 0 when it cannot be read.
+         */
+        abstract long load() throws SftpClientException;
+
+        synchronized void save(long verifiedOffset) throws SftpClientException {
+            if (verifiedOffset <= saved) return;
+            write(verifiedOffset);
+            saved = verifiedOffset;
+        }
+
+        abstract void write(long verifiedOffset) throws SftpClientException;
+
+        /**
+         * Remove the checkpoint; best effort, since a stale one only makes a later resume start earlier.
+         */
+        abstract void clear();
+
+        static long parse(String content) {
+            try {
+                return Math.max(0L, Long.parseLong(content.trim()));
+            } catch (NumberFormatException e) {
+                // Interrupted while being written
+                return 0L;
+            }
+        }
+    }
+
+    private static final class LocalCheckpoint extends Checkpoint {
+        private final Path path;
+
+        LocalCheckpoint(Path file) {
+            this.path = file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+        }
+
+        @Override
+        long load() {
+            try {
+                return parse(Files.readString(path, StandardCharsets.US_ASCII));
+            } catch (NoSuchFileException missing) {
+                return NONE;
+            } catch (IOException e) {
+                return 0L;
+            }
+        }
+
+        @Override
+        void write(long verifiedOffset) throws SftpClientException {
+            try {
+                Files.writeString(path, Long.toString(verifiedOffset), StandardCharsets.US_ASCII);
+            } catch (IOException e) {
+                throw new SftpIOException("I/O error writing " + path + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        void clear() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private final class RemoteCheckpoint extends Checkpoint {
+        private final SftpExecutor executor;
+        private final String path;
+        private final int timeout;
+
+        RemoteCheckpoint(SftpExecutor executor, String path, int timeout) {
+            this.executor = executor;
+            this.path = path;
+            this.timeout = timeout;
+        }
+
+        @Override
+        long load() throws SftpClientException {
+            return executor.execute("checkpoint-read", idempotent(true), timeout, sftp -> {
+                try (InputStream in = sftp.get(path)) {
+                    return parse(new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+                } catch (SftpException e) {
+                    if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) throw e;
+                    return NONE;
+                }
+            });
+        }
+
+        @Override
+        void write(long verifiedOffset) throws SftpClientException {
+            executor.execute("checkpoint-write", idempotent(true), timeout, sftp -> {
+                try (OutputStream out = sftp.put(path, null, ChannelSftp.OVERWRITE, 0L)) {
+                    out.write(Long.toString(verifiedOffset).getBytes(StandardCharsets.US_ASCII));
+                }
+                return null;
+            });
+        }
+
+        @Override
+        void clear() {
+            try {
+                executor.execute("checkpoint-delete", idempotent(true), timeout, sftp -> {
+                    if (sizeIfExists(sftp, path) >= 0) {
+                        sftp.rm(path);
+                    }
+                    return null;
+                });
+            } catch (SftpClientException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Splits [start, size) into chunk-size ranges and records, per range, how many bytes are known to be transferred
+     * (written to the local file, or acknowledged by the server). A retried range continues after its checkpoint.
+     * With a parallelism of 1 the whole span is a single range. Once stopped, ranges in progress return early.
+     */
+    private static final class TransferProgress {
+        private final long start;
+        private final long size;
+        private final long chunkSize;
+        private final AtomicLongArray done;
+        private volatile boolean stopped;
+
+        TransferProgress(long start, long size, TransferOptions opts) {
+            long span = size - start;
+            this.start = start;
+            this.size = size;
+            this.chunkSize = opts.getParallelism() > 1 ? opts.getChunkSizeBytes() : Math.max(1L, span);
+            this.done = new AtomicLongArray(Math.toIntExact((span + chunkSize - 1) / chunkSize));
+        }
+
+        int chunks() {
+            return done.length();
+        }
+
+        long offset(int chunk) {
+            return start + chunk * chunkSize;
+        }
+
+        long length(int chunk) {
+            return Math.min(chunkSize, size - offset(chunk));
+        }
+
+        long done(int chunk) {
+            return done.get(chunk);
+        }
+
+        void advance(int chunk, long bytes) {
+            done.addAndGet(chunk, bytes);
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        boolean stopped() {
+            return stopped;
+        }
+
+        /**
+         * End of the contiguous transferred prefix; everything before it is complete.
+         */
+        long verifiedOffset() {
+            long offset = start;
+            for (int i = 0; i < done.length(); i++) {
+                long d = done.get(i);
+                offset += d;
+                if (d < length(i)) break;
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Transfer the ranges with a fixed number of workers pulling the next chunk index; each range is expected to be
+     * its own retried operation on its own session/channel. With a single worker the ranges run on the calling thread.
+     * The first failure stops the other workers and returns once all of them exited, so no range touches the target or
+     * the checkpoint afterwards. Workers are not interrupted: an interrupt during a write closes the FileChannel all
+     * ranges share. The verified offset is saved to {@code checkpoint}, when given, after every completed range.
+     */
+    private void transferRanges(TransferProgress progress, int maxParallelism, Checkpoint checkpoint, RangeTransfer transfer)
+            throws SftpClientException {
+        int chunks = progress.chunks();
+        int parallelism = Math.min(maxParallelism, chunks);
+        if (parallelism <= 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                transfer.transfer(chunk);
+                if (checkpoint != null) {
+                    checkpoint.save(progress.verifiedOffset());
+                }
+            }
+            return;
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        ExecutorService workers = AsyncSupport.defaultExecutor(true, parallelism);
+        Throwable failure = null;
+        boolean interrupted = false;
+        try {
+            ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(workers);
+            for (int i = 0; i < parallelism; i++) {
+                completion.submit(() -> {
+                    int chunk;
+                    while (!progress.stopped() && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                        transfer.transfer(chunk);
+                        if (checkpoint != null) {
+                            checkpoint.save(progress.verifiedOffset());
                         }
                     }
+                    return null;
                 });
-                if (observability.isLoggingEnabled()) {
-                    long durationMs = Duration.between(start, Instant.now()).toMillis();
-                    log.atInfo()
-                            .addKeyValue("event", "finish")
-                            .addKeyValue("metric", observability.sftpOperationMetric())
-                            .addKeyValue("alias", hostAlias)
-                            .addKeyValue("op", op)
-                            .addKeyValue("attempt", attempt)
-                            .addKeyValue("duration_ms", durationMs)
-                            .log("sftp op finished");
+            }
+            for (int exited = 0; exited < parallelism; ) {
+                try {
+                    completion.take().get();
+                    exited++;
+                } catch (ExecutionException ee) {
+                    progress.stop();
+                    if (failure == null) failure = ee.getCause();
+                    exited++;
+                } catch (InterruptedException ie) {
+                    // Keep waiting: the caller truncates or deletes the target once this returns
+                    progress.stop();
+                    interrupted = true;
+                    if (failure == null) failure = ie;
                 }
-                return result;
-            } catch (Throwable ex) {
-                boolean willRetry = cfg.idempotent && retryStrategy.shouldRetry(attempt, ex);
-                if (observability.isLoggingEnabled()) {
-                    long durationMs = Duration.between(start, Instant.now()).toMillis();
-                    log.atWarn()
-                            .addKeyValue("event", "failure")
-                            .addKeyValue("metric", observability.sftpOperationMetric())
-                            .addKeyValue("alias", hostAlias)
-                            .addKeyValue("op", op)
-                            .addKeyValue("attempt", attempt)
-                            .addKeyValue("duration_ms", durationMs)
-                            .addKeyValue("error", ex.getClass().getSimpleName())
-                            .addKeyValue("message", ex.getMessage())
-                            .addKeyValue("retrying", willRetry)
-                            .setCause(ex)
-                            .log("sftp op failed");
+            }
+        } finally {
+            progress.stop();
+            workers.shutdown();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw mapException(failure);
+        }
+    }
+
+    private static void readRange(ChannelSftp sftp, String remotePath, FileChannel target, TransferProgress progress, int chunk,
+                                  TransferBuffers buffers) throws SftpException, IOException {
+        long position = progress.offset(chunk) + progress.done(chunk);
+        long end = progress.offset(chunk) + progress.length(chunk);
+        if (position >= end) return;
+        TransferBuffer buffer = buffers.acquire(copyBufferSize(sftp));
+        try (InputStream in = sftp.get(remotePath, null, position)) {
+            byte[] buf = buffer.array();
+            ByteBuffer direct = buffer.direct();
+            while (position < end && !progress.stopped()) {
+                int n = in.read(buf, 0, (int) Math.min(buf.length, end - position));
+                if (n < 0) {
+                    throw new EOFException("Remote file " + remotePath + " ended at offset " + position + ", expected " + end + " bytes");
                 }
-                if (willRetry) {
-                    sleepBeforeRetry(attempt);
-                    continue;
+                direct.clear();
+                direct.put(buf, 0, n).flip();
+                while (direct.hasRemaining()) {
+                    target.write(direct, position + direct.position());
                 }
-                throw mapException(ex);
+                position += n;
+                progress.advance(chunk, n);
+            }
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    private static void writeRange(ChannelSftp sftp, FileChannel source, String remotePath, TransferProgress progress, int chunk,
+                                   TransferBuffers buffers, boolean memoryMapped) throws SftpException, IOException {
+        long position = progress.offset(chunk) + progress.done(chunk);
+        long end = progress.offset(chunk) + progress.length(chunk);
+        if (position >= end) return;
+        TransferBuffer buffer = buffers.acquire(copyBufferSize(sftp));
+        try (OutputStream out = sftp.put(remotePath, null, WRITE_AT_OFFSET, position)) {
+            byte[] buf = buffer.array();
+            ByteBuffer direct = buffer.direct();
+            MappedByteBuffer window = null;
+            long acked = position;
+            while (position < end && !progress.stopped()) {
+                int n = (int) Math.min(buf.length, end - position);
+                if (memoryMapped) {
+                    if (window == null || !window.hasRemaining()) {
+                        window = source.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_BYTES, end - position));
+                    }
+                    n = Math.min(n, window.remaining());
+                    window.get(buf, 0, n);
+                } else {
+                    direct.clear().limit(n);
+                    n = source.read(direct, position);
+                    if (n < 0) {
+                        throw new EOFException("Local file ended at offset " + position + ", expected " + end + " bytes");
+                    }
+                    direct.flip();
+                    direct.get(buf, 0, n);
+                }
+                out.write(buf, 0, n);
+                position += n;
+                if (position - acked >= UPLOAD_CHECKPOINT_BYTES || position == end) {
+                    // flush() returns once the server acknowledged every outstanding write
+                    out.flush();
+                    progress.advance(chunk, position - acked);
+                    acked = position;
+                }
+            }
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /**
+     * Buffers of one file transfer, each used by one range attempt at a time: memory stays bounded by the parallelism
+     * whatever the file size, and ranges reuse the buffers instead of allocating their own. JSch only reads and writes
+     * byte arrays, so the array is the SFTP side and the direct buffer the FileChannel side of each copy.
+     */
+    private static final class TransferBuffers {
+        private final Queue<TransferBuffer> free = new ConcurrentLinkedQueue<>();
+
+        TransferBuffer acquire(int size) {
+            TransferBuffer buffer = free.poll();
+            return buffer != null && buffer.array().length == size ? buffer
+                    : new TransferBuffer(new byte[size], ByteBuffer.allocateDirect(size));
+        }
+
+        void release(TransferBuffer buffer) {
+            free.offer(buffer);
+        }
+    }
+
+    private record TransferBuffer(byte[] array, ByteBuffer direct) {
+    }
+
+    private static void streamFrom(ChannelSftp sftp, String remotePath, OutputStream out, AtomicLong delivered)
+            throws SftpException, IOException {
+        // Bytes already handed to out are skipped, so a retried attempt resumes instead of repeating them
+        try (InputStream in = sftp.get(remotePath, null, delivered.get())) {
+            byte[] buf = new byte[copyBufferSize(sftp)];
+            int n;
+            while ((n = in.read(buf)) >= 0) {
+                out.write(buf, 0, n);
+                delivered.addAndGet(n);
             }
         }
     }
 
+    /**
+     * Copy buffer size tuned for the channel's host, see {@link ChannelTuning}.
+     */
+    private static int copyBufferSize(ChannelSftp sftp) {
+        try {
+            return ChannelTuning.copyBufferSize(sftp.getSession(), TRANSFER_BUFFER_SIZE);
+        } catch (JSchException e) {
+            return TRANSFER_BUFFER_SIZE;
+        }
+    }
+
+    private static boolean tailMatches(ChannelSftp sftp, String remotePath, FileChannel local, long offset, int length)
+            throws SftpException, IOException {
+        ByteBuffer localBytes = ByteBuffer.allocate(length);
+        while (localBytes.hasRemaining()) {
+            if (local.read(localBytes, offset + localBytes.position()) < 0) return false;
+        }
+        byte[] remoteBytes = new byte[length];
+        try (InputStream in = sftp.get(remotePath, null, offset)) {
+            int read = 0;
+            while (read < length) {
+                int n = in.read(remoteBytes, read, length - read);
+                if (n < 0) return false;
+                read += n;
+            }
+        }
+        return Arrays.equals(localBytes.array(), remoteBytes);
+    }
+
+    private record ExecConfig(boolean idempotent) {
+    }
+
+    private ExecConfig idempotent(boolean v) {
+        return new ExecConfig(v);
+    }
+
+    private <T> T execute(String op, ExecConfig cfg, int connectTimeoutMillis, SftpCallback<T> callback) throws SftpClientException {
+        Objects.requireNonNull(callback, "callback");
+        return withRetries(hostAlias, op, cfg, connectTimeoutMillis,
+                () -> jschSessionManager.execute(session -> doInChannel(session, connectTimeoutMillis, callback)));
+    }
+
     private <T> T execute(HostConfig hostConfig, String op, ExecConfig cfg, int connectTimeoutMillis, SftpCallback<T> callback) throws SftpClientException {
         Objects.requireNonNull(hostConfig, "hostConfig");
         Objects.requireNonNull(callback, "callback");
+        return withRetries(metricAlias(hostConfig), op, cfg, connectTimeoutMillis,
+                () -> jschSessionManager.execute(hostConfig, session -> doInChannel(session, connectTimeoutMillis, callback)));
+    }
+
+    private interface Attempt<T> {
+        T run() throws Exception;
+    }
+
+    private <T> T withRetries(String metricAlias, String op, ExecConfig cfg, int connectTimeoutMillis, Attempt<T> action) throws SftpClientException {
         int attempt = 0;
         while (true) {
             attempt++;
@@ -370,20 +1527,8 @@ public class SftpTemplate {
                         .log("sftp op");
             }
             try {
-                T result = jschSessionManager.execute(hostConfig, session -> {
-                    ChannelSftp sftp = null;
-                    try {
-                        sftp = sftpChannelFactory.open(session, connectTimeoutMillis);
-                        return callback.doInSftp(sftp);
-                    } finally {
-                        if (sftp != null) {
-                            try {
-                                sftp.disconnect();
-                            } catch (Throwable ignore) {
-                            }
-                        }
-                    }
-                });
+                T result = action.run();
+                recordSuccess(metricAlias, op, start);
                 if (observability.isLoggingEnabled()) {
                     long durationMs = Duration.between(start, Instant.now()).toMillis();
                     log.atInfo()
@@ -397,7 +1542,8 @@ public class SftpTemplate {
                 }
                 return result;
             } catch (Throwable ex) {
-                boolean willRetry = cfg.idempotent && retryStrategy.shouldRetry(attempt, ex);
+                boolean willRetry = cfg.idempotent && !isInterruption(ex) && retryStrategy.shouldRetry(attempt, ex);
+                recordFailure(metricAlias, op, start, ex, willRetry);
                 if (observability.isLoggingEnabled()) {
                     long durationMs = Duration.between(start, Instant.now()).toMillis();
                     log.atWarn()
@@ -422,6 +1568,50 @@ public class SftpTemplate {
         }
     }
 
+    private <T> T doInChannel(Session session, int connectTimeoutMillis, SftpCallback<T> callback) throws Exception {
+        ChannelSftp sftp = openChannel(session, connectTimeoutMillis);
+        boolean reusable = false;
+        try {
+            T result = callback.doInSftp(sftp);
+            reusable = true;
+            return result;
+        } catch (Throwable ex) {
+            reusable = isChannelReusableAfter(ex);
+            throw ex;
+        } finally {
+            releaseChannel(session, sftp, reusable);
+        }
+    }
+
+    private ChannelSftp openChannel(Session session, int connectTimeoutMillis) throws JSchException {
+        return channelPool != null ? channelPool.borrow(session, connectTimeoutMillis) : sftpChannelFactory.open(session, connectTimeoutMillis);
+    }
+
+    private void releaseChannel(Session session, ChannelSftp sftp, boolean reusable) {
+        if (channelPool != null) {
+            channelPool.release(session, sftp, reusable);
+            return;
+        }
+        try {
+            sftp.disconnect();
+        } catch (Throwable ignore) {
+        }
+    }
+
+    /**
+     * Status errors answered by the server leave the channel in a consistent state; anything else
+     * (transport errors, interrupted transfers, local stream failures) may leave unread responses behind.
+     */
+    private static boolean isChannelReusableAfter(Throwable ex) {
+        if (ex instanceof SftpFileAlreadyExistsException) return true;
+        if (ex instanceof SftpException se) {
+            return se.id == ChannelSftp.SSH_FX_NO_SUCH_FILE
+                    || se.id == ChannelSftp.SSH_FX_PERMISSION_DENIED
+                    || se.id == ChannelSftp.SSH_FX_OP_UNSUPPORTED;
+        }
+        return false;
+    }
+
     private void performRenameWithOverwrite(ChannelSftp sftp, String from, String to, boolean overwrite) throws SftpException {
         try {
             sftp.rename(from, to);
@@ -447,6 +1637,16 @@ public class SftpTemplate {
         }
     }
 
+    /**
+     * Deterministic temp path for resumable uploads, so that a later attempt finds the partial file.
+     */
+    private String derivePartialPath(String finalPath) {
+        int slash = finalPath.lastIndexOf('/') + 1;
+        String dir = slash > 0 ? finalPath.substring(0, slash) : "";
+        String name = slash > 0 ? finalPath.substring(slash) : finalPath;
+        return dir + ".tmp-" + name + ".part";
+    }
+
     private String deriveTempPath(String finalPath) {
         int slash = finalPath.lastIndexOf('/') + 1;
         String dir = slash > 0 ? finalPath.substring(0, slash) : "";
@@ -455,6 +1655,36 @@ public class SftpTemplate {
         return dir + tmpName;
     }
 
+    private void recordSuccess(String alias, String op, Instant start) {
+        observability.metrics().recordTime(observability.sftpOperationMetric(), alias, op, JschMetrics.OUTCOME_SUCCESS,
+                Duration.between(start, Instant.now()).toNanos());
+    }
+
+    private void recordFailure(String alias, String op, Instant start, Throwable ex, boolean willRetry) {
+        JschMetrics metrics = observability.metrics();
+        metrics.recordTime(observability.sftpOperationMetric(), alias, op, JschMetrics.outcomeOf(ex),
+                Duration.between(start, Instant.now()).toNanos());
+        metrics.recordFailure(observability.sftpOperationMetric(), alias, op, ex);
+        if (willRetry) {
+            metrics.recordRetry(observability.sftpOperationMetric(), alias, op);
+        }
+    }
+
+    private String metricAlias(HostConfig hostConfig) {
+        return hostAlias != null ? hostAlias : hostConfig.stableKey();
+    }
+
+    /**
+     * Interrupted executions (e.g. a cancelled async call) must not be retried.
+     */
+    private static boolean isInterruption(Throwable ex) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof InterruptedIOException) return true;
+        }
+        return false;
+    }
+
     private void sleepBeforeRetry(int attempt) {
         try {
             long delay = retryStrategy.getDelayMillis(attempt);
@@ -8,7 +8,10 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * SessionManager implementation that creates a new session for each execution and closes it afterwards.
@@ -20,6 +23,7 @@ public class SingleUseJschSessionManager implements JschSessionManager {
     private final JschSessionFactory sessionFactory;
     private final ObservabilityConfig observability;
     private final String hostAlias;
+    private final List<SessionCloseListener> closeListeners = new CopyOnWriteArrayList<>();
 
     public SingleUseJschSessionManager(JschSessionFactory sessionFactory) {
         this(sessionFactory, ObservabilityConfig.disabled(), null);
@@ -34,6 +38,37 @@ public class SingleUseJschSessionManager implements JschSessionManager {
     @Override
     public <T> T execute(SessionCallback<T> callback) throws Exception {
         Objects.requireNonNull(callback, "callback");
+        Session session = connect();
+        try {
+            return callback.doInSession(session);
+        } finally {
+            close(session);
+        }
+    }
+
+    /**
+     * Connect a dedicated session that is disconnected when the lease is closed.
+     */
+    @Override
+    public SessionLease lease() throws Exception {
+        Session session = connect();
+        AtomicBoolean closed = new AtomicBoolean();
+        return new SessionLease() {
+            @Override
+            public Session session() {
+                return session;
+            }
+
+            @Override
+            public void close() {
+                if (closed.compareAndSet(false, true)) {
+                    SingleUseJschSessionManager.this.close(session);
+                }
+            }
+        };
+    }
+
+    private Session connect() throws Exception {
         Session session = null;
         Instant start = Instant.now();
         if (observability.isLoggingEnabled()) {
@@ -47,7 +82,7 @@ public class SingleUseJschSessionManager implements JschSessionManager {
                     .log("ssh session connect");
         }
         try {
-            session = sessionFactory.createAndConnect();
+            session = sessionFactory.createAndConnect(observability, hostAlias);
             if (!isValid(session)) {
                 throw new JSchException("Session is not connected");
             }
@@ -63,7 +98,7 @@ public class SingleUseJschSessionManager implements JschSessionManager {
                         .addKeyValue("duration_ms", durationMs)
                         .log("ssh session connected");
             }
-            return callback.doInSession(session);
+            return session;
         } catch (Throwable ex) {
             if (observability.isLoggingEnabled()) {
                 long durationMs = Duration.between(start, Instant.now()).toMillis();
@@ -80,12 +115,11 @@ public class SingleUseJschSessionManager implements JschSessionManager {
                         .setCause(ex)
                         .log("ssh session connect failed");
             }
+            close(session);
             if (ex instanceof Exception e) {
                 throw e;
             }
             throw new RuntimeException(ex);
-        } finally {
-            close(session);
         }
     }
 
@@ -97,10 +131,23 @@ public class SingleUseJschSessionManager implements JschSessionManager {
     @Override
     public void close(Session session) {
         if (session != null) {
+            for (SessionCloseListener l : closeListeners) {
+                try {
+                    l.beforeClose(session);
+                } catch (Throwable ignore) {
+                }
+            }
             try {
                 session.disconnect();
             } catch (Throwable ignore) {
             }
         }
     }
+
+    @Override
+    public void addSessionCloseListener(SessionCloseListener listener) {
+        if (listener != null) {
+            closeListeners.add(listener);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.yu.jsch;
 
+import com.yu.jsch.channel.ChannelTuning;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -122,6 +123,7 @@ public class SshProperties {
         Integer maxIdle = firstNonNull(hostPool.getMaxIdle(), defPool.getMaxIdle());
         Integer minIdle = firstNonNull(hostPool.getMinIdle(), defPool.getMinIdle());
         Duration maxWait = firstNonNull(hostPool.getMaxWait(), defPool.getMaxWait());
+        Integer maxChannelsPerSession = firstNonNull(hostPool.getMaxChannelsPerSession(), defPool.getMaxChannelsPerSession());
 
         // Merge timeouts
         TimeoutsProperties hostTimeouts = host.getTimeouts();
@@ -131,6 +133,14 @@ public class SshProperties {
         Duration sessionTimeout = firstNonNull(hostTimeouts.getSession(), defTimeouts.getSession());
         Duration readTimeout = firstNonNull(hostTimeouts.getRead(), defTimeouts.getRead());
 
+        // Merge channel tuning
+        TuningProperties hostTuning = host.getTuning();
+        TuningProperties defTuning = d.getTuning();
+        Integer windowSize = firstNonNull(hostTuning.getWindowSize(), defTuning.getWindowSize());
+        Integer maxPacketSize = firstNonNull(hostTuning.getMaxPacketSize(), defTuning.getMaxPacketSize());
+        Integer bulkRequests = firstNonNull(hostTuning.getBulkRequests(), defTuning.getBulkRequests());
+        Integer copyBufferSize = firstNonNull(hostTuning.getCopyBufferSize(), defTuning.getCopyBufferSize());
+
         return HostDefinition.builder()
                 .alias(alias)
                 .host(hostname)
@@ -158,6 +168,7 @@ public class SshProperties {
                         .maxIdle(maxIdle)
                         .minIdle(minIdle)
                         .maxWait(maxWait)
+                        .maxChannelsPerSession(maxChannelsPerSession != null ? maxChannelsPerSession : 0)
                         .build())
                 .timeouts(HostDefinition.Timeouts.builder()
                         .connect(connectTimeout)
@@ -165,6 +176,12 @@ public class SshProperties {
                         .session(sessionTimeout)
                         .read(readTimeout)
                         .build())
+                .tuning(ChannelTuning.builder()
+                        .windowSize(windowSize != null ? windowSize : 0)
+                        .maxPacketSize(maxPacketSize != null ? maxPacketSize : 0)
+                        .bulkRequests(bulkRequests != null ? bulkRequests : 0)
+                        .copyBufferSize(copyBufferSize != null ? copyBufferSize : 0)
+                        .build())
                 .build();
     }
 
@@ -237,6 +254,14 @@ public class SshProperties {
         @NestedConfigurationProperty
         private TimeoutsProperties timeouts = new TimeoutsProperties();
 
+        /**
+         * Channel window, packet and buffer sizes.
+         */
+        @NotNull
+        @Valid
+        @NestedConfigurationProperty
+        private TuningProperties tuning = new TuningProperties();
+
         public String getHost() {
             return host;
         }
@@ -300,6 +325,14 @@ public class SshProperties {
         public void setTimeouts(TimeoutsProperties timeouts) {
             this.timeouts = Objects.requireNonNullElseGet(timeouts, TimeoutsProperties::new);
         }
+
+        public TuningProperties getTuning() {
+            return tuning;
+        }
+
+        public void setTuning(TuningProperties tuning) {
+            this.tuning = Objects.requireNonNullElseGet(tuning, TuningProperties::new);
+        }
     }
 
     /**
@@ -498,6 +531,12 @@ public class SshProperties {
          */
         @NotNull
         private Duration maxWait = Duration.ofSeconds(30);
+        /**
+         * Concurrent channels per shared session when ssh.session-pool.multiplex is on; set it to the server's
+         * MaxSessions or below. Unset uses ssh.session-pool.max-channels-per-session.
+         */
+        @Positive
+        private Integer maxChannelsPerSession;
 
         public boolean isEnabled() {
             return enabled;
@@ -538,6 +577,71 @@ public class SshProperties {
         public void setMaxWait(Duration maxWait) {
             this.maxWait = maxWait;
         }
+
+        public Integer getMaxChannelsPerSession() {
+            return maxChannelsPerSession;
+        }
+
+        public void setMaxChannelsPerSession(Integer maxChannelsPerSession) {
+            this.maxChannelsPerSession = maxChannelsPerSession;
+        }
+    }
+
+    public static class TuningProperties {
+        /**
+         * Local receive window per channel in bytes; larger windows keep more data in flight on high-latency links.
+         * Unset keeps the JSch default (2 MiB for SFTP channels).
+         */
+        @Positive
+        private Integer windowSize;
+        /**
+         * Largest packet the server may send per channel in bytes, also the SFTP read request size.
+         * Unset keeps the JSch default (32 KiB for SFTP channels).
+         */
+        @Positive
+        private Integer maxPacketSize;
+        /**
+         * SFTP read/write requests kept outstanding per transfer stream. Unset keeps the JSch default (16).
+         */
+        @Positive
+        private Integer bulkRequests;
+        /**
+         * Buffer size in bytes for copying between SFTP streams and local files/streams. Unset uses 64 KiB.
+         */
+        @Positive
+        private Integer copyBufferSize;
+
+        public Integer getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(Integer windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public Integer getMaxPacketSize() {
+            return maxPacketSize;
+        }
+
+        public void setMaxPacketSize(Integer maxPacketSize) {
+            this.maxPacketSize = maxPacketSize;
+        }
+
+        public Integer getBulkRequests() {
+            return bulkRequests;
+        }
+
+        public void setBulkRequests(Integer bulkRequests) {
+            this.bulkRequests = bulkRequests;
+        }
+
+        public Integer getCopyBufferSize() {
+            return copyBufferSize;
+        }
+
+        public void setCopyBufferSize(Integer copyBufferSize) {
+            this.copyBufferSize = copyBufferSize;
+        }
     }
 
     public static class TimeoutsProperties {
@@ -604,7 +708,7 @@ public class SshProperties {
          */
         private boolean enabled = true;
         /**
-         * Metric name configuration for log enrichment.
+         * Metric name configuration for log enrichment and Micrometer meters.
          */
         @NotNull
         @Valid
@@ -628,7 +732,7 @@ public class SshProperties {
         }
 
         /**
-         * Metric names used in structured logs.
+         * Metric names used in structured logs and as Micrometer meter names.
          */
         public static class MetricNames {
             /**
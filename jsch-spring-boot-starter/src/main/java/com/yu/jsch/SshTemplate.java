@@ -4,24 +4,29 @@ import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import com.yu.jsch.channel.ExecChannelFactory;
+import com.yu.jsch.exec.CappedOutputBuffer;
 import com.yu.jsch.exec.ExecExitStatusException;
+import com.yu.jsch.exec.ExecOutputHandler;
 import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.ExecStreamDrainer;
 import com.yu.jsch.exec.SshCommandRequest;
 import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.observability.JschMetrics;
 import com.yu.jsch.observability.ObservabilityConfig;
 import com.yu.jsch.strategy.NoRetryStrategy;
 import com.yu.jsch.strategy.RetryStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 
 /**
  * Template for executing commands over SSH using a SessionManager and ExecChannelFactory.
@@ -79,6 +84,7 @@ public class SshTemplate {
             try {
                 int finalAttempt = attempt;
                 ExecResult res = jschSessionManager.execute(session -> doExecuteInSession(session, request, finalAttempt));
+                recordAttempt(hostAlias, "exec", start, res);
                 if (shouldRetryOnResult(request, res, attempt)) {
                     if (observability.isLoggingEnabled()) {
                         long durationMs = Duration.between(start, Instant.now()).toMillis();
@@ -93,6 +99,7 @@ public class SshTemplate {
                                 .addKeyValue("retrying", true)
                                 .log("ssh exec non-zero exit");
                     }
+                    observability.metrics().recordRetry(observability.sshExecMetric(), hostAlias, "exec");
                     sleepBeforeRetry(attempt);
                     continue;
                 }
@@ -110,7 +117,8 @@ public class SshTemplate {
                 }
                 return res;
             } catch (Throwable ex) {
-                boolean willRetry = request.isIdempotent() && retryStrategy.shouldRetry(attempt, ex);
+                boolean willRetry = request.isIdempotent() && !isInterruption(ex) && retryStrategy.shouldRetry(attempt, ex);
+                recordFailure(hostAlias, "exec", start, ex, willRetry);
                 if (observability.isLoggingEnabled()) {
                     long durationMs = Duration.between(start, Instant.now()).toMillis();
                     log.atWarn()
@@ -165,6 +173,7 @@ public class SshTemplate {
             try {
                 int finalAttempt = attempt;
                 ExecResult res = jschSessionManager.execute(hostConfig, session -> doExecuteInSession(session, request, finalAttempt));
+                recordAttempt(metricAlias(hostConfig), "exec", start, res);
                 if (shouldRetryOnResult(request, res, attempt)) {
                     if (observability.isLoggingEnabled()) {
                         long durationMs = Duration.between(start, Instant.now()).toMillis();
@@ -179,6 +188,7 @@ public class SshTemplate {
                                 .addKeyValue("retrying", true)
                                 .log("ssh exec non-zero exit");
                     }
+                    observability.metrics().recordRetry(observability.sshExecMetric(), metricAlias(hostConfig), "exec");
                     sleepBeforeRetry(attempt);
                     continue;
                 }
@@ -196,7 +206,8 @@ public class SshTemplate {
                 }
                 return res;
             } catch (Throwable ex) {
-                boolean willRetry = request.isIdempotent() && retryStrategy.shouldRetry(attempt, ex);
+                boolean willRetry = request.isIdempotent() && !isInterruption(ex) && retryStrategy.shouldRetry(attempt, ex);
+                recordFailure(metricAlias(hostConfig), "exec", start, ex, willRetry);
                 if (observability.isLoggingEnabled()) {
                     long durationMs = Duration.between(start, Instant.now()).toMillis();
                     log.atWarn()
@@ -224,24 +235,127 @@ public class SshTemplate {
         }
     }
 
+    /**
+     * Execute a command and deliver its output incrementally to the handler instead of buffering it in memory.
+     * The result carries exit code and timing; its stdout/stderr are empty. Streaming executions are not retried,
+     * since output may already have been handed to the caller.
+     */
+    public ExecResult executeStreaming(SshCommandRequest request, ExecOutputHandler handler) throws Exception {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(handler, "handler");
+        return stream(hostAlias, request, () -> jschSessionManager.execute(session -> doStreamInSession(session, request, handler)));
+    }
+
+    /**
+     * Streaming variant of {@link #execute(HostConfig, SshCommandRequest)}.
+     */
+    public ExecResult executeStreaming(HostConfig hostConfig, SshCommandRequest request, ExecOutputHandler handler) throws Exception {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(handler, "handler");
+        return stream(metricAlias(hostConfig), request, () -> jschSessionManager.execute(hostConfig, session -> doStreamInSession(session, request, handler)));
+    }
+
+    private ExecResult stream(String metricAlias, SshCommandRequest request, Callable<ExecResult> call) throws Exception {
+        Instant start = Instant.now();
+        if (observability.isLoggingEnabled()) {
+            log.atInfo()
+                    .addKeyValue("event", "start")
+                    .addKeyValue("metric", observability.sshExecMetric())
+                    .addKeyValue("alias", hostAlias)
+                    .addKeyValue("command", request.getCommand())
+                    .addKeyValue("attempt", 1)
+                    .addKeyValue("streaming", true)
+                    .addKeyValue("connect_timeout_ms", request.getConnectTimeoutMillis())
+                    .addKeyValue("exec_timeout", request.getExecutionTimeout())
+                    .log("ssh exec");
+        }
+        try {
+            ExecResult res = call.call();
+            recordAttempt(metricAlias, "exec_streaming", start, res);
+            if (observability.isLoggingEnabled()) {
+                long durationMs = Duration.between(start, Instant.now()).toMillis();
+                log.atInfo()
+                        .addKeyValue("event", "finish")
+                        .addKeyValue("metric", observability.sshExecMetric())
+                        .addKeyValue("alias", hostAlias)
+                        .addKeyValue("command", request.getCommand())
+                        .addKeyValue("attempt", 1)
+                        .addKeyValue("streaming", true)
+                        .addKeyValue("exit_code", res.getExitCode())
+                        .addKeyValue("duration_ms", durationMs)
+                        .log("ssh exec finished");
+            }
+            return res;
+        } catch (Exception ex) {
+            recordFailure(metricAlias, "exec_streaming", start, ex, false);
+            if (observability.isLoggingEnabled()) {
+                long durationMs = Duration.between(start, Instant.now()).toMillis();
+                log.atWarn()
+                        .addKeyValue("event", "failure")
+                        .addKeyValue("metric", observability.sshExecMetric())
+                        .addKeyValue("alias", hostAlias)
+                        .addKeyValue("command", request.getCommand())
+                        .addKeyValue("attempt", 1)
+                        .addKeyValue("streaming", true)
+                        .addKeyValue("duration_ms", durationMs)
+                        .addKeyValue("error", ex.getClass().getSimpleName())
+                        .addKeyValue("message", ex.getMessage())
+                        .addKeyValue("retrying", false)
+                        .setCause(ex)
+                        .log("ssh exec failed");
+            }
+            throw ex;
+        }
+    }
+
     protected ExecResult doExecuteInSession(Session session, SshCommandRequest request, int attempt) throws Exception {
+        CappedOutputBuffer stdout = new CappedOutputBuffer(request.getMaxOutputBytes());
+        CappedOutputBuffer stderr = new CappedOutputBuffer(request.getMaxOutputBytes());
+        return runInSession(session, request, stdout, stderr)
+                .stdout(stdout.toString(request.getCharset()))
+                .stderr(stderr.toString(request.getCharset()))
+                .stdoutTruncated(stdout.isTruncated())
+                .stderrTruncated(stderr.isTruncated())
+                .attempts(attempt)
+                .build();
+    }
+
+    protected ExecResult doStreamInSession(Session session, SshCommandRequest request, ExecOutputHandler handler) throws Exception {
+        // Serialize callbacks: stdout is pumped on the caller thread, stderr on a drainer thread
+        Object lock = new Object();
+        ExecResult.Builder result = runInSession(session, request,
+                (b, off, len) -> {
+                    synchronized (lock) {
+                        handler.onStdout(b, off, len);
+                    }
+                },
+                (b, off, len) -> {
+                    synchronized (lock) {
+                        handler.onStderr(b, off, len);
+                    }
+                });
+        synchronized (lock) {
+            handler.onFinish();
+        }
+        return result.stdout("").stderr("").attempts(1).build();
+    }
+
+    private ExecResult.Builder runInSession(Session session, SshCommandRequest request,
+                                            ExecStreamDrainer.StreamSink stdout, ExecStreamDrainer.StreamSink stderr) throws Exception {
         ChannelExec channel = null;
         Instant start = Instant.now();
         try {
             channel = openExecChannel(session);
             configureChannel(channel, request);
+            // Attach the output pipes before connecting so no early output is lost
+            ExecStreams streams = openStreams(channel);
             connectChannel(channel, request.getConnectTimeoutMillis());
 
-            ExecStreams streams = openStreams(channel);
-            boolean timedOut = waitForCompletion(channel, request.getExecutionTimeout());
+            boolean timedOut = drainOutput(channel, streams.stdout(), streams.stderr(), stdout, stderr, request.getExecutionTimeout());
 
-            // Ensure channel is closed to get exit status
             int exitCode = channel.getExitStatus();
 
-            // Complete stream reading
-            String stdout = readFully(streams.stdout, request.getCharset());
-            String stderr = readFully(streams.stderr, request.getCharset());
-
             return ExecResult.builder()
                     .command(request.getCommand())
                     .environment(request.getEnvironment())
@@ -249,12 +363,8 @@ public class SshTemplate {
                     .charset(request.getCharset())
                     .startedAt(start)
                     .finishedAt(Instant.now())
-                    .stdout(stdout)
-                    .stderr(stderr)
                     .exitCode(exitCode)
-                    .timedOut(timedOut)
-                    .attempts(attempt)
-                    .build();
+                    .timedOut(timedOut);
         } finally {
             cleanup(channel, session);
         }
@@ -297,29 +407,40 @@ public class SshTemplate {
         return new ExecStreams(stdout, stderr);
     }
 
+    /**
+     * Drain stdout/stderr concurrently while the command runs and wait for its exit status.
+     *
+     * @return true if the execution timeout elapsed and the channel was disconnected
+     */
+    protected boolean drainOutput(ChannelExec channel, InputStream stdoutIn, InputStream stderrIn,
+                                  ExecStreamDrainer.StreamSink stdout, ExecStreamDrainer.StreamSink stderr,
+                                  Duration timeout) throws IOException, InterruptedException {
+        return ExecStreamDrainer.drain(channel, stdoutIn, stderrIn, stdout, stderr, timeout);
+    }
+
+    /**
+     * Wait until the channel is closed, disconnecting it when the timeout elapses.
+     *
+     * @return true if the timeout elapsed
+     * @deprecated no longer called by SshTemplate, which drains the output while the command runs; override
+     * {@link #drainOutput} instead
+     */
+    @Deprecated
     protected boolean waitForCompletion(ChannelExec channel, Duration timeout) throws InterruptedException {
-        long deadline = timeout != null ? System.nanoTime() + timeout.toNanos() : Long.MAX_VALUE;
-        while (true) {
-            if (channel.isClosed()) return false;
-            if (System.nanoTime() > deadline) {
-                try {
-                    channel.disconnect();
-                } catch (Throwable ignore) {
-                }
-                return true;
-            }
-            Thread.sleep(50);
-        }
+        return ExecStreamDrainer.awaitClose(channel, timeout);
     }
 
+    /**
+     * Read a stream to EOF and decode it.
+     *
+     * @deprecated no longer called by SshTemplate, which drains the output while the command runs; override
+     * {@link #drainOutput} instead
+     */
+    @Deprecated
     protected String readFully(InputStream in, Charset charset) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buf = new byte[8192];
-        int r;
-        while ((r = in.read(buf)) != -1) {
-            baos.write(buf, 0, r);
-        }
-        return baos.toString(charset);
+        CappedOutputBuffer buffer = new CappedOutputBuffer(0);
+        ExecStreamDrainer.readFully(in, buffer);
+        return buffer.toString(charset);
     }
 
     protected void cleanup(ChannelExec channel, Session session) {
@@ -332,12 +453,44 @@ public class SshTemplate {
         // Session is managed by SessionManager; no action here
     }
 
+    private void recordAttempt(String alias, String op, Instant start, ExecResult res) {
+        String outcome = res.isTimedOut() ? JschMetrics.OUTCOME_TIMEOUT
+                : res.getExitCode() == 0 ? JschMetrics.OUTCOME_SUCCESS : JschMetrics.OUTCOME_FAILURE;
+        observability.metrics().recordTime(observability.sshExecMetric(), alias, op, outcome,
+                Duration.between(start, Instant.now()).toNanos());
+    }
+
+    private void recordFailure(String alias, String op, Instant start, Throwable ex, boolean willRetry) {
+        JschMetrics metrics = observability.metrics();
+        metrics.recordTime(observability.sshExecMetric(), alias, op, JschMetrics.outcomeOf(ex),
+                Duration.between(start, Instant.now()).toNanos());
+        metrics.recordFailure(observability.sshExecMetric(), alias, op, ex);
+        if (willRetry) {
+            metrics.recordRetry(observability.sshExecMetric(), alias, op);
+        }
+    }
+
+    private String metricAlias(HostConfig hostConfig) {
+        return hostAlias != null ? hostAlias : hostConfig.stableKey();
+    }
+
     private boolean shouldRetryOnResult(SshCommandRequest request, ExecResult res, int attempt) {
         if (!request.isIdempotent()) return false;
         if (res.getExitCode() == 0) return false;
         return retryStrategy.shouldRetry(attempt, new ExecExitStatusException("exit=" + res.getExitCode(), res.getExitCode()));
     }
 
+    /**
+     * Interrupted executions (e.g. a cancelled async call) must not be retried.
+     */
+    private static boolean isInterruption(Throwable ex) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof InterruptedIOException) return true;
+        }
+        return false;
+    }
+
     private void sleepBeforeRetry(int attempt) {
         try {
             long delay = retryStrategy.getDelayMillis(attempt);
@@ -0,0 +1,86 @@
+package com.yu.jsch;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Properties for connecting to hosts at application startup so the first executions skip the SSH handshake.
+ */
+@Validated
+@ConfigurationProperties(prefix = "ssh.warm-up")
+public class WarmUpProperties {
+
+    /**
+     * Connect to the hosts while the application starts and keep the sessions in the session pools.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Warm up every alias configured under ssh.hosts.
+     */
+    private boolean includeConfigured = true;
+
+    /**
+     * Additional host ids to warm up, resolved through the HostResolver (e.g. hosts kept in a database).
+     */
+    @NotNull
+    private List<String> hosts = new ArrayList<>();
+
+    /**
+     * Maximum number of hosts connected at the same time.
+     */
+    @Positive
+    private int maxConcurrency = 8;
+
+    /**
+     * How long startup waits for the warm-up; hosts still connecting afterwards finish in the background.
+     */
+    @NotNull
+    private Duration timeout = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isIncludeConfigured() {
+        return includeConfigured;
+    }
+
+    public void setIncludeConfigured(boolean includeConfigured) {
+        this.includeConfigured = includeConfigured;
+    }
+
+    public List<String> getHosts() {
+        return hosts;
+    }
+
+    public void setHosts(List<String> hosts) {
+        this.hosts = hosts != null ? hosts : new ArrayList<>();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
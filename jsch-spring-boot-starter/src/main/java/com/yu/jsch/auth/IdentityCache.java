@@ -0,0 +1,183 @@
+package com.yu.jsch.auth;
+
+import com.jcraft.jsch.Identity;
+import com.jcraft.jsch.IdentityRepository;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.yu.jsch.util.ResourceUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * Parsed (and decrypted) private keys shared by all sessions, so a key is read once instead of on every connect.
+ * Key files are keyed by path and passphrase and reloaded when their modification time or size changes; inline keys
+ * are keyed by a digest of the key and passphrase. Passphrases are only kept as digests.
+ * <p>
+ * Each key is handed out as its own {@link IdentityRepository}, set on the session instead of added to the (possibly
+ * shared) JSch instance, so identities of other hosts neither pile up nor get offered during authentication.
+ */
+public final class IdentityCache {
+
+    private static final int MAX_ENTRIES = 256;
+    private static final IdentityCache SHARED = new IdentityCache(MAX_ENTRIES);
+
+    private final Map<String, Entry> entries;
+
+    IdentityCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static IdentityCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Identity of the key file at {@code path} (~ is expanded), parsed on first use and after the file changed.
+     */
+    public IdentityRepository fromPath(String path, String passphrase) throws JSchException {
+        String key = "path:" + path + ":" + digest(null, passphrase);
+        ResourceUtils.FileStamp stamp = ResourceUtils.stamp(path);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && stamp != null && stamp.equals(entry.stamp)) {
+                return entry.repository;
+            }
+            JSch parser = new JSch();
+            if (passphrase != null) {
+                parser.addIdentity(path, passphrase);
+            } else {
+                parser.addIdentity(path);
+            }
+            IdentityRepository repository = repositoryOf(parser, path);
+            // A file that cannot be stat-ed is parsed again next time rather than cached under an unknown version
+            if (stamp != null) {
+                entries.put(key, new Entry(stamp, repository));
+            }
+            return repository;
+        }
+    }
+
+    /**
+     * Identity of inline private key content, parsed once per distinct key and passphrase.
+     */
+    public IdentityRepository fromContent(String name, byte[] privateKey, String passphrase) throws JSchException {
+        String key = "inline:" + digest(privateKey, passphrase);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                return entry.repository;
+            }
+            JSch parser = new JSch();
+            byte[] passphraseBytes = passphrase != null ? passphrase.getBytes(StandardCharsets.UTF_8) : null;
+            try {
+                // JSch may clear the key array it parses
+                parser.addIdentity(name, privateKey.clone(), null, passphraseBytes);
+            } finally {
+                if (passphraseBytes != null) Arrays.fill(passphraseBytes, (byte) 0);
+            }
+            IdentityRepository repository = repositoryOf(parser, name);
+            entries.put(key, new Entry(null, repository));
+            return repository;
+        }
+    }
+
+    /**
+     * Drop all cached keys, e.g. after rotating keys in place with an unchanged modification time.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static IdentityRepository repositoryOf(JSch parser, String name) throws JSchException {
+        Vector<?> identities = parser.getIdentityRepository().getIdentities();
+        if (identities.isEmpty()) {
+            throw new JSchException("No identity could be loaded from " + name);
+        }
+        return new SingleIdentityRepository(name, (Identity) identities.get(0));
+    }
+
+    private static String digest(byte[] key, String passphrase) {
+        if (key == null && passphrase == null) return "-";
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            if (key != null) md.update(key);
+            md.update((byte) 0);
+            if (passphrase != null) {
+                byte[] bytes = passphrase.getBytes(StandardCharsets.UTF_8);
+                md.update(bytes);
+                Arrays.fill(bytes, (byte) 0);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(ResourceUtils.FileStamp stamp, IdentityRepository repository) {
+    }
+
+    /**
+     * Read-only repository offering one cached identity. Removal requests are ignored so that JSch never clears the
+     * shared key material.
+     */
+    private static final class SingleIdentityRepository implements IdentityRepository {
+        private final String name;
+        private final Identity identity;
+
+        private SingleIdentityRepository(String name, Identity identity) {
+            this.name = name;
+            this.identity = identity;
+        }
+
+        @Override
+        public String getName() {
+            return "cached:" + name;
+        }
+
+        @Override
+        public int getStatus() {
+            return RUNNING;
+        }
+
+        @Override
+        public Vector<Identity> getIdentities() {
+            Vector<Identity> identities = new Vector<>(1);
+            identities.add(identity);
+            return identities;
+        }
+
+        @Override
+        public boolean add(byte[] identity) {
+            return false;
+        }
+
+        @Override
+        public boolean remove(byte[] blob) {
+            return false;
+        }
+
+        @Override
+        public void removeAll() {
+        }
+    }
+}
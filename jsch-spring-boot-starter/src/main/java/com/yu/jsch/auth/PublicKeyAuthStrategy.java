@@ -20,18 +20,17 @@ public class PublicKeyAuthStrategy implements AuthStrategy {
         this.passphrase = passphrase;
     }
 
+    /**
+     * The key is parsed once through the shared {@link IdentityCache} and offered through the session's own identity
+     * repository, so the JSch instance is not modified.
+     */
     @Override
     public void configure(JSch jsch, Session session) throws JSchException {
         if (privateKeyPath != null && !privateKeyPath.isBlank()) {
-            if (passphrase != null) {
-                jsch.addIdentity(privateKeyPath, passphrase);
-            } else {
-                jsch.addIdentity(privateKeyPath);
-            }
+            session.setIdentityRepository(IdentityCache.shared().fromPath(privateKeyPath, passphrase));
         } else if (privateKeyPem != null && !privateKeyPem.isBlank()) {
             byte[] keyBytes = privateKeyPem.getBytes(StandardCharsets.UTF_8);
-            byte[] passphraseBytes = passphrase != null ? passphrase.getBytes(StandardCharsets.UTF_8) : null;
-            jsch.addIdentity("inline", keyBytes, null, passphraseBytes);
+            session.setIdentityRepository(IdentityCache.shared().fromContent("inline", keyBytes, passphrase));
         }
         session.setConfig("PreferredAuthentications", "publickey,keyboard-interactive,password");
     }
@@ -0,0 +1,224 @@
+package com.yu.jsch.channel;
+
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * Per-host channel window, packet and buffer sizes. The values are stored in the config of each session the host's
+ * session factory creates, so the shared channel factories apply the settings of whichever session they open a
+ * channel on. Zero keeps the JSch default.
+ */
+public final class ChannelTuning {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelTuning.class);
+
+    static final String WINDOW_SIZE_KEY = "com.yu.jsch.window_size";
+    static final String MAX_PACKET_SIZE_KEY = "com.yu.jsch.max_packet_size";
+    static final String BULK_REQUESTS_KEY = "com.yu.jsch.sftp_bulk_requests";
+    static final String COPY_BUFFER_SIZE_KEY = "com.yu.jsch.copy_buffer_size";
+    /**
+     * JSch's own limit for the pipes behind channel input streams; below the window size it throttles the session.
+     */
+    private static final String MAX_INPUT_BUFFER_SIZE_KEY = "max_input_buffer_size";
+    /**
+     * ChannelSftp feeds incoming data through a fixed pipe of the server's packet size (32 KiB for common servers);
+     * larger local packets stall on that pipe, so they are only honoured by channels with growable input streams.
+     */
+    private static final int SFTP_MAX_PACKET_SIZE = 32 * 1024;
+
+    /**
+     * JSch 0.1.55 keeps the local window and packet setters package-private; null when they cannot be reached.
+     */
+    private static final Method SET_WINDOW_SIZE_MAX = channelSetter("setLocalWindowSizeMax");
+    private static final Method SET_WINDOW_SIZE = channelSetter("setLocalWindowSize");
+    private static final Method SET_PACKET_SIZE = channelSetter("setLocalPacketSize");
+
+    /**
+     * Local receive window announced for each channel, in bytes (JSch: 2 MiB for SFTP, 1 MiB otherwise).
+     */
+    private final int windowSize;
+    /**
+     * Largest packet the server may send on a channel, in bytes (JSch: 32 KiB for SFTP). Also bounds the SFTP read
+     * request size. Capped at 32 KiB for ChannelSftp.
+     */
+    private final int maxPacketSize;
+    /**
+     * Read/write requests ChannelSftp keeps outstanding per transfer stream (JSch: 16).
+     */
+    private final int bulkRequests;
+    /**
+     * Size of the buffers copying between SFTP streams and local files/streams, in bytes (default 64 KiB).
+     */
+    private final int copyBufferSize;
+
+    private ChannelTuning(Builder b) {
+        this.windowSize = b.windowSize;
+        this.maxPacketSize = b.maxPacketSize;
+        this.bulkRequests = b.bulkRequests;
+        this.copyBufferSize = b.copyBufferSize;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMaxPacketSize() {
+        return maxPacketSize;
+    }
+
+    public int getBulkRequests() {
+        return bulkRequests;
+    }
+
+    public int getCopyBufferSize() {
+        return copyBufferSize;
+    }
+
+    /**
+     * Record the settings in the session config; call before the session's channels are opened.
+     */
+    public void applyTo(Session session) {
+        if (windowSize > 0) {
+            session.setConfig(WINDOW_SIZE_KEY, String.valueOf(windowSize));
+            session.setConfig(MAX_INPUT_BUFFER_SIZE_KEY, String.valueOf(Math.max(windowSize, 32 * 1024)));
+        }
+        if (maxPacketSize > 0) session.setConfig(MAX_PACKET_SIZE_KEY, String.valueOf(maxPacketSize));
+        if (bulkRequests > 0) session.setConfig(BULK_REQUESTS_KEY, String.valueOf(bulkRequests));
+        if (copyBufferSize > 0) session.setConfig(COPY_BUFFER_SIZE_KEY, String.valueOf(copyBufferSize));
+    }
+
+    /**
+     * Apply the settings recorded on the session to a channel that is not connected yet.
+     */
+    public static void applyTo(Channel channel, Session session) throws JSchException {
+        int window = configValue(session, WINDOW_SIZE_KEY);
+        int packet = configValue(session, MAX_PACKET_SIZE_KEY);
+        if (window > 0) {
+            invoke(SET_WINDOW_SIZE_MAX, channel, window);
+            invoke(SET_WINDOW_SIZE, channel, window);
+        }
+        if (packet > 0) {
+            if (channel instanceof ChannelSftp) packet = Math.min(packet, SFTP_MAX_PACKET_SIZE);
+            invoke(SET_PACKET_SIZE, channel, window > 0 ? Math.min(packet, window) : packet);
+        }
+        int bulk = configValue(session, BULK_REQUESTS_KEY);
+        if (bulk > 0 && channel instanceof ChannelSftp sftp) {
+            sftp.setBulkRequests(bulk);
+        }
+    }
+
+    /**
+     * Copy buffer size recorded on the session, or {@code defaultSize} when none is configured.
+     */
+    public static int copyBufferSize(Session session, int defaultSize) {
+        int size = configValue(session, COPY_BUFFER_SIZE_KEY);
+        return size > 0 ? size : defaultSize;
+    }
+
+    /**
+     * Bytes to request per SFTP read on the session: its max packet size, capped at 32 KiB.
+     */
+    public static int sftpReadSize(Session session) {
+        int packet = configValue(session, MAX_PACKET_SIZE_KEY);
+        return packet > 0 ? Math.min(packet, SFTP_MAX_PACKET_SIZE) : SFTP_MAX_PACKET_SIZE;
+    }
+
+    private static int configValue(Session session, String key) {
+        String value = session.getConfig(key);
+        if (value == null || value.isBlank()) return 0;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Method channelSetter(String name) {
+        try {
+            Method m = Channel.class.getDeclaredMethod(name, int.class);
+            m.setAccessible(true);
+            return m;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("JSch channel window/packet sizes cannot be tuned: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static void invoke(Method setter, Channel channel, int value) {
+        if (setter == null) return;
+        try {
+            setter.invoke(channel, value);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Failed to apply {} to channel: {}", setter.getName(), e.toString());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChannelTuning that)) return false;
+        return windowSize == that.windowSize && maxPacketSize == that.maxPacketSize
+                && bulkRequests == that.bulkRequests && copyBufferSize == that.copyBufferSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(windowSize, maxPacketSize, bulkRequests, copyBufferSize);
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelTuning[windowSize=" + windowSize + ", maxPacketSize=" + maxPacketSize
+                + ", bulkRequests=" + bulkRequests + ", copyBufferSize=" + copyBufferSize + "]";
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int windowSize;
+        private int maxPacketSize;
+        private int bulkRequests;
+        private int copyBufferSize;
+
+        public Builder windowSize(int windowSize) {
+            if (windowSize < 0) throw new IllegalArgumentException("windowSize must be >= 0");
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        public Builder maxPacketSize(int maxPacketSize) {
+            if (maxPacketSize < 0) throw new IllegalArgumentException("maxPacketSize must be >= 0");
+            this.maxPacketSize = maxPacketSize;
+            return this;
+        }
+
+        public Builder bulkRequests(int bulkRequests) {
+            if (bulkRequests < 0) throw new IllegalArgumentException("bulkRequests must be >= 0");
+            this.bulkRequests = bulkRequests;
+            return this;
+        }
+
+        public Builder copyBufferSize(int copyBufferSize) {
+            if (copyBufferSize < 0) throw new IllegalArgumentException("copyBufferSize must be >= 0");
+            this.copyBufferSize = copyBufferSize;
+            return this;
+        }
+
+        public ChannelTuning build() {
+            return new ChannelTuning(this);
+        }
+    }
+
+    public static ChannelTuning defaults() {
+        return builder().build();
+    }
+}
@@ -11,8 +11,8 @@ import com.jcraft.jsch.Session;
 public class SftpChannelFactory {
 
     /**
-     * Open an SFTP channel for the provided session, connect it, and return it.
-     * Ensures the channel is disconnected if an error occurs while connecting.
+     * Open an SFTP channel for the provided session, apply the session's {@link ChannelTuning}, connect it, and
+     * return it. Ensures the channel is disconnected if an error occurs while connecting.
      */
     public ChannelSftp open(Session session, int connectTimeoutMillis) throws JSchException {
         Channel channel = null;
@@ -22,6 +22,7 @@ public class SftpChannelFactory {
                 if (channel != null) channel.disconnect();
                 throw new JSchException("Opened channel is not an sftp channel");
             }
+            ChannelTuning.applyTo(sftp, session);
             if (connectTimeoutMillis > 0) {
                 sftp.connect(connectTimeoutMillis);
             } else {
@@ -0,0 +1,261 @@
+package com.yu.jsch.channel;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpException;
+import com.yu.jsch.SftpChannelPoolProperties;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps connected ChannelSftp instances open per SSH session so that consecutive SFTP operations on the
+ * same (pooled) session skip the subsystem start and version handshake.
+ * Channels are leased with {@link #borrow(Session, int)} and handed back with {@link #release(Session, ChannelSftp, boolean)}.
+ * Channels of a session must be dropped with {@link #closeAll(Session)} before the session is disconnected.
+ */
+public class SftpChannelPool implements AutoCloseable {
+
+    private final SftpChannelFactory channelFactory;
+    private final int maxChannelsPerSession;
+    private final long maxIdleNanos;
+    private final long maxWaitMillis;
+    private final boolean validateOnBorrow;
+
+    private final Map<Session, SessionChannels> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    public SftpChannelPool(SftpChannelFactory channelFactory, SftpChannelPoolProperties props) {
+        this.channelFactory = Objects.requireNonNull(channelFactory, "channelFactory");
+        SftpChannelPoolProperties p = props != null ? props : new SftpChannelPoolProperties();
+        this.maxChannelsPerSession = Math.max(1, p.getMaxChannelsPerSession());
+        this.maxIdleNanos = toNanos(p.getMaxIdleTime());
+        this.maxWaitMillis = p.getMaxWait() != null ? Math.max(0L, p.getMaxWait().toMillis()) : 0L;
+        this.validateOnBorrow = p.isValidateOnBorrow();
+        Duration interval = p.getEvictionInterval();
+        if (interval != null && !interval.isZero() && !interval.isNegative()) {
+            this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "jsch-sftp-channel-evictor");
+                t.setDaemon(true);
+                return t;
+            });
+            long millis = interval.toMillis();
+            this.evictor.scheduleWithFixedDelay(this::evictIdle, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+    }
+
+    /**
+     * Lease a connected SFTP channel for the given session, reusing an idle one when possible.
+     * Blocks up to max-wait when the session already has max-channels-per-session channels leased.
+     */
+    public ChannelSftp borrow(Session session, int connectTimeoutMillis) throws JSchException {
+        Objects.requireNonNull(session, "session");
+        SessionChannels holder = sessions.computeIfAbsent(session, s -> new SessionChannels());
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (true) {
+            ChannelSftp candidate = null;
+            boolean openNew = false;
+            synchronized (holder) {
+                if (holder.closed) {
+                    holder = sessions.computeIfAbsent(session, s -> new SessionChannels());
+                    continue;
+                }
+                if (!holder.idle.isEmpty()) {
+                    candidate = holder.idle.pollFirst().channel;
+                    holder.leased++;
+                } else if (holder.leased < maxChannelsPerSession) {
+                    holder.leased++;
+                    openNew = true;
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new JSchException("No SFTP channel available within " + maxWaitMillis + " ms (max "
+                                + maxChannelsPerSession + " per session)");
+                    }
+                    try {
+                        holder.wait(remaining);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new JSchException("Interrupted while waiting for an SFTP channel", ie);
+                    }
+                    continue;
+                }
+            }
+            if (candidate != null) {
+                if (isHealthy(candidate)) {
+                    return candidate;
+                }
+                discard(holder, candidate);
+                continue;
+            }
+            if (openNew) {
+                try {
+                    return channelFactory.open(session, connectTimeoutMillis);
+                } catch (JSchException | RuntimeException e) {
+                    synchronized (holder) {
+                        holder.leased--;
+                        holder.notifyAll();
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a leased channel. Channels that are no longer connected, or that the caller marks as not reusable
+     * (e.g. after a transport error mid-transfer), are disconnected instead of being kept idle.
+     */
+    public void release(Session session, ChannelSftp channel, boolean reusable) {
+        if (channel == null) return;
+        SessionChannels holder = session != null ? sessions.get(session) : null;
+        if (holder == null) {
+            disconnectQuietly(channel);
+            return;
+        }
+        boolean keep = reusable && session.isConnected() && channel.isConnected() && !channel.isClosed();
+        synchronized (holder) {
+            holder.leased = Math.max(0, holder.leased - 1);
+            if (keep && !holder.closed) {
+                holder.idle.addFirst(new IdleChannel(channel, System.nanoTime()));
+            } else {
+                keep = false;
+            }
+            holder.notifyAll();
+        }
+        if (!keep) {
+            disconnectQuietly(channel);
+        }
+    }
+
+    /**
+     * Close all idle channels of a session and forget it; channels still leased are disconnected on release.
+     * Intended to be registered as a session close listener on the session manager.
+     */
+    public void closeAll(Session session) {
+        if (session == null) return;
+        SessionChannels holder = sessions.remove(session);
+        if (holder == null) return;
+        Deque<IdleChannel> toClose;
+        synchronized (holder) {
+            holder.closed = true;
+            toClose = new ArrayDeque<>(holder.idle);
+            holder.idle.clear();
+            holder.notifyAll();
+        }
+        for (IdleChannel ic : toClose) {
+            disconnectQuietly(ic.channel);
+        }
+    }
+
+    /**
+     * Close channels idle for longer than max-idle-time and drop sessions that are no longer connected.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<Session, SessionChannels> e : sessions.entrySet()) {
+            Session session = e.getKey();
+            SessionChannels holder = e.getValue();
+            if (!session.isConnected()) {
+                closeAll(session);
+                continue;
+            }
+            Deque<ChannelSftp> expired = new ArrayDeque<>();
+            synchronized (holder) {
+                Iterator<IdleChannel> it = holder.idle.iterator();
+                while (it.hasNext()) {
+                    IdleChannel ic = it.next();
+                    if (maxIdleNanos > 0 && now - ic.lastUsedNanos > maxIdleNanos) {
+                        it.remove();
+                        expired.add(ic.channel);
+                    }
+                }
+                if (holder.idle.isEmpty() && holder.leased == 0) {
+                    sessions.remove(session, holder);
+                    holder.closed = true;
+                }
+            }
+            for (ChannelSftp c : expired) {
+                disconnectQuietly(c);
+            }
+        }
+    }
+
+    /**
+     * Get channel statistics for monitoring.
+     */
+    public PoolStats getPoolStats() {
+        int leased = 0;
+        int idle = 0;
+        for (SessionChannels holder : sessions.values()) {
+            synchronized (holder) {
+                leased += holder.leased;
+                idle += holder.idle.size();
+            }
+        }
+        return new PoolStats(sessions.size(), leased, idle, maxChannelsPerSession);
+    }
+
+    @Override
+    public void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (Session s : sessions.keySet()) {
+            closeAll(s);
+        }
+    }
+
+    public record PoolStats(int sessions, int leased, int idle, int maxChannelsPerSession) {
+    }
+
+    private boolean isHealthy(ChannelSftp channel) {
+        if (!channel.isConnected() || channel.isClosed()) return false;
+        if (!validateOnBorrow) return true;
+        try {
+            channel.realpath(".");
+            return true;
+        } catch (SftpException e) {
+            return false;
+        }
+    }
+
+    private void discard(SessionChannels holder, ChannelSftp channel) {
+        synchronized (holder) {
+            holder.leased = Math.max(0, holder.leased - 1);
+            holder.notifyAll();
+        }
+        disconnectQuietly(channel);
+    }
+
+    private static void disconnectQuietly(ChannelSftp channel) {
+        try {
+            channel.disconnect();
+        } catch (Throwable ignore) {
+        }
+    }
+
+    private static long toNanos(Duration d) {
+        return d != null && !d.isNegative() ? d.toNanos() : 0L;
+    }
+
+    private static final class SessionChannels {
+        private final Deque<IdleChannel> idle = new ArrayDeque<>();
+        private int leased;
+        private boolean closed;
+    }
+
+    private record IdleChannel(ChannelSftp channel, long lastUsedNanos) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.yu.jsch.client;
+
+import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.sftp.SftpBatch;
+import com.yu.jsch.sftp.SftpFileInfo;
+import com.yu.jsch.sftp.SftpOpResult;
+import com.yu.jsch.sftp.TransferOptions;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking counterpart of {@link SftpClient}. Futures complete exceptionally with the same exceptions the
+ * blocking client throws (e.g. SftpClientException). Cancelling a future interrupts the running operation.
+ */
+public interface AsyncSftpClient {
+
+    CompletableFuture<Void> mkdir(String hostAlias, String path);
+
+    CompletableFuture<Void> delete(String hostAlias, String path);
+
+    CompletableFuture<Void> rename(String hostAlias, String from, String to, boolean overwrite);
+
+    CompletableFuture<List<SftpOpResult>> batch(String hostAlias, Consumer<SftpBatch> ops);
+
+    CompletableFuture<List<SftpFileInfo>> list(String hostAlias, String path);
+
+    CompletableFuture<Void> upload(String hostAlias, byte[] data, String remotePath, TransferOptions options);
+
+    CompletableFuture<Void> upload(String hostAlias, InputStream in, String remotePath, TransferOptions options);
+
+    CompletableFuture<byte[]> download(String hostAlias, String remotePath);
+
+    CompletableFuture<byte[]> download(String hostAlias, String remotePath, TransferOptions options);
+
+    CompletableFuture<Void> upload(String hostAlias, Path localFile, String remotePath, TransferOptions options);
+
+    CompletableFuture<Void> download(String hostAlias, String remotePath, Path localFile, TransferOptions options);
+
+    CompletableFuture<Void> upload(HostConfig hostConfig, byte[] data, String remotePath, TransferOptions options);
+
+    CompletableFuture<byte[]> download(HostConfig hostConfig, String remotePath);
+
+    CompletableFuture<byte[]> download(HostConfig hostConfig, String remotePath, TransferOptions options);
+
+    CompletableFuture<Void> upload(HostConfig hostConfig, Path localFile, String remotePath, TransferOptions options);
+
+    CompletableFuture<Void> download(HostConfig hostConfig, String remotePath, Path localFile, TransferOptions options);
+
+    CompletableFuture<List<SftpFileInfo>> list(HostConfig hostConfig, String path);
+
+    CompletableFuture<Void> delete(HostConfig hostConfig, String path);
+}
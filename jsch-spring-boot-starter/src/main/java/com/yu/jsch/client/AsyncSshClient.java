@@ -0,0 +1,30 @@
+package com.yu.jsch.client;
+
+import com.yu.jsch.exec.ExecOutputHandler;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import com.yu.jsch.host.HostConfig;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link SshClient}. Futures complete exceptionally with the same exceptions the
+ * blocking client throws (e.g. SshExecutionException). Cancelling a future interrupts the execution and
+ * disconnects its exec channel.
+ */
+public interface AsyncSshClient {
+
+    CompletableFuture<ExecResult> exec(String command);
+
+    CompletableFuture<ExecResult> exec(String hostAlias, String command);
+
+    CompletableFuture<ExecResult> exec(SshCommandRequest request);
+
+    CompletableFuture<ExecResult> exec(String hostAlias, SshCommandRequest request);
+
+    CompletableFuture<ExecResult> exec(HostConfig hostConfig, SshCommandRequest request);
+
+    CompletableFuture<ExecResult> execStreaming(String hostAlias, SshCommandRequest request, ExecOutputHandler handler);
+
+    CompletableFuture<ExecResult> execStreaming(HostConfig hostConfig, SshCommandRequest request, ExecOutputHandler handler);
+}
@@ -0,0 +1,96 @@
+package com.yu.jsch.client;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helpers shared by the async client facades.
+ */
+public final class AsyncSupport {
+
+    private AsyncSupport() {
+    }
+
+    /**
+     * Create the default executor for async clients: a virtual-thread-per-task executor on JDK 21+
+     * (when {@code preferVirtualThreads}), otherwise a bounded pool of daemon threads.
+     */
+    public static ExecutorService defaultExecutor(boolean preferVirtualThreads, int maxThreads) {
+        if (preferVirtualThreads) {
+            try {
+                Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) m.invoke(null);
+            } catch (ReflectiveOperationException ignore) {
+                // JDK < 21: fall through to platform threads
+            }
+        }
+        int size = Math.max(1, maxThreads);
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "jsch-async-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Run a blocking call on the executor. Cancelling the returned future interrupts the running call,
+     * which makes the templates disconnect the channel in use.
+     */
+    static <T> CompletableFuture<T> submit(Executor executor, Callable<T> call) {
+        InterruptibleFuture<T> future = new InterruptibleFuture<>();
+        FutureTask<T> task = new FutureTask<>(call) {
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    future.complete(get());
+                } catch (ExecutionException ee) {
+                    future.completeExceptionally(ee.getCause());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(ie);
+                }
+            }
+        };
+        future.task = task;
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private static final class InterruptibleFuture<T> extends CompletableFuture<T> {
+        private volatile FutureTask<T> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            FutureTask<T> t = task;
+            if (cancelled && t != null) {
+                t.cancel(true);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
+    }
+}
@@ -4,16 +4,14 @@ import com.jcraft.jsch.JSch;
 import com.yu.jsch.*;
 import com.yu.jsch.auth.PasswordAuthStrategy;
 import com.yu.jsch.auth.PublicKeyAuthStrategy;
-import com.yu.jsch.channel.ExecChannelFactory;
-import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.observability.JschMetrics;
 import com.yu.jsch.observability.ObservabilityConfig;
 import com.yu.jsch.strategy.ExponentialBackoffRetryStrategy;
 import com.yu.jsch.strategy.NoRetryStrategy;
 import com.yu.jsch.strategy.RetryStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -34,6 +32,10 @@ public final class ClientFactory {
         private Supplier<JSch> jschSupplier = JSch::new;
         private String defaultHostAlias;
         private SessionPoolProperties sessionPool = new SessionPoolProperties();
+        private SftpChannelPoolProperties sftpChannelPool = new SftpChannelPoolProperties();
+        private MeterRegistry meterRegistry;
+        private Duration contextIdleTimeout;
+        private HostContextRegistry registry;
 
         public Builder(SshProperties properties) {
             this.properties = Objects.requireNonNull(properties, "properties");
@@ -54,47 +56,111 @@ public final class ClientFactory {
             return this;
         }
 
+        public Builder sftpChannelPool(SftpChannelPoolProperties channelPoolProps) {
+            this.sftpChannelPool = channelPoolProps != null ? channelPoolProps : new SftpChannelPoolProperties();
+            return this;
+        }
+
+        /**
+         * Record Micrometer timers, counters and pool gauges into the given registry.
+         */
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * Shut down host contexts not used for the given time (and without operations in flight); they are built
+         * again on next use. Zero or null (the default) keeps contexts until the registry is closed.
+         */
+        public Builder contextIdleTimeout(Duration idleTimeout) {
+            this.contextIdleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Clients built by this builder share one context per host, built on the host's first operation. Every host
+         * definition is still validated here, so a misconfigured host fails the build rather than its first call.
+         */
         public SshClient buildSshClient() {
-            Map<String, DefaultSshClient.HostContext> map = new HashMap<>();
             String def = resolveDefaultHostAlias();
-            ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability());
-            for (Map.Entry<String, SshProperties.Host> e : properties.getHosts().entrySet()) {
-                String alias = e.getKey();
-                HostDefinition host = properties.buildHostDefinition(alias);
-                RetryStrategy retry = buildRetry(host);
-                JschSessionFactory sessionFactory = buildSessionFactory(host);
-                JschSessionManager sm = buildSessionManager(sessionFactory, observability, alias);
-                SshTemplate template = new SshTemplate(sm, new ExecChannelFactory(), retry, observability, alias);
-                int connectTimeoutMillis = toMillis(host.getTimeouts().getConnect());
-                map.put(alias, new DefaultSshClient.HostContext(template, connectTimeoutMillis));
-            }
-            return new DefaultSshClient(map, def);
+            return new DefaultSshClient(contextRegistry(), def);
         }
 
         public SftpClient buildSftpClient() {
-            Map<String, DefaultSftpClient.HostContext> map = new HashMap<>();
             String def = resolveDefaultHostAlias();
-            ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability());
-            for (Map.Entry<String, SshProperties.Host> e : properties.getHosts().entrySet()) {
-                String alias = e.getKey();
-                HostDefinition host = properties.buildHostDefinition(alias);
-                RetryStrategy retry = buildRetry(host);
-                JschSessionFactory sessionFactory = buildSessionFactory(host);
-                JschSessionManager sm = buildSessionManager(sessionFactory, observability, alias);
-                SftpTemplate template = new SftpTemplate(sm, new SftpChannelFactory(), retry, observability, alias);
-                int connectTimeoutMillis = toMillis(host.getTimeouts().getConnect());
-                map.put(alias, new DefaultSftpClient.HostContext(template, connectTimeoutMillis));
+            return new DefaultSftpClient(contextRegistry(), def);
+        }
+
+        /**
+         * The per-host contexts shared by the clients of this builder; close it to shut down their session managers.
+         * Builder settings made after the first call have no effect on it.
+         *
+         * @throws IllegalArgumentException if a host definition is incomplete (e.g. no authentication configured)
+         */
+        public synchronized HostContextRegistry contextRegistry() {
+            if (registry == null) {
+                if (properties.getHosts().isEmpty()) {
+                    throw new IllegalArgumentException("At least one host must be configured");
+                }
+                // Only the session managers and templates are built lazily; definitions are checked up front
+                for (String alias : properties.getHosts().keySet()) {
+                    validateAuthentication(properties.buildHostDefinition(alias));
+                }
+                ObservabilityConfig observability = buildObservability();
+                registry = new HostContextRegistry(properties.getHosts().keySet(),
+                        alias -> buildHostResources(alias, observability), observability, sftpChannelPool,
+                        contextIdleTimeout);
             }
-            return new DefaultSftpClient(map, def);
+            return registry;
+        }
+
+        private HostContextRegistry.HostResources buildHostResources(String alias, ObservabilityConfig observability) {
+            HostDefinition host = properties.buildHostDefinition(alias);
+            RetryStrategy retry = buildRetry(host);
+            JschSessionFactory sessionFactory = buildSessionFactory(host);
+            JschSessionManager sm = buildSessionManager(host, sessionFactory, observability, alias);
+            return new HostContextRegistry.HostResources(host, retry, sm);
         }
 
-        private JschSessionManager buildSessionManager(JschSessionFactory sessionFactory, ObservabilityConfig observability, String alias) {
-            if (sessionPool != null && sessionPool.isEnabled()) {
-                return new PooledJschSessionManager(sessionFactory, sessionPool);
+        private JschSessionManager buildSessionManager(HostDefinition host, JschSessionFactory sessionFactory,
+                                                       ObservabilityConfig observability, String alias) {
+            SessionPoolProperties poolProps = poolPropertiesFor(host);
+            if (poolProps.isEnabled() && poolProps.isMultiplex()) {
+                return new MultiplexingJschSessionManager(sessionFactory, poolProps, observability, alias);
+            }
+            if (poolProps.isEnabled()) {
+                return new PooledJschSessionManager(sessionFactory, poolProps, observability, alias);
             }
             return new SingleUseJschSessionManager(sessionFactory, observability, alias);
         }
 
+        /**
+         * Pool settings of ssh.hosts.*.pool / ssh.defaults.pool take precedence when pooling is enabled there;
+         * eviction, validation, lifetime and multiplexing settings always come from the global session pool properties,
+         * except a per-host max-channels-per-session.
+         */
+        private SessionPoolProperties poolPropertiesFor(HostDefinition host) {
+            SessionPoolProperties props = sessionPool != null ? sessionPool.copy() : new SessionPoolProperties();
+            HostDefinition.Pool hostPool = host.getPool();
+            if (hostPool != null && hostPool.isEnabled()) {
+                props.setEnabled(true);
+                if (hostPool.getMaxTotal() > 0) props.setMaxTotal(hostPool.getMaxTotal());
+                props.setMaxIdle(hostPool.getMaxIdle());
+                props.setMinIdle(hostPool.getMinIdle());
+                if (hostPool.getMaxWait() != null) props.setMaxWait(hostPool.getMaxWait());
+            }
+            if (hostPool != null && hostPool.getMaxChannelsPerSession() > 0) {
+                props.setMaxChannelsPerSession(hostPool.getMaxChannelsPerSession());
+            }
+            return props;
+        }
+
+        private ObservabilityConfig buildObservability() {
+            ObservabilityConfig observability = ObservabilityConfig.fromProperties(properties.getObservability());
+            return meterRegistry != null ? observability.withMetrics(new JschMetrics(meterRegistry)) : observability;
+        }
+
         private String resolveDefaultHostAlias() {
             if (defaultHostAlias != null) {
                 if (!properties.getHosts().containsKey(defaultHostAlias)) {
@@ -130,7 +196,19 @@ public final class ClientFactory {
                     .connectTimeoutMillis(toMillis(host.getTimeouts().getConnect()))
                     .socketTimeoutMillis(toMillis(host.getTimeouts().getRead()))
                     .knownHostsMode(host.getKnownHosts().getMode())
-                    .knownHostsPath(host.getKnownHosts().getPath());
+                    .knownHostsPath(host.getKnownHosts().getPath())
+                    .channelTuning(host.getTuning());
+            validateAuthentication(host);
+            HostDefinition.Authentication a = host.getAuthentication();
+            if (a.getType() == AuthType.PASSWORD) {
+                b.authStrategy(new PasswordAuthStrategy(a.getPassword()));
+            } else if (a.getType() == AuthType.PUBLIC_KEY) {
+                b.authStrategy(new PublicKeyAuthStrategy(a.getPrivateKeyPath(), a.getPrivateKey(), a.getPassphrase()));
+            }
+            return b.build();
+        }
+
+        private static void validateAuthentication(HostDefinition host) {
             HostDefinition.Authentication a = host.getAuthentication();
             AuthType type = a.getType();
             if (type == null) {
@@ -140,16 +218,13 @@ public final class ClientFactory {
                 if (a.getPassword() == null || a.getPassword().isBlank()) {
                     throw new IllegalArgumentException("ssh.hosts." + host.getAlias() + ": password is required when auth.type=password");
                 }
-                b.authStrategy(new PasswordAuthStrategy(a.getPassword()));
             } else if (type == AuthType.PUBLIC_KEY) {
                 boolean hasPath = a.getPrivateKeyPath() != null && !a.getPrivateKeyPath().isBlank();
                 boolean hasInline = a.getPrivateKey() != null && !a.getPrivateKey().isBlank();
                 if (!hasPath && !hasInline) {
                     throw new IllegalArgumentException("ssh.hosts." + host.getAlias() + ": private-key-path or private-key must be provided when auth.type=public_key");
                 }
-                b.authStrategy(new PublicKeyAuthStrategy(a.getPrivateKeyPath(), a.getPrivateKey(), a.getPassphrase()));
             }
-            return b.build();
         }
 
         private int toMillis(Duration d) {
@@ -0,0 +1,152 @@
+package com.yu.jsch.client;
+
+import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.sftp.SftpBatch;
+import com.yu.jsch.sftp.SftpFileInfo;
+import com.yu.jsch.sftp.SftpOpResult;
+import com.yu.jsch.sftp.TransferOptions;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * AsyncSftpClient that runs a blocking SftpClient on an executor.
+ */
+public class DefaultAsyncSftpClient implements AsyncSftpClient {
+
+    private final SftpClient delegate;
+    private final Executor executor;
+
+    public DefaultAsyncSftpClient(SftpClient delegate, Executor executor) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public CompletableFuture<Void> mkdir(String hostAlias, String path) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.mkdir(hostAlias, path);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String hostAlias, String path) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.delete(hostAlias, path);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> rename(String hostAlias, String from, String to, boolean overwrite) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.rename(hostAlias, from, to, overwrite);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<SftpOpResult>> batch(String hostAlias, Consumer<SftpBatch> ops) {
+        return AsyncSupport.submit(executor, () -> delegate.batch(hostAlias, ops));
+    }
+
+    @Override
+    public CompletableFuture<List<SftpFileInfo>> list(String hostAlias, String path) {
+        return AsyncSupport.submit(executor, () -> delegate.list(hostAlias, path));
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String hostAlias, byte[] data, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.upload(hostAlias, data, remotePath, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String hostAlias, InputStream in, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.upload(hostAlias, in, remotePath, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<byte[]> download(String hostAlias, String remotePath) {
+        return AsyncSupport.submit(executor, () -> delegate.download(hostAlias, remotePath));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> download(String hostAlias, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> delegate.download(hostAlias, remotePath, options));
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(String hostAlias, Path localFile, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.upload(hostAlias, localFile, remotePath, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> download(String hostAlias, String remotePath, Path localFile, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.download(hostAlias, remotePath, localFile, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(HostConfig hostConfig, byte[] data, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.upload(hostConfig, data, remotePath, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<byte[]> download(HostConfig hostConfig, String remotePath) {
+        return AsyncSupport.submit(executor, () -> delegate.download(hostConfig, remotePath));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> download(HostConfig hostConfig, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> delegate.download(hostConfig, remotePath, options));
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(HostConfig hostConfig, Path localFile, String remotePath, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.upload(hostConfig, localFile, remotePath, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> download(HostConfig hostConfig, String remotePath, Path localFile, TransferOptions options) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.download(hostConfig, remotePath, localFile, options);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<SftpFileInfo>> list(HostConfig hostConfig, String path) {
+        return AsyncSupport.submit(executor, () -> delegate.list(hostConfig, path));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(HostConfig hostConfig, String path) {
+        return AsyncSupport.submit(executor, () -> {
+            delegate.delete(hostConfig, path);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.yu.jsch.client;
+
+import com.yu.jsch.exec.ExecOutputHandler;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import com.yu.jsch.host.HostConfig;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * AsyncSshClient that runs a blocking SshClient on an executor.
+ */
+public class DefaultAsyncSshClient implements AsyncSshClient {
+
+    private final SshClient delegate;
+    private final Executor executor;
+
+    public DefaultAsyncSshClient(SshClient delegate, Executor executor) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> exec(String command) {
+        return AsyncSupport.submit(executor, () -> delegate.exec(command));
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> exec(String hostAlias, String command) {
+        return AsyncSupport.submit(executor, () -> delegate.exec(hostAlias, command));
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> exec(SshCommandRequest request) {
+        return AsyncSupport.submit(executor, () -> delegate.exec(request));
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> exec(String hostAlias, SshCommandRequest request) {
+        return AsyncSupport.submit(executor, () -> delegate.exec(hostAlias, request));
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> exec(HostConfig hostConfig, SshCommandRequest request) {
+        return AsyncSupport.submit(executor, () -> delegate.exec(hostConfig, request));
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> execStreaming(String hostAlias, SshCommandRequest request, ExecOutputHandler handler) {
+        return AsyncSupport.submit(executor, () -> delegate.execStreaming(hostAlias, request, handler));
+    }
+
+    @Override
+    public CompletableFuture<ExecResult> execStreaming(HostConfig hostConfig, SshCommandRequest request, ExecOutputHandler handler) {
+        return AsyncSupport.submit(executor, () -> delegate.execStreaming(hostConfig, request, handler));
+    }
+}
@@ -1,12 +1,23 @@
 package com.yu.jsch.client;
 
 import com.yu.jsch.SftpTemplate;
+import com.yu.jsch.sftp.BulkReadOptions;
+import com.yu.jsch.sftp.SftpBatch;
 import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.SftpContentHandler;
+import com.yu.jsch.sftp.SftpEntryVisitor;
 import com.yu.jsch.sftp.SftpFileInfo;
+import com.yu.jsch.sftp.SftpOpResult;
+import com.yu.jsch.sftp.SftpWalkVisitor;
 import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.sftp.WalkOptions;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Default implementation of SftpClient delegating to SftpTemplate instances per host.
@@ -16,30 +27,54 @@ public class DefaultSftpClient implements SftpClient {
     public static class HostContext {
         final SftpTemplate template;
         final int connectTimeoutMillis;
+        private final Runnable release;
 
         public HostContext(SftpTemplate template, int connectTimeoutMillis) {
+            this(template, connectTimeoutMillis, () -> {
+            });
+        }
+
+        HostContext(SftpTemplate template, int connectTimeoutMillis, Runnable release) {
             this.template = Objects.requireNonNull(template, "template");
             this.connectTimeoutMillis = connectTimeoutMillis;
+            this.release = Objects.requireNonNull(release, "release");
+        }
+
+        /**
+         * Called once the operation that looked the context up completed.
+         */
+        void release() {
+            release.run();
         }
     }
 
-    private final Map<String, HostContext> hosts;
+    private final Function<String, HostContext> hosts;
     private final String defaultHostAlias;
 
     public DefaultSftpClient(Map<String, HostContext> hosts, String defaultHostAlias) {
         if (hosts == null || hosts.isEmpty())
             throw new IllegalArgumentException("At least one host must be configured");
-        this.hosts = Collections.unmodifiableMap(new HashMap<>(hosts));
-        if (defaultHostAlias != null && !this.hosts.containsKey(defaultHostAlias)) {
+        Map<String, HostContext> copy = Collections.unmodifiableMap(new HashMap<>(hosts));
+        if (defaultHostAlias != null && !copy.containsKey(defaultHostAlias)) {
             throw new IllegalArgumentException("Default host alias not found: " + defaultHostAlias);
         }
-        if (defaultHostAlias == null && this.hosts.size() == 1) {
-            this.defaultHostAlias = this.hosts.keySet().iterator().next();
+        this.hosts = copy::get;
+        if (defaultHostAlias == null && copy.size() == 1) {
+            this.defaultHostAlias = copy.keySet().iterator().next();
         } else {
             this.defaultHostAlias = defaultHostAlias;
         }
     }
 
+    /**
+     * Client whose host contexts are built on first use by {@code registry}; the default alias is validated by the
+     * caller.
+     */
+    DefaultSftpClient(HostContextRegistry registry, String defaultHostAlias) {
+        this.hosts = registry::sftpContext;
+        this.defaultHostAlias = defaultHostAlias;
+    }
+
     @Override
     public void mkdir(String path) throws SftpClientException {
         mkdir(resolveDefaultAlias(), path);
@@ -47,9 +82,10 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public void mkdir(String hostAlias, String path) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
-        if (ctx == null) throw new HostNotFoundException(hostAlias);
-        ctx.template.mkdir(path, ctx.connectTimeoutMillis);
+        onHost(hostAlias, ctx -> {
+            ctx.template.mkdir(path, ctx.connectTimeoutMillis);
+            return null;
+        });
     }
 
     @Override
@@ -59,9 +95,23 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public void delete(String hostAlias, String path) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
-        if (ctx == null) throw new HostNotFoundException(hostAlias);
-        ctx.template.delete(path, ctx.connectTimeoutMillis);
+        onHost(hostAlias, ctx -> {
+            ctx.template.delete(path, ctx.connectTimeoutMillis);
+            return null;
+        });
+    }
+
+    @Override
+    public void rmdir(String path) throws SftpClientException {
+        rmdir(resolveDefaultAlias(), path);
+    }
+
+    @Override
+    public void rmdir(String hostAlias, String path) throws SftpClientException {
+        onHost(hostAlias, ctx -> {
+            ctx.template.rmdir(path, ctx.connectTimeoutMillis);
+            return null;
+        });
     }
 
     @Override
@@ -71,9 +121,32 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public void rename(String hostAlias, String from, String to, boolean overwrite) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
-        if (ctx == null) throw new HostNotFoundException(hostAlias);
-        ctx.template.rename(from, to, overwrite, ctx.connectTimeoutMillis);
+        onHost(hostAlias, ctx -> {
+            ctx.template.rename(from, to, overwrite, ctx.connectTimeoutMillis);
+            return null;
+        });
+    }
+
+    @Override
+    public List<SftpOpResult> batch(Consumer<SftpBatch> ops) throws SftpClientException {
+        return batch(resolveDefaultAlias(), ops);
+    }
+
+    @Override
+    public List<SftpOpResult> batch(String hostAlias, Consumer<SftpBatch> ops) throws SftpClientException {
+        return onHost(hostAlias, ctx -> ctx.template.batch(ops, ctx.connectTimeoutMillis));
+    }
+
+    @Override
+    public List<SftpOpResult> readFiles(List<String> remotePaths, BulkReadOptions options, SftpContentHandler handler)
+            throws SftpClientException {
+        return readFiles(resolveDefaultAlias(), remotePaths, options, handler);
+    }
+
+    @Override
+    public List<SftpOpResult> readFiles(String hostAlias, List<String> remotePaths, BulkReadOptions options,
+                                        SftpContentHandler handler) throws SftpClientException {
+        return onHost(hostAlias, ctx -> ctx.template.readFiles(remotePaths, options, handler, ctx.connectTimeoutMillis));
     }
 
     @Override
@@ -83,9 +156,53 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public List<SftpFileInfo> list(String hostAlias, String path) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
-        if (ctx == null) throw new HostNotFoundException(hostAlias);
-        return ctx.template.list(path, ctx.connectTimeoutMillis);
+        return onHost(hostAlias, ctx -> ctx.template.list(path, ctx.connectTimeoutMillis));
+    }
+
+    @Override
+    public List<SftpFileInfo> list(String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException {
+        return list(resolveDefaultAlias(), path, filter, limit);
+    }
+
+    @Override
+    public List<SftpFileInfo> list(String hostAlias, String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException {
+        return onHost(hostAlias, ctx -> ctx.template.list(path, filter, limit, ctx.connectTimeoutMillis));
+    }
+
+    @Override
+    public void forEachEntry(String path, SftpEntryVisitor visitor) throws SftpClientException {
+        forEachEntry(resolveDefaultAlias(), path, visitor);
+    }
+
+    @Override
+    public void forEachEntry(String hostAlias, String path, SftpEntryVisitor visitor) throws SftpClientException {
+        onHost(hostAlias, ctx -> {
+            ctx.template.forEachEntry(path, visitor, ctx.connectTimeoutMillis);
+            return null;
+        });
+    }
+
+    @Override
+    public void walk(String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException {
+        walk(resolveDefaultAlias(), root, options, visitor);
+    }
+
+    @Override
+    public void walk(String hostAlias, String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException {
+        onHost(hostAlias, ctx -> {
+            ctx.template.walk(root, options, visitor, ctx.connectTimeoutMillis);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, SftpFileInfo> find(String root, WalkOptions options) throws SftpClientException {
+        return find(resolveDefaultAlias(), root, options);
+    }
+
+    @Override
+    public Map<String, SftpFileInfo> find(String hostAlias, String root, WalkOptions options) throws SftpClientException {
+        return onHost(hostAlias, ctx -> ctx.template.find(root, options, ctx.connectTimeoutMillis));
     }
 
     @Override
@@ -95,9 +212,10 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public void upload(String hostAlias, byte[] data, String remotePath, TransferOptions options) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
-        if (ctx == null) throw new HostNotFoundException(hostAlias);
-        ctx.template.upload(data, remotePath, options);
+        onHost(hostAlias, ctx -> {
+            ctx.template.upload(data, remotePath, options);
+            return null;
+        });
     }
 
     @Override
@@ -107,9 +225,23 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public void upload(String hostAlias, InputStream in, String remotePath, TransferOptions options) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
-        if (ctx == null) throw new HostNotFoundException(hostAlias);
-        ctx.template.upload(in, remotePath, options);
+        onHost(hostAlias, ctx -> {
+            ctx.template.upload(in, remotePath, options);
+            return null;
+        });
+    }
+
+    @Override
+    public void upload(Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        upload(resolveDefaultAlias(), localFile, remotePath, options);
+    }
+
+    @Override
+    public void upload(String hostAlias, Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        onHost(hostAlias, ctx -> {
+            ctx.template.upload(localFile, remotePath, options);
+            return null;
+        });
     }
 
     @Override
@@ -119,9 +251,54 @@ public class DefaultSftpClient implements SftpClient {
 
     @Override
     public byte[] download(String hostAlias, String remotePath) throws SftpClientException {
-        HostContext ctx = hosts.get(hostAlias);
+        return onHost(hostAlias, ctx -> ctx.template.download(remotePath, ctx.connectTimeoutMillis));
+    }
+
+    @Override
+    public byte[] download(String remotePath, TransferOptions options) throws SftpClientException {
+        return download(resolveDefaultAlias(), remotePath, options);
+    }
+
+    @Override
+    public byte[] download(String hostAlias, String remotePath, TransferOptions options) throws SftpClientException {
+        return onHost(hostAlias, ctx -> ctx.template.download(remotePath, options));
+    }
+
+    @Override
+    public InputStream openInputStream(String remotePath) throws SftpClientException {
+        return openInputStream(resolveDefaultAlias(), remotePath);
+    }
+
+    @Override
+    public InputStream openInputStream(String hostAlias, String remotePath) throws SftpClientException {
+        return onHost(hostAlias, ctx -> ctx.template.openInputStream(remotePath, ctx.connectTimeoutMillis));
+    }
+
+    @Override
+    public void download(String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        download(resolveDefaultAlias(), remotePath, localFile, options);
+    }
+
+    @Override
+    public void download(String hostAlias, String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        onHost(hostAlias, ctx -> {
+            ctx.template.download(remotePath, localFile, options);
+            return null;
+        });
+    }
+
+    private interface HostCall<T> {
+        T call(HostContext ctx) throws SftpClientException;
+    }
+
+    private <T> T onHost(String hostAlias, HostCall<T> call) throws SftpClientException {
+        HostContext ctx = hosts.apply(hostAlias);
         if (ctx == null) throw new HostNotFoundException(hostAlias);
-        return ctx.template.download(remotePath, ctx.connectTimeoutMillis);
+        try {
+            return call.call(ctx);
+        } finally {
+            ctx.release();
+        }
     }
 
     private String resolveDefaultAlias() {
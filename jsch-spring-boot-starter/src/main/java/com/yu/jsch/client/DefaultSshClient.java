@@ -1,6 +1,7 @@
 package com.yu.jsch.client;
 
 import com.yu.jsch.SshTemplate;
+import com.yu.jsch.exec.ExecOutputHandler;
 import com.yu.jsch.exec.ExecResult;
 import com.yu.jsch.exec.SshCommandRequest;
 import com.yu.jsch.exec.SshExecutionException;
@@ -10,6 +11,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * Default implementation of SshClient delegating to SshTemplate instances per host.
@@ -19,30 +21,54 @@ public class DefaultSshClient implements SshClient {
     public static class HostContext {
         final SshTemplate template;
         final int connectTimeoutMillis;
+        private final Runnable release;
 
         public HostContext(SshTemplate template, int connectTimeoutMillis) {
+            this(template, connectTimeoutMillis, () -> {
+            });
+        }
+
+        HostContext(SshTemplate template, int connectTimeoutMillis, Runnable release) {
             this.template = Objects.requireNonNull(template, "template");
             this.connectTimeoutMillis = connectTimeoutMillis;
+            this.release = Objects.requireNonNull(release, "release");
+        }
+
+        /**
+         * Called once the operation that looked the context up completed.
+         */
+        void release() {
+            release.run();
         }
     }
 
-    private final Map<String, HostContext> hosts;
+    private final Function<String, HostContext> hosts;
     private final String defaultHostAlias;
 
     public DefaultSshClient(Map<String, HostContext> hosts, String defaultHostAlias) {
         if (hosts == null || hosts.isEmpty())
             throw new IllegalArgumentException("At least one host must be configured");
-        this.hosts = Collections.unmodifiableMap(new HashMap<>(hosts));
-        if (defaultHostAlias != null && !this.hosts.containsKey(defaultHostAlias)) {
+        Map<String, HostContext> copy = Collections.unmodifiableMap(new HashMap<>(hosts));
+        if (defaultHostAlias != null && !copy.containsKey(defaultHostAlias)) {
             throw new IllegalArgumentException("Default host alias not found: " + defaultHostAlias);
         }
-        if (defaultHostAlias == null && this.hosts.size() == 1) {
-            this.defaultHostAlias = this.hosts.keySet().iterator().next();
+        this.hosts = copy::get;
+        if (defaultHostAlias == null && copy.size() == 1) {
+            this.defaultHostAlias = copy.keySet().iterator().next();
         } else {
             this.defaultHostAlias = defaultHostAlias;
         }
     }
 
+    /**
+     * Client whose host contexts are built on first use by {@code registry}; the default alias is validated by the
+     * caller.
+     */
+    DefaultSshClient(HostContextRegistry registry, String defaultHostAlias) {
+        this.hosts = registry::sshContext;
+        this.defaultHostAlias = defaultHostAlias;
+    }
+
     @Override
     public ExecResult exec(String command) throws SshExecutionException {
         return exec(resolveDefaultAlias(), command);
@@ -66,14 +92,38 @@ public class DefaultSshClient implements SshClient {
     @Override
     public ExecResult exec(String hostAlias, SshCommandRequest request) throws SshExecutionException {
         Objects.requireNonNull(request, "request");
-        HostContext ctx = hosts.get(hostAlias);
+        HostContext ctx = hosts.apply(hostAlias);
         if (ctx == null) throw new HostNotFoundException(hostAlias);
-        SshCommandRequest reqToUse = ensureConnectTimeout(request, ctx.connectTimeoutMillis);
         try {
+            SshCommandRequest reqToUse = ensureConnectTimeout(request, ctx.connectTimeoutMillis);
             return ctx.template.execute(reqToUse);
         } catch (Exception ex) {
             String msg = ex.getMessage() != null ? ex.getMessage() : "SSH execution failed";
             throw new SshExecutionException(msg, hostAlias, request.getCommand(), ex);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    @Override
+    public ExecResult execStreaming(SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        return execStreaming(resolveDefaultAlias(), request, handler);
+    }
+
+    @Override
+    public ExecResult execStreaming(String hostAlias, SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(handler, "handler");
+        HostContext ctx = hosts.apply(hostAlias);
+        if (ctx == null) throw new HostNotFoundException(hostAlias);
+        try {
+            SshCommandRequest reqToUse = ensureConnectTimeout(request, ctx.connectTimeoutMillis);
+            return ctx.template.executeStreaming(reqToUse, handler);
+        } catch (Exception ex) {
+            String msg = ex.getMessage() != null ? ex.getMessage() : "SSH execution failed";
+            throw new SshExecutionException(msg, hostAlias, request.getCommand(), ex);
+        } finally {
+            ctx.release();
         }
     }
 
@@ -86,14 +136,6 @@ public class DefaultSshClient implements SshClient {
 
     private static SshCommandRequest ensureConnectTimeout(SshCommandRequest request, int connectTimeout) {
         if (request.getConnectTimeoutMillis() > 0) return request;
-        SshCommandRequest.Builder b = SshCommandRequest.builder(request.getCommand())
-                .environment(request.getEnvironment())
-                .pty(request.isPty())
-                .ptyType(request.getPtyType())
-                .charset(request.getCharset())
-                .connectTimeoutMillis(connectTimeout)
-                .executionTimeout(request.getExecutionTimeout())
-                .idempotent(request.isIdempotent());
-        return b.build();
+        return request.toBuilder().connectTimeoutMillis(connectTimeout).build();
     }
 }
@@ -0,0 +1,356 @@
+package com.yu.jsch.client;
+
+import com.jcraft.jsch.Session;
+import com.yu.jsch.HostDefinition;
+import com.yu.jsch.JschSessionManager;
+import com.yu.jsch.MultiplexingJschSessionManager;
+import com.yu.jsch.PooledJschSessionManager;
+import com.yu.jsch.SftpChannelPoolProperties;
+import com.yu.jsch.SftpTemplate;
+import com.yu.jsch.SshTemplate;
+import com.yu.jsch.channel.ExecChannelFactory;
+import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.channel.SftpChannelPool;
+import com.yu.jsch.observability.ObservabilityConfig;
+import com.yu.jsch.strategy.RetryStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-alias host contexts (host definition, retry strategy, session manager and templates) shared by the SshClient
+ * and SftpClient built from one {@link ClientFactory.Builder}. A context is built on the first operation against its
+ * alias, so configuring many hosts costs nothing until they are used, and SSH and SFTP operations on a host share one
+ * session manager.
+ * <p>
+ * With an idle timeout, contexts without operations in flight that were not used for that long are shut down (closing
+ * their pooled sessions) and built again on next use.
+ */
+public final class HostContextRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HostContextRegistry.class);
+
+    /**
+     * Builds the host-specific parts of a context; called at most once per alias until the context is evicted.
+     */
+    @FunctionalInterface
+    interface ContextBuilder {
+        HostResources build(String alias);
+    }
+
+    record HostResources(HostDefinition host, RetryStrategy retry, JschSessionManager sessionManager) {
+    }
+
+    private final Set<String> aliases;
+    private final ContextBuilder builder;
+    private final ObservabilityConfig observability;
+    private final SftpChannelPoolProperties channelPoolProps;
+    private final SftpChannelFactory channelFactory = new SftpChannelFactory();
+    private final long idleTimeoutNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> eviction;
+    private volatile SftpChannelPool channelPool;
+    private volatile boolean closed;
+
+    HostContextRegistry(Set<String> aliases, ContextBuilder builder, ObservabilityConfig observability,
+                        SftpChannelPoolProperties channelPoolProps, Duration idleTimeout) {
+        this.aliases = Set.copyOf(aliases);
+        this.builder = Objects.requireNonNull(builder, "builder");
+        this.observability = Objects.requireNonNull(observability, "observability");
+        this.channelPoolProps = channelPoolProps;
+        if (idleTimeout != null && !idleTimeout.isZero() && !idleTimeout.isNegative()) {
+            this.idleTimeoutNanos = idleTimeout.toNanos();
+            long interval = Math.max(1000L, Math.min(idleTimeout.toMillis() / 2, 60_000L));
+            this.eviction = Evictor.EXECUTOR.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.idleTimeoutNanos = 0L;
+            this.eviction = null;
+        }
+    }
+
+    /**
+     * SSH context of {@code alias}, built on first use; null for aliases that are not configured. The caller counts as
+     * in flight, so the context is not evicted under it, until it calls {@link DefaultSshClient.HostContext#release()}.
+     */
+    DefaultSshClient.HostContext sshContext(String alias) {
+        Entry entry = entry(alias);
+        return entry != null ? entry.ssh : null;
+    }
+
+    /**
+     * SFTP context of {@code alias}, built on first use; null for aliases that are not configured. The caller counts
+     * as in flight, so the context is not evicted under it, until it calls {@link DefaultSftpClient.HostContext#release()}.
+     */
+    DefaultSftpClient.HostContext sftpContext(String alias) {
+        Entry entry = entry(alias);
+        return entry != null ? entry.sftp : null;
+    }
+
+    private Entry entry(String alias) {
+        if (alias == null || !aliases.contains(alias)) return null;
+        while (true) {
+            if (closed) throw new IllegalStateException("Host context registry is closed");
+            Entry entry = entries.computeIfAbsent(alias, Entry::new);
+            if (entry.open()) return entry;
+            // Evicted between lookup and use; the next lookup builds a fresh context
+            entries.remove(alias, entry);
+        }
+    }
+
+    /**
+     * Aliases whose context is currently built.
+     */
+    public Set<String> activeAliases() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * Shut down the context of {@code alias} unless a caller holds it or an operation is in flight on it; the next
+     * operation builds it again.
+     */
+    public void evict(String alias) {
+        Entry entry = alias != null ? entries.get(alias) : null;
+        if (entry != null && entry.retire(0L)) {
+            entries.remove(alias, entry);
+            entry.shutdown();
+        }
+    }
+
+    private void evictIdle() {
+        try {
+            List<Entry> evicted = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.retire(idleTimeoutNanos)) {
+                    entries.remove(entry.alias, entry);
+                    evicted.add(entry);
+                }
+            }
+            evicted.forEach(Entry::shutdown);
+            if (!evicted.isEmpty()) {
+                log.debug("Evicted {} idle SSH host contexts, {} remain", evicted.size(), entries.size());
+            }
+        } catch (Throwable e) {
+            log.debug("SSH host context eviction failed: {}", e.toString());
+        }
+    }
+
+    private SftpChannelPool channelPool() {
+        if (channelPoolProps == null || !channelPoolProps.isEnabled()) return null;
+        SftpChannelPool pool = channelPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = channelPool;
+                if (pool == null) {
+                    // One channel pool is shared by all hosts; channels are keyed by the session they belong to
+                    pool = new SftpChannelPool(channelFactory, channelPoolProps);
+                    observability.metrics().bindChannelPool(pool);
+                    channelPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Shut down all contexts and the SFTP channel pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (eviction != null) eviction.cancel(false);
+        for (Entry entry : entries.values()) {
+            entry.retire(-1L);
+            entry.shutdown();
+        }
+        entries.clear();
+        SftpChannelPool pool = channelPool;
+        if (pool != null) pool.close();
+    }
+
+    /**
+     * Context of one alias. Built lazily under the entry's lock; once retired it is never handed out again.
+     */
+    private final class Entry {
+        private final String alias;
+        private TrackingSessionManager sessionManager;
+        private DefaultSshClient.HostContext ssh;
+        private DefaultSftpClient.HostContext sftp;
+        private boolean retired;
+
+        private Entry(String alias) {
+            this.alias = alias;
+        }
+
+        private synchronized boolean open() {
+            if (retired) return false;
+            if (sessionManager == null) {
+                HostResources resources = builder.build(alias);
+                TrackingSessionManager sm = new TrackingSessionManager(resources.sessionManager());
+                int connectTimeoutMillis = toMillis(resources.host().getTimeouts().getConnect());
+                ssh = new DefaultSshClient.HostContext(
+                        new SshTemplate(sm, new ExecChannelFactory(), resources.retry(), observability, alias),
+                        connectTimeoutMillis, sm::end);
+                sftp = new DefaultSftpClient.HostContext(
+                        new SftpTemplate(sm, channelFactory, resources.retry(), observability, alias, channelPool()),
+                        connectTimeoutMillis, sm::end);
+                sessionManager = sm;
+            }
+            // Counted from the hand-out, not from the first execution, so eviction cannot slip in between
+            sessionManager.begin();
+            return true;
+        }
+
+        /**
+         * Retire the entry when nothing is in flight and it was idle for {@code idleNanos}; a negative value retires
+         * it unconditionally.
+         */
+        private synchronized boolean retire(long idleNanos) {
+            if (retired) return false;
+            if (idleNanos >= 0 && sessionManager != null) {
+                if (sessionManager.inFlight.get() > 0) return false;
+                if (System.nanoTime() - sessionManager.lastUsedNanos < idleNanos) return false;
+            }
+            retired = true;
+            return true;
+        }
+
+        private void shutdown() {
+            TrackingSessionManager sm;
+            synchronized (this) {
+                sm = sessionManager;
+            }
+            if (sm == null) return;
+            try {
+                if (sm.delegate instanceof PooledJschSessionManager pooled) {
+                    pooled.shutdown();
+                } else if (sm.delegate instanceof MultiplexingJschSessionManager multiplexing) {
+                    multiplexing.shutdown();
+                }
+            } catch (Exception e) {
+                log.debug("Failed to shut down SSH host context {}: {}", alias, e.toString());
+            }
+            observability.metrics().removeSessionGauges(alias);
+        }
+    }
+
+    private static int toMillis(Duration d) {
+        return d != null ? Math.toIntExact(d.toMillis()) : 0;
+    }
+
+    /**
+     * Counts callers holding the context, executions and leases in flight and records the last use, so eviction
+     * never shuts down a session manager that is still working or about to be.
+     */
+    private static final class TrackingSessionManager implements JschSessionManager {
+        private final JschSessionManager delegate;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private TrackingSessionManager(JschSessionManager delegate) {
+            this.delegate = delegate;
+        }
+
+        private void touch() {
+            lastUsedNanos = System.nanoTime();
+        }
+
+        private void begin() {
+            inFlight.incrementAndGet();
+            touch();
+        }
+
+        private void end() {
+            touch();
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public <T> T execute(SessionCallback<T> callback) throws Exception {
+            begin();
+            try {
+                return delegate.execute(callback);
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public SessionLease lease() throws Exception {
+            begin();
+            SessionLease lease;
+            try {
+                lease = delegate.lease();
+            } catch (Throwable e) {
+                end();
+                throw e;
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            return new SessionLease() {
+                @Override
+                public Session session() {
+                    return lease.session();
+                }
+
+                @Override
+                public void close() {
+                    if (released.compareAndSet(false, true)) {
+                        try {
+                            lease.close();
+                        } finally {
+                            end();
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isValid(Session session) {
+            return delegate.isValid(session);
+        }
+
+        @Override
+        public void close(Session session) {
+            delegate.close(session);
+        }
+
+        @Override
+        public void invalidate(String hostKey) {
+            delegate.invalidate(hostKey);
+        }
+
+        @Override
+        public void invalidateAll() {
+            delegate.invalidateAll();
+        }
+
+        @Override
+        public void addSessionCloseListener(SessionCloseListener listener) {
+            delegate.addSessionCloseListener(listener);
+        }
+    }
+
+    /**
+     * One daemon thread runs the eviction of every registry; created on first use.
+     */
+    private static final class Evictor {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "jsch-host-context-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
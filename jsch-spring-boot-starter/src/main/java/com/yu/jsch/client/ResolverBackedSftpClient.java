@@ -3,13 +3,24 @@ package com.yu.jsch.client;
 import com.yu.jsch.SftpTemplate;
 import com.yu.jsch.host.HostConfig;
 import com.yu.jsch.host.HostResolver;
+import com.yu.jsch.sftp.BulkReadOptions;
+import com.yu.jsch.sftp.SftpBatch;
 import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.SftpContentHandler;
+import com.yu.jsch.sftp.SftpEntryVisitor;
 import com.yu.jsch.sftp.SftpFileInfo;
+import com.yu.jsch.sftp.SftpOpResult;
+import com.yu.jsch.sftp.SftpWalkVisitor;
 import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.sftp.WalkOptions;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * SftpClient implementation that resolves HostConfig on each call via HostResolver,
@@ -49,6 +60,17 @@ public class ResolverBackedSftpClient implements SftpClient {
         template.delete(cfg, path, cfg.getConnectTimeoutMillis());
     }
 
+    @Override
+    public void rmdir(String path) throws SftpClientException {
+        rmdir(resolveDefaultAlias(), path);
+    }
+
+    @Override
+    public void rmdir(String hostAlias, String path) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        template.rmdir(cfg, path, cfg.getConnectTimeoutMillis());
+    }
+
     @Override
     public void rename(String from, String to, boolean overwrite) throws SftpClientException {
         rename(resolveDefaultAlias(), from, to, overwrite);
@@ -60,6 +82,30 @@ public class ResolverBackedSftpClient implements SftpClient {
         template.rename(cfg, from, to, overwrite, cfg.getConnectTimeoutMillis());
     }
 
+    @Override
+    public List<SftpOpResult> batch(Consumer<SftpBatch> ops) throws SftpClientException {
+        return batch(resolveDefaultAlias(), ops);
+    }
+
+    @Override
+    public List<SftpOpResult> batch(String hostAlias, Consumer<SftpBatch> ops) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        return template.batch(cfg, ops, cfg.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public List<SftpOpResult> readFiles(List<String> remotePaths, BulkReadOptions options, SftpContentHandler handler)
+            throws SftpClientException {
+        return readFiles(resolveDefaultAlias(), remotePaths, options, handler);
+    }
+
+    @Override
+    public List<SftpOpResult> readFiles(String hostAlias, List<String> remotePaths, BulkReadOptions options,
+                                        SftpContentHandler handler) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        return template.readFiles(cfg, remotePaths, options, handler, cfg.getConnectTimeoutMillis());
+    }
+
     @Override
     public List<SftpFileInfo> list(String path) throws SftpClientException {
         return list(resolveDefaultAlias(), path);
@@ -71,6 +117,50 @@ public class ResolverBackedSftpClient implements SftpClient {
         return template.list(cfg, path, cfg.getConnectTimeoutMillis());
     }
 
+    @Override
+    public List<SftpFileInfo> list(String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException {
+        return list(resolveDefaultAlias(), path, filter, limit);
+    }
+
+    @Override
+    public List<SftpFileInfo> list(String hostAlias, String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        return template.list(cfg, path, filter, limit, cfg.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public void forEachEntry(String path, SftpEntryVisitor visitor) throws SftpClientException {
+        forEachEntry(resolveDefaultAlias(), path, visitor);
+    }
+
+    @Override
+    public void forEachEntry(String hostAlias, String path, SftpEntryVisitor visitor) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        template.forEachEntry(cfg, path, visitor, cfg.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public void walk(String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException {
+        walk(resolveDefaultAlias(), root, options, visitor);
+    }
+
+    @Override
+    public void walk(String hostAlias, String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        template.walk(cfg, root, options, visitor, cfg.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public Map<String, SftpFileInfo> find(String root, WalkOptions options) throws SftpClientException {
+        return find(resolveDefaultAlias(), root, options);
+    }
+
+    @Override
+    public Map<String, SftpFileInfo> find(String hostAlias, String root, WalkOptions options) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        return template.find(cfg, root, options, cfg.getConnectTimeoutMillis());
+    }
+
     @Override
     public void upload(byte[] data, String remotePath, TransferOptions options) throws SftpClientException {
         upload(resolveDefaultAlias(), data, remotePath, options);
@@ -93,6 +183,17 @@ public class ResolverBackedSftpClient implements SftpClient {
         template.upload(cfg, in, remotePath, options);
     }
 
+    @Override
+    public void upload(Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        upload(resolveDefaultAlias(), localFile, remotePath, options);
+    }
+
+    @Override
+    public void upload(String hostAlias, Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        template.upload(cfg, localFile, remotePath, options);
+    }
+
     @Override
     public byte[] download(String remotePath) throws SftpClientException {
         return download(resolveDefaultAlias(), remotePath);
@@ -104,6 +205,39 @@ public class ResolverBackedSftpClient implements SftpClient {
         return template.download(cfg, remotePath, cfg.getConnectTimeoutMillis());
     }
 
+    @Override
+    public byte[] download(String remotePath, TransferOptions options) throws SftpClientException {
+        return download(resolveDefaultAlias(), remotePath, options);
+    }
+
+    @Override
+    public byte[] download(String hostAlias, String remotePath, TransferOptions options) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        return template.download(cfg, remotePath, options);
+    }
+
+    @Override
+    public InputStream openInputStream(String remotePath) throws SftpClientException {
+        return openInputStream(resolveDefaultAlias(), remotePath);
+    }
+
+    @Override
+    public InputStream openInputStream(String hostAlias, String remotePath) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        return template.openInputStream(cfg, remotePath, cfg.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public void download(String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        download(resolveDefaultAlias(), remotePath, localFile, options);
+    }
+
+    @Override
+    public void download(String hostAlias, String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        HostConfig cfg = resolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        template.download(cfg, remotePath, localFile, options);
+    }
+
     @Override
     public void upload(HostConfig hostConfig, byte[] data, String remotePath, TransferOptions options) throws SftpClientException {
         Objects.requireNonNull(hostConfig, "hostConfig");
@@ -116,24 +250,91 @@ public class ResolverBackedSftpClient implements SftpClient {
         template.upload(hostConfig, in, remotePath, options);
     }
 
+    @Override
+    public void upload(HostConfig hostConfig, Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        template.upload(hostConfig, localFile, remotePath, options);
+    }
+
     @Override
     public byte[] download(HostConfig hostConfig, String remotePath) throws SftpClientException {
         Objects.requireNonNull(hostConfig, "hostConfig");
         return template.download(hostConfig, remotePath, hostConfig.getConnectTimeoutMillis());
     }
 
+    @Override
+    public byte[] download(HostConfig hostConfig, String remotePath, TransferOptions options) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return template.download(hostConfig, remotePath, options);
+    }
+
+    @Override
+    public InputStream openInputStream(HostConfig hostConfig, String remotePath) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return template.openInputStream(hostConfig, remotePath, hostConfig.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public void download(HostConfig hostConfig, String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        template.download(hostConfig, remotePath, localFile, options);
+    }
+
     @Override
     public List<SftpFileInfo> list(HostConfig hostConfig, String path) throws SftpClientException {
         Objects.requireNonNull(hostConfig, "hostConfig");
         return template.list(hostConfig, path, hostConfig.getConnectTimeoutMillis());
     }
 
+    @Override
+    public List<SftpFileInfo> list(HostConfig hostConfig, String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return template.list(hostConfig, path, filter, limit, hostConfig.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public void forEachEntry(HostConfig hostConfig, String path, SftpEntryVisitor visitor) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        template.forEachEntry(hostConfig, path, visitor, hostConfig.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public void walk(HostConfig hostConfig, String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        template.walk(hostConfig, root, options, visitor, hostConfig.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public Map<String, SftpFileInfo> find(HostConfig hostConfig, String root, WalkOptions options) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return template.find(hostConfig, root, options, hostConfig.getConnectTimeoutMillis());
+    }
+
     @Override
     public void delete(HostConfig hostConfig, String path) throws SftpClientException {
         Objects.requireNonNull(hostConfig, "hostConfig");
         template.delete(hostConfig, path, hostConfig.getConnectTimeoutMillis());
     }
 
+    @Override
+    public void rmdir(HostConfig hostConfig, String path) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        template.rmdir(hostConfig, path, hostConfig.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public List<SftpOpResult> batch(HostConfig hostConfig, Consumer<SftpBatch> ops) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return template.batch(hostConfig, ops, hostConfig.getConnectTimeoutMillis());
+    }
+
+    @Override
+    public List<SftpOpResult> readFiles(HostConfig hostConfig, List<String> remotePaths, BulkReadOptions options,
+                                        SftpContentHandler handler) throws SftpClientException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        return template.readFiles(hostConfig, remotePaths, options, handler, hostConfig.getConnectTimeoutMillis());
+    }
+
     private String resolveDefaultAlias() {
         if (defaultHostAlias == null) {
             throw new IllegalStateException("Multiple hosts configured; specify host alias explicitly or set a default");
@@ -1,6 +1,7 @@
 package com.yu.jsch.client;
 
 import com.yu.jsch.SshTemplate;
+import com.yu.jsch.exec.ExecOutputHandler;
 import com.yu.jsch.exec.ExecResult;
 import com.yu.jsch.exec.SshCommandRequest;
 import com.yu.jsch.exec.SshExecutionException;
@@ -72,6 +73,37 @@ public class ResolverBackedSshClient implements SshClient {
         }
     }
 
+    @Override
+    public ExecResult execStreaming(SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        return execStreaming(resolveDefaultAlias(), request, handler);
+    }
+
+    @Override
+    public ExecResult execStreaming(String hostAlias, SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        Objects.requireNonNull(request, "request");
+        HostConfig cfg = hostResolver.resolve(hostAlias).orElseThrow(() -> new HostNotFoundException(hostAlias));
+        SshCommandRequest reqToUse = ensureConnectTimeout(request, cfg.getConnectTimeoutMillis());
+        try {
+            return template.executeStreaming(cfg, reqToUse, handler);
+        } catch (Exception ex) {
+            String msg = ex.getMessage() != null ? ex.getMessage() : "SSH execution failed";
+            throw new SshExecutionException(msg, hostAlias, request.getCommand(), ex);
+        }
+    }
+
+    @Override
+    public ExecResult execStreaming(HostConfig hostConfig, SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        Objects.requireNonNull(hostConfig, "hostConfig");
+        Objects.requireNonNull(request, "request");
+        SshCommandRequest reqToUse = ensureConnectTimeout(request, hostConfig.getConnectTimeoutMillis());
+        try {
+            return template.executeStreaming(hostConfig, reqToUse, handler);
+        } catch (Exception ex) {
+            String msg = ex.getMessage() != null ? ex.getMessage() : "SSH execution failed";
+            throw new SshExecutionException(msg, hostConfig.stableKey(), request.getCommand(), ex);
+        }
+    }
+
     private String resolveDefaultAlias() {
         if (defaultHostAlias == null) {
             throw new IllegalStateException("Multiple hosts configured; specify host alias explicitly or set a default");
@@ -81,14 +113,6 @@ public class ResolverBackedSshClient implements SshClient {
 
     private static SshCommandRequest ensureConnectTimeout(SshCommandRequest request, int connectTimeout) {
         if (request.getConnectTimeoutMillis() > 0) return request;
-        SshCommandRequest.Builder b = SshCommandRequest.builder(request.getCommand())
-                .environment(request.getEnvironment())
-                .pty(request.isPty())
-                .ptyType(request.getPtyType())
-                .charset(request.getCharset())
-                .connectTimeoutMillis(connectTimeout)
-                .executionTimeout(request.getExecutionTimeout())
-                .idempotent(request.isIdempotent());
-        return b.build();
+        return request.toBuilder().connectTimeoutMillis(connectTimeout).build();
     }
 }
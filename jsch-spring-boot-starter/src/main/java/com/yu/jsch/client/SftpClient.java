@@ -1,12 +1,23 @@
 package com.yu.jsch.client;
 
 import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.sftp.BulkReadOptions;
+import com.yu.jsch.sftp.SftpBatch;
 import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.SftpContentHandler;
+import com.yu.jsch.sftp.SftpEntryVisitor;
 import com.yu.jsch.sftp.SftpFileInfo;
+import com.yu.jsch.sftp.SftpOpResult;
+import com.yu.jsch.sftp.SftpWalkVisitor;
 import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.sftp.WalkOptions;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * High-level SFTP client facade that handles host selection, retries, and exception translation.
@@ -21,14 +32,73 @@ public interface SftpClient {
 
     void delete(String hostAlias, String path) throws SftpClientException;
 
+    /**
+     * Remove an empty directory.
+     */
+    void rmdir(String path) throws SftpClientException;
+
+    void rmdir(String hostAlias, String path) throws SftpClientException;
+
     void rename(String from, String to, boolean overwrite) throws SftpClientException;
 
     void rename(String hostAlias, String from, String to, boolean overwrite) throws SftpClientException;
 
+    /**
+     * Run the operations recorded by {@code ops} in order over one session/channel, e.g.
+     * {@code batch(b -> files.forEach(b::delete))}. Per-operation failures are reported in the results rather than
+     * thrown.
+     *
+     * @return one result per recorded operation, in recording order
+     */
+    List<SftpOpResult> batch(Consumer<SftpBatch> ops) throws SftpClientException;
+
+    List<SftpOpResult> batch(String hostAlias, Consumer<SftpBatch> ops) throws SftpClientException;
+
+    /**
+     * Read many small files with their requests pipelined over one channel, handing each file's content to the
+     * handler as soon as it was read. Files that cannot be read are reported in the results rather than thrown.
+     *
+     * @return one result per path, in the order of {@code remotePaths}
+     */
+    List<SftpOpResult> readFiles(List<String> remotePaths, BulkReadOptions options, SftpContentHandler handler)
+            throws SftpClientException;
+
+    List<SftpOpResult> readFiles(String hostAlias, List<String> remotePaths, BulkReadOptions options, SftpContentHandler handler)
+            throws SftpClientException;
+
     List<SftpFileInfo> list(String path) throws SftpClientException;
 
     List<SftpFileInfo> list(String hostAlias, String path) throws SftpClientException;
 
+    /**
+     * List the entries accepted by {@code filter}, stopping after {@code limit} matches (zero or negative for no
+     * limit); rejected entries are dropped while the listing is read.
+     */
+    List<SftpFileInfo> list(String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException;
+
+    List<SftpFileInfo> list(String hostAlias, String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException;
+
+    /**
+     * Stream the entries of a directory to the visitor without retaining the listing; the visitor returns false to stop.
+     */
+    void forEachEntry(String path, SftpEntryVisitor visitor) throws SftpClientException;
+
+    void forEachEntry(String hostAlias, String path, SftpEntryVisitor visitor) throws SftpClientException;
+
+    /**
+     * Recursively visit the tree below {@code root}, listing directories concurrently over pooled channels.
+     */
+    void walk(String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException;
+
+    void walk(String hostAlias, String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException;
+
+    /**
+     * Recursively collect the entries below {@code root} keyed by remote path.
+     */
+    Map<String, SftpFileInfo> find(String root, WalkOptions options) throws SftpClientException;
+
+    Map<String, SftpFileInfo> find(String hostAlias, String root, WalkOptions options) throws SftpClientException;
+
     void upload(byte[] data, String remotePath, TransferOptions options) throws SftpClientException;
 
     void upload(String hostAlias, byte[] data, String remotePath, TransferOptions options) throws SftpClientException;
@@ -37,10 +107,39 @@ public interface SftpClient {
 
     void upload(String hostAlias, InputStream in, String remotePath, TransferOptions options) throws SftpClientException;
 
+    /**
+     * Upload a local file; set {@link TransferOptions#getParallelism()} above 1 to write ranges concurrently.
+     */
+    void upload(Path localFile, String remotePath, TransferOptions options) throws SftpClientException;
+
+    void upload(String hostAlias, Path localFile, String remotePath, TransferOptions options) throws SftpClientException;
+
     byte[] download(String remotePath) throws SftpClientException;
 
     byte[] download(String hostAlias, String remotePath) throws SftpClientException;
 
+    /**
+     * Download into an exactly sized array, refusing files above {@link TransferOptions#getMaxInMemoryBytes()}
+     * with {@link com.yu.jsch.sftp.SftpFileTooLargeException} before reading them.
+     */
+    byte[] download(String remotePath, TransferOptions options) throws SftpClientException;
+
+    byte[] download(String hostAlias, String remotePath, TransferOptions options) throws SftpClientException;
+
+    /**
+     * Open a remote file as a stream; its channel and session stay leased until the stream is closed.
+     */
+    InputStream openInputStream(String remotePath) throws SftpClientException;
+
+    InputStream openInputStream(String hostAlias, String remotePath) throws SftpClientException;
+
+    /**
+     * Download into a local file; set {@link TransferOptions#getParallelism()} above 1 to fetch ranges concurrently.
+     */
+    void download(String remotePath, Path localFile, TransferOptions options) throws SftpClientException;
+
+    void download(String hostAlias, String remotePath, Path localFile, TransferOptions options) throws SftpClientException;
+
     // HostConfig direct variants
     default void upload(HostConfig hostConfig, byte[] data, String remotePath, TransferOptions options) throws SftpClientException {
         throw new UnsupportedOperationException("Direct HostConfig upload not supported by this implementation");
@@ -50,15 +149,60 @@ public interface SftpClient {
         throw new UnsupportedOperationException("Direct HostConfig upload not supported by this implementation");
     }
 
+    default void upload(HostConfig hostConfig, Path localFile, String remotePath, TransferOptions options) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig upload not supported by this implementation");
+    }
+
     default byte[] download(HostConfig hostConfig, String remotePath) throws SftpClientException {
         throw new UnsupportedOperationException("Direct HostConfig download not supported by this implementation");
     }
 
+    default byte[] download(HostConfig hostConfig, String remotePath, TransferOptions options) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig download not supported by this implementation");
+    }
+
+    default InputStream openInputStream(HostConfig hostConfig, String remotePath) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig download not supported by this implementation");
+    }
+
+    default void download(HostConfig hostConfig, String remotePath, Path localFile, TransferOptions options) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig download not supported by this implementation");
+    }
+
     default List<SftpFileInfo> list(HostConfig hostConfig, String path) throws SftpClientException {
         throw new UnsupportedOperationException("Direct HostConfig list not supported by this implementation");
     }
 
+    default List<SftpFileInfo> list(HostConfig hostConfig, String path, Predicate<SftpFileInfo> filter, int limit) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig list not supported by this implementation");
+    }
+
+    default void forEachEntry(HostConfig hostConfig, String path, SftpEntryVisitor visitor) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig list not supported by this implementation");
+    }
+
+    default void walk(HostConfig hostConfig, String root, WalkOptions options, SftpWalkVisitor visitor) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig walk not supported by this implementation");
+    }
+
+    default Map<String, SftpFileInfo> find(HostConfig hostConfig, String root, WalkOptions options) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig walk not supported by this implementation");
+    }
+
     default void delete(HostConfig hostConfig, String path) throws SftpClientException {
         throw new UnsupportedOperationException("Direct HostConfig delete not supported by this implementation");
     }
+
+    default void rmdir(HostConfig hostConfig, String path) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig rmdir not supported by this implementation");
+    }
+
+    default List<SftpOpResult> batch(HostConfig hostConfig, Consumer<SftpBatch> ops) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig batch not supported by this implementation");
+    }
+
+    default List<SftpOpResult> readFiles(HostConfig hostConfig, List<String> remotePaths, BulkReadOptions options,
+                                         SftpContentHandler handler) throws SftpClientException {
+        throw new UnsupportedOperationException("Direct HostConfig readFiles not supported by this implementation");
+    }
 }
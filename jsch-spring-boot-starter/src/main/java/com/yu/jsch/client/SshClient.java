@@ -1,5 +1,6 @@
 package com.yu.jsch.client;
 
+import com.yu.jsch.exec.ExecOutputHandler;
 import com.yu.jsch.exec.ExecResult;
 import com.yu.jsch.exec.SshCommandRequest;
 import com.yu.jsch.exec.SshExecutionException;
@@ -31,4 +32,26 @@ public interface SshClient {
     default ExecResult exec(HostConfig hostConfig, SshCommandRequest request) throws SshExecutionException {
         throw new UnsupportedOperationException("Direct HostConfig execution not supported by this implementation");
     }
+
+    /**
+     * Execute a command on the default host, delivering output incrementally to the handler.
+     * The returned result carries exit code and timing with empty stdout/stderr.
+     */
+    default ExecResult execStreaming(SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        throw new UnsupportedOperationException("Streaming execution not supported by this implementation");
+    }
+
+    /**
+     * Execute a command on the given host, delivering output incrementally to the handler.
+     */
+    default ExecResult execStreaming(String hostAlias, SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        throw new UnsupportedOperationException("Streaming execution not supported by this implementation");
+    }
+
+    /**
+     * Streaming execution with a HostConfig, bypassing host alias resolution.
+     */
+    default ExecResult execStreaming(HostConfig hostConfig, SshCommandRequest request, ExecOutputHandler handler) throws SshExecutionException {
+        throw new UnsupportedOperationException("Direct HostConfig execution not supported by this implementation");
+    }
 }
@@ -0,0 +1,46 @@
+package com.yu.jsch.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * In-memory sink for command output that keeps at most {@code maxBytes} bytes.
+ * Bytes past the cap are counted and discarded so the remote stream can keep being drained.
+ */
+public final class CappedOutputBuffer implements ExecStreamDrainer.StreamSink {
+
+    private final long maxBytes;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private long totalBytes;
+
+    /**
+     * @param maxBytes maximum bytes retained; zero or negative means unlimited
+     */
+    public CappedOutputBuffer(long maxBytes) {
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        long room = maxBytes - buffer.size();
+        if (room > 0) {
+            buffer.write(b, off, (int) Math.min(room, len));
+        }
+        totalBytes += len;
+    }
+
+    public boolean isTruncated() {
+        return totalBytes > buffer.size();
+    }
+
+    /**
+     * Total number of bytes produced by the stream, including discarded ones.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public String toString(Charset charset) {
+        return buffer.toString(charset);
+    }
+}
@@ -0,0 +1,102 @@
+package com.yu.jsch.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Receives command output incrementally while a command runs.
+ * <p>
+ * Calls are serialized: the handler never sees two callbacks at the same time, although stdout and stderr
+ * callbacks may arrive on different threads. Callbacks run on the threads reading from the channel, so a slow
+ * handler stops reading and applies backpressure to the remote command through the SSH channel window.
+ * Because JSch delivers channel data on the session's I/O thread, a stalled handler also stalls other channels
+ * sharing the same session.
+ */
+public interface ExecOutputHandler {
+
+    void onStdout(byte[] b, int off, int len) throws IOException;
+
+    default void onStderr(byte[] b, int off, int len) throws IOException {
+    }
+
+    /**
+     * Called once after both streams reached EOF (or the command timed out), before the result is returned.
+     */
+    default void onFinish() throws IOException {
+    }
+
+    /**
+     * Handler that decodes output into lines (without the trailing line separator) using the given charset.
+     * Either consumer may be null to ignore that stream.
+     */
+    static ExecOutputHandler lines(Charset charset, Consumer<String> stdoutLines, Consumer<String> stderrLines) {
+        Objects.requireNonNull(charset, "charset");
+        LineSplitter out = new LineSplitter(charset, stdoutLines);
+        LineSplitter err = new LineSplitter(charset, stderrLines);
+        return new ExecOutputHandler() {
+            @Override
+            public void onStdout(byte[] b, int off, int len) {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void onStderr(byte[] b, int off, int len) {
+                err.write(b, off, len);
+            }
+
+            @Override
+            public void onFinish() {
+                out.flush();
+                err.flush();
+            }
+        };
+    }
+
+    /**
+     * Splits a byte stream on '\n', which is safe for ASCII-compatible charsets including UTF-8.
+     */
+    final class LineSplitter {
+        private final Charset charset;
+        private final Consumer<String> consumer;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        LineSplitter(Charset charset, Consumer<String> consumer) {
+            this.charset = charset;
+            this.consumer = consumer;
+        }
+
+        void write(byte[] b, int off, int len) {
+            if (consumer == null) return;
+            int lineStart = off;
+            int end = off + len;
+            for (int i = off; i < end; i++) {
+                if (b[i] == '\n') {
+                    pending.write(b, lineStart, i - lineStart);
+                    emit();
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < end) {
+                pending.write(b, lineStart, end - lineStart);
+            }
+        }
+
+        void flush() {
+            if (consumer != null && pending.size() > 0) {
+                emit();
+            }
+        }
+
+        private void emit() {
+            String line = pending.toString(charset);
+            pending.reset();
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            consumer.accept(line);
+        }
+    }
+}
@@ -21,6 +21,8 @@ public final class ExecResult {
     private final boolean pty;
     private final Charset charset;
     private final int attempts;
+    private final boolean stdoutTruncated;
+    private final boolean stderrTruncated;
 
     private ExecResult(Builder b) {
         this.stdout = b.stdout;
@@ -34,6 +36,8 @@ public final class ExecResult {
         this.pty = b.pty;
         this.charset = b.charset;
         this.attempts = b.attempts;
+        this.stdoutTruncated = b.stdoutTruncated;
+        this.stderrTruncated = b.stderrTruncated;
     }
 
     public String getStdout() {
@@ -84,6 +88,20 @@ public final class ExecResult {
         return attempts;
     }
 
+    /**
+     * Whether stdout exceeded the request's output cap and was cut off.
+     */
+    public boolean isStdoutTruncated() {
+        return stdoutTruncated;
+    }
+
+    /**
+     * Whether stderr exceeded the request's output cap and was cut off.
+     */
+    public boolean isStderrTruncated() {
+        return stderrTruncated;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -100,6 +118,8 @@ public final class ExecResult {
         private boolean pty;
         private Charset charset;
         private int attempts = 1;
+        private boolean stdoutTruncated;
+        private boolean stderrTruncated;
 
         public Builder stdout(String stdout) {
             this.stdout = stdout;
@@ -156,6 +176,16 @@ public final class ExecResult {
             return this;
         }
 
+        public Builder stdoutTruncated(boolean stdoutTruncated) {
+            this.stdoutTruncated = stdoutTruncated;
+            return this;
+        }
+
+        public Builder stderrTruncated(boolean stderrTruncated) {
+            this.stderrTruncated = stderrTruncated;
+            return this;
+        }
+
         public ExecResult build() {
             return new ExecResult(this);
         }
@@ -0,0 +1,179 @@
+package com.yu.jsch.exec;
+
+import com.jcraft.jsch.ChannelExec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains stdout and stderr of a connected exec channel while the command runs.
+ * <p>
+ * stdout is read on the calling thread and stderr on a shared daemon pump thread, so a command producing more
+ * output than JSch's pipe buffer on either stream never stalls the session. The execution timeout is enforced by
+ * a watchdog that disconnects the channel, which unblocks both readers; completion is detected from stream EOF and
+ * the exit-status message rather than by polling {@code isClosed()} with fixed sleeps.
+ */
+public final class ExecStreamDrainer {
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final ExecutorService PUMPS = Executors.newCachedThreadPool(daemonThreads("jsch-exec-pump"));
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(daemonThreads("jsch-exec-watchdog"));
+
+    private ExecStreamDrainer() {
+    }
+
+    /**
+     * Receiver of raw output bytes. Invoked from the draining threads; a slow sink slows down reading from the channel.
+     */
+    @FunctionalInterface
+    public interface StreamSink {
+        void write(byte[] b, int off, int len) throws IOException;
+    }
+
+    /**
+     * Drain both streams into the given sinks until the remote side closes them or the timeout elapses,
+     * then wait for the exit status.
+     *
+     * @return true if the execution timed out and the channel was disconnected
+     */
+    public static boolean drain(ChannelExec channel, InputStream stdout, InputStream stderr,
+                                StreamSink stdoutSink, StreamSink stderrSink, Duration timeout)
+            throws IOException, InterruptedException {
+        long deadline = timeout != null ? System.nanoTime() + timeout.toNanos() : Long.MAX_VALUE;
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        ScheduledFuture<?> watchdog = null;
+        if (timeout != null) {
+            watchdog = WATCHDOG.schedule(() -> {
+                timedOut.set(true);
+                disconnectQuietly(channel);
+            }, Math.max(0L, timeout.toNanos()), TimeUnit.NANOSECONDS);
+        }
+        Future<?> errPump = PUMPS.submit(() -> {
+            pump(stderr, stderrSink);
+            return null;
+        });
+        try {
+            pump(stdout, stdoutSink);
+            awaitPump(errPump, channel, deadline, timedOut);
+            awaitExitStatus(channel, deadline, timedOut);
+        } catch (IOException ex) {
+            // A disconnect by the watchdog surfaces as a broken pipe on either reader
+            if (!timedOut.get()) throw ex;
+        } finally {
+            if (watchdog != null) watchdog.cancel(false);
+            if (!errPump.isDone()) {
+                disconnectQuietly(channel);
+                errPump.cancel(true);
+            }
+        }
+        return timedOut.get();
+    }
+
+    /**
+     * Copy a stream into the sink until EOF.
+     */
+    public static void readFully(InputStream in, StreamSink sink) throws IOException {
+        pump(in, sink);
+    }
+
+    /**
+     * Wait until the channel is closed, or disconnect it once the timeout elapses.
+     *
+     * @return true if the timeout elapsed and the channel was disconnected
+     */
+    public static boolean awaitClose(ChannelExec channel, Duration timeout) throws InterruptedException {
+        long deadline = timeout != null ? System.nanoTime() + timeout.toNanos() : Long.MAX_VALUE;
+        long park = MIN_PARK_NANOS;
+        while (!channel.isClosed()) {
+            if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+                disconnectQuietly(channel);
+                return true;
+            }
+            LockSupport.parkNanos(park);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for channel close");
+            }
+            park = Math.min(MAX_PARK_NANOS, park << 1);
+        }
+        return false;
+    }
+
+    private static void pump(InputStream in, StreamSink sink) throws IOException {
+        byte[] buf = new byte[8192];
+        int r;
+        while ((r = in.read(buf)) != -1) {
+            if (r > 0) sink.write(buf, 0, r);
+        }
+    }
+
+    private static void awaitPump(Future<?> pump, ChannelExec channel, long deadline, AtomicBoolean timedOut)
+            throws IOException, InterruptedException {
+        try {
+            long remaining = deadline - System.nanoTime();
+            if (deadline == Long.MAX_VALUE) {
+                pump.get();
+            } else {
+                pump.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException te) {
+            timedOut.set(true);
+            disconnectQuietly(channel);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException ioe) throw ioe;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Both streams are at EOF; the exit-status message precedes channel close, so this normally returns immediately.
+     * Short exponential parking covers the small window between the two packets.
+     */
+    private static void awaitExitStatus(ChannelExec channel, long deadline, AtomicBoolean timedOut) throws InterruptedException {
+        long park = MIN_PARK_NANOS;
+        while (channel.getExitStatus() == -1 && !channel.isClosed()) {
+            if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+                timedOut.set(true);
+                disconnectQuietly(channel);
+                return;
+            }
+            LockSupport.parkNanos(park);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for exit status");
+            }
+            park = Math.min(MAX_PARK_NANOS, park << 1);
+        }
+    }
+
+    private static void disconnectQuietly(ChannelExec channel) {
+        try {
+            channel.disconnect();
+        } catch (Throwable ignore) {
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
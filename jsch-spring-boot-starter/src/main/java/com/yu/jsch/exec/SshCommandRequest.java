@@ -33,6 +33,11 @@ public final class SshCommandRequest {
      */
     private final boolean idempotent;
 
+    /**
+     * Maximum bytes of stdout and of stderr retained in memory. Zero or negative means unlimited.
+     */
+    private final long maxOutputBytes;
+
     private SshCommandRequest(Builder b) {
         this.command = Objects.requireNonNull(b.command, "command");
         this.environment = Collections.unmodifiableMap(new LinkedHashMap<>(b.environment));
@@ -42,6 +47,7 @@ public final class SshCommandRequest {
         this.connectTimeoutMillis = b.connectTimeoutMillis;
         this.executionTimeout = b.executionTimeout;
         this.idempotent = b.idempotent;
+        this.maxOutputBytes = b.maxOutputBytes;
     }
 
     public String getCommand() {
@@ -76,6 +82,25 @@ public final class SshCommandRequest {
         return idempotent;
     }
 
+    public long getMaxOutputBytes() {
+        return maxOutputBytes;
+    }
+
+    /**
+     * Create a builder pre-populated with this request's settings.
+     */
+    public Builder toBuilder() {
+        return new Builder(command)
+                .environment(environment)
+                .pty(pty)
+                .ptyType(ptyType)
+                .charset(charset)
+                .connectTimeoutMillis(connectTimeoutMillis)
+                .executionTimeout(executionTimeout)
+                .idempotent(idempotent)
+                .maxOutputBytes(maxOutputBytes);
+    }
+
     public static Builder builder(String command) {
         return new Builder(command);
     }
@@ -89,6 +114,7 @@ public final class SshCommandRequest {
         private int connectTimeoutMillis = 0;
         private Duration executionTimeout = null;
         private boolean idempotent = true;
+        private long maxOutputBytes = 0L;
 
         public Builder(String command) {
             this.command = Objects.requireNonNull(command, "command");
@@ -134,6 +160,11 @@ public final class SshCommandRequest {
             return this;
         }
 
+        public Builder maxOutputBytes(long maxOutputBytes) {
+            this.maxOutputBytes = maxOutputBytes;
+            return this;
+        }
+
         public SshCommandRequest build() {
             return new SshCommandRequest(this);
         }
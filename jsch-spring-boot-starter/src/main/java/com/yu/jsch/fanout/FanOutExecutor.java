@@ -0,0 +1,342 @@
+package com.yu.jsch.fanout;
+
+import com.yu.jsch.client.AsyncSupport;
+import com.yu.jsch.client.SshClient;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import com.yu.jsch.exec.SshExecutionException;
+import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.host.HostResolver;
+import com.yu.jsch.observability.JschMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs the same command against many hosts in parallel through an SshClient.
+ * <p>
+ * Concurrency is bounded globally (across all fan-outs issued through this instance) and per host, so a large
+ * host list neither exhausts local resources nor opens more than max-per-host channels on a single server. The
+ * calling thread dispatches a host only once both limits admit it, so executor threads never wait on a limit.
+ * Aliases are resolved once, in parallel on the executor, and count against the host they resolve to; a resolved
+ * alias runs with its HostConfig so the client does not look it up again. Per-host results are handed to a listener
+ * as they complete; listener calls are serialized.
+ */
+public class FanOutExecutor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FanOutExecutor.class);
+
+    private final SshClient sshClient;
+    private final HostResolver hostResolver;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int maxPerHost;
+    private final Semaphore globalPermits;
+    /**
+     * Executions in flight per host key; hosts are dropped once idle. Notified whenever a host slot is released.
+     */
+    private final Map<String, Integer> hostInFlight = new HashMap<>();
+
+    /**
+     * @param executor       executor running the per-host tasks; null creates an owned default executor
+     *                       (virtual threads when available), shut down by {@link #close()}
+     * @param maxConcurrency maximum executions in flight across all hosts
+     * @param maxPerHost     maximum executions in flight against the same host alias
+     */
+    public FanOutExecutor(SshClient sshClient, Executor executor, int maxConcurrency, int maxPerHost) {
+        this(sshClient, null, executor, maxConcurrency, maxPerHost);
+    }
+
+    /**
+     * @param hostResolver resolves aliases so that the per-host limit applies to the real host (aliases sharing a
+     *                     host, port and user share its limit); null limits per alias
+     * @param maxPerHost   maximum executions in flight against the same host
+     */
+    public FanOutExecutor(SshClient sshClient, HostResolver hostResolver, Executor executor, int maxConcurrency,
+                          int maxPerHost) {
+        this.sshClient = Objects.requireNonNull(sshClient, "sshClient");
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be > 0");
+        if (maxPerHost <= 0) throw new IllegalArgumentException("maxPerHost must be > 0");
+        this.hostResolver = hostResolver;
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            this.ownedExecutor = AsyncSupport.defaultExecutor(true, maxConcurrency);
+            this.executor = ownedExecutor;
+        }
+        this.maxPerHost = maxPerHost;
+        this.globalPermits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Execute the request on every host alias and wait until all hosts completed.
+     *
+     * @param listener receives each host result as soon as it completes; may be null
+     */
+    public FanOutReport execute(Collection<String> hostAliases, SshCommandRequest request,
+                                Consumer<HostExecResult> listener) throws InterruptedException {
+        Objects.requireNonNull(hostAliases, "hostAliases");
+        Objects.requireNonNull(request, "request");
+        Map<String, HostConfig> resolved = resolveAll(hostAliases);
+        List<Target> targets = new ArrayList<>(hostAliases.size());
+        for (String alias : hostAliases) {
+            HostConfig cfg = resolved.get(alias);
+            if (cfg != null) {
+                targets.add(new Target(alias, cfg.stableKey(), () -> exec(alias, cfg, request)));
+            } else {
+                // Unresolved aliases are limited on their own and fail in the client
+                targets.add(new Target(alias, alias, () -> sshClient.exec(alias, request)));
+            }
+        }
+        return run(targets, listener);
+    }
+
+    /**
+     * Execute the request on every HostConfig, bypassing alias resolution. Results are keyed by {@link HostConfig#stableKey()}.
+     */
+    public FanOutReport executeOnHosts(Collection<HostConfig> hosts, SshCommandRequest request,
+                                       Consumer<HostExecResult> listener) throws InterruptedException {
+        Objects.requireNonNull(hosts, "hosts");
+        Objects.requireNonNull(request, "request");
+        List<Target> targets = new ArrayList<>(hosts.size());
+        for (HostConfig cfg : hosts) {
+            targets.add(new Target(cfg.stableKey(), cfg.stableKey(), () -> sshClient.exec(cfg, request)));
+        }
+        return run(targets, listener);
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolve each distinct alias once, in parallel on the executor, so a slow resolver costs one lookup latency
+     * rather than one per alias on the calling thread. Aliases that do not resolve are missing from the result.
+     */
+    private Map<String, HostConfig> resolveAll(Collection<String> hostAliases) throws InterruptedException {
+        if (hostResolver == null) return Map.of();
+        Map<String, CompletableFuture<HostConfig>> lookups = new LinkedHashMap<>();
+        for (String alias : hostAliases) {
+            if (alias == null || lookups.containsKey(alias)) continue;
+            CompletableFuture<HostConfig> lookup;
+            try {
+                lookup = CompletableFuture.supplyAsync(() -> resolve(alias), executor);
+            } catch (RejectedExecutionException ex) {
+                lookup = CompletableFuture.completedFuture(null);
+            }
+            lookups.put(alias, lookup);
+        }
+        Map<String, HostConfig> resolved = new HashMap<>();
+        try {
+            for (Map.Entry<String, CompletableFuture<HostConfig>> e : lookups.entrySet()) {
+                HostConfig cfg = e.getValue().get();
+                if (cfg != null) resolved.put(e.getKey(), cfg);
+            }
+        } catch (ExecutionException ex) {
+            // resolve() does not throw; only reachable if the executor fails the task itself
+            throw new IllegalStateException("SSH host resolution failed", ex.getCause());
+        } catch (InterruptedException ie) {
+            lookups.values().forEach(lookup -> lookup.cancel(true));
+            throw ie;
+        }
+        return resolved;
+    }
+
+    /**
+     * Config {@code alias} resolves to, or null when it does not resolve (its execution then fails on its own).
+     */
+    private HostConfig resolve(String alias) {
+        try {
+            return hostResolver.resolve(alias).orElse(null);
+        } catch (RuntimeException ex) {
+            log.debug("Could not resolve SSH host {} for fan-out: {}", alias, ex.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Execute on the already resolved config; clients without direct HostConfig execution resolve the alias again.
+     */
+    private ExecResult exec(String alias, HostConfig cfg, SshCommandRequest request) throws SshExecutionException {
+        try {
+            return sshClient.exec(cfg, request);
+        } catch (UnsupportedOperationException ex) {
+            return sshClient.exec(alias, request);
+        }
+    }
+
+    private FanOutReport run(List<Target> targets, Consumer<HostExecResult> listener) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        List<HostExecResult> completed = new ArrayList<>(targets.size());
+        CountDownLatch remaining = new CountDownLatch(targets.size());
+        // Pending targets grouped by host, so finding a dispatchable one costs one check per host
+        Map<String, Deque<Target>> pending = new LinkedHashMap<>();
+        for (Target target : targets) {
+            pending.computeIfAbsent(target.hostKey(), k -> new ArrayDeque<>()).add(target);
+        }
+        List<Dispatch> dispatched = new ArrayList<>(targets.size());
+        try {
+            while (!pending.isEmpty()) {
+                Target target = takeHostSlot(pending);
+                try {
+                    globalPermits.acquire();
+                } catch (InterruptedException ie) {
+                    releaseHostSlot(target.hostKey());
+                    throw ie;
+                }
+                Dispatch dispatch = new Dispatch(target, completed, listener, remaining);
+                dispatched.add(dispatch);
+                try {
+                    executor.execute(dispatch.task);
+                } catch (RejectedExecutionException ex) {
+                    publish(new HostExecResult(target.key(), HostExecResult.Outcome.FAILURE, null, ex, Duration.ZERO), completed, listener);
+                    dispatch.abandon();
+                }
+            }
+            remaining.await();
+        } catch (InterruptedException ie) {
+            for (Dispatch dispatch : dispatched) {
+                dispatch.abandon();
+                dispatch.task.cancel(true);
+            }
+            throw ie;
+        }
+        synchronized (completed) {
+            return new FanOutReport(completed, Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+    }
+
+    /**
+     * Remove and return a pending target whose host is below max-per-host, taking a slot on that host; waits for
+     * a slot to be released when every pending host is busy.
+     */
+    private Target takeHostSlot(Map<String, Deque<Target>> pending) throws InterruptedException {
+        synchronized (hostInFlight) {
+            while (true) {
+                for (Iterator<Map.Entry<String, Deque<Target>>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Deque<Target>> e = it.next();
+                    int inFlight = hostInFlight.getOrDefault(e.getKey(), 0);
+                    if (inFlight < maxPerHost) {
+                        hostInFlight.put(e.getKey(), inFlight + 1);
+                        Target target = e.getValue().poll();
+                        if (e.getValue().isEmpty()) it.remove();
+                        return target;
+                    }
+                }
+                hostInFlight.wait();
+            }
+        }
+    }
+
+    private void releaseHostSlot(String hostKey) {
+        synchronized (hostInFlight) {
+            hostInFlight.computeIfPresent(hostKey, (k, n) -> n > 1 ? n - 1 : null);
+            hostInFlight.notifyAll();
+        }
+    }
+
+    private HostExecResult runOne(Target target) {
+        long start = System.nanoTime();
+        try {
+            ExecResult res = target.call().call();
+            Duration latency = Duration.ofNanos(System.nanoTime() - start);
+            HostExecResult.Outcome outcome = res.isTimedOut() ? HostExecResult.Outcome.TIMEOUT
+                    : res.getExitCode() == 0 ? HostExecResult.Outcome.SUCCESS : HostExecResult.Outcome.FAILURE;
+            return new HostExecResult(target.key(), outcome, res, null, latency);
+        } catch (Exception ex) {
+            Duration latency = Duration.ofNanos(System.nanoTime() - start);
+            HostExecResult.Outcome outcome = isTimeout(ex) ? HostExecResult.Outcome.TIMEOUT : HostExecResult.Outcome.FAILURE;
+            return new HostExecResult(target.key(), outcome, null, ex, latency);
+        }
+    }
+
+    private static void publish(HostExecResult result, List<HostExecResult> completed, Consumer<HostExecResult> listener) {
+        synchronized (completed) {
+            completed.add(result);
+            if (listener == null) return;
+            try {
+                listener.accept(result);
+            } catch (RuntimeException ex) {
+                log.warn("Fan-out listener failed for {}", result.target(), ex);
+            }
+        }
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        return JschMetrics.OUTCOME_TIMEOUT.equals(JschMetrics.outcomeOf(ex));
+    }
+
+    /**
+     * @param key     result key: the alias, or the HostConfig stable key
+     * @param hostKey key the per-host limit is counted under
+     */
+    private record Target(String key, String hostKey, Callable<ExecResult> call) {
+    }
+
+    /**
+     * A target holding a host slot and a global permit. Whichever runs first, the task or {@link #abandon()},
+     * releases them, so a task cancelled before it started does not leak its permits.
+     */
+    private final class Dispatch {
+        private final Target target;
+        private final List<HostExecResult> completed;
+        private final Consumer<HostExecResult> listener;
+        private final CountDownLatch remaining;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final FutureTask<Void> task = new FutureTask<>(this::run, null);
+
+        Dispatch(Target target, List<HostExecResult> completed, Consumer<HostExecResult> listener, CountDownLatch remaining) {
+            this.target = target;
+            this.completed = completed;
+            this.listener = listener;
+            this.remaining = remaining;
+        }
+
+        private void run() {
+            if (!claimed.compareAndSet(false, true)) return;
+            try {
+                publish(runOne(target), completed, listener);
+            } finally {
+                finish();
+            }
+        }
+
+        void abandon() {
+            if (claimed.compareAndSet(false, true)) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            globalPermits.release();
+            releaseHostSlot(target.hostKey());
+            remaining.countDown();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.yu.jsch.fanout;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregate report of a fan-out execution: outcome counts and per-host latency percentiles.
+ */
+public final class FanOutReport {
+
+    private final List<HostExecResult> results;
+    private final Duration elapsed;
+    private final int successCount;
+    private final int failureCount;
+    private final int timeoutCount;
+    private final long[] sortedLatencyNanos;
+
+    FanOutReport(List<HostExecResult> results, Duration elapsed) {
+        this.results = List.copyOf(results);
+        this.elapsed = elapsed;
+        int success = 0;
+        int failure = 0;
+        int timeout = 0;
+        long[] latencies = new long[this.results.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            HostExecResult r = this.results.get(i);
+            switch (r.outcome()) {
+                case SUCCESS -> success++;
+                case FAILURE -> failure++;
+                case TIMEOUT -> timeout++;
+            }
+            latencies[i] = r.latency().toNanos();
+        }
+        Arrays.sort(latencies);
+        this.successCount = success;
+        this.failureCount = failure;
+        this.timeoutCount = timeout;
+        this.sortedLatencyNanos = latencies;
+    }
+
+    /**
+     * Per-host results in completion order.
+     */
+    public List<HostExecResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Wall-clock duration of the whole fan-out.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public int getTotalCount() {
+        return results.size();
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public int getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public Duration getP50() {
+        return percentile(50);
+    }
+
+    public Duration getP90() {
+        return percentile(90);
+    }
+
+    public Duration getP99() {
+        return percentile(99);
+    }
+
+    public Duration getMax() {
+        return percentile(100);
+    }
+
+    /**
+     * Nearest-rank percentile of per-host latencies; zero when there are no results.
+     */
+    public Duration percentile(double p) {
+        if (sortedLatencyNanos.length == 0) return Duration.ZERO;
+        if (p <= 0) return Duration.ofNanos(sortedLatencyNanos[0]);
+        int rank = (int) Math.ceil(Math.min(p, 100d) / 100d * sortedLatencyNanos.length);
+        return Duration.ofNanos(sortedLatencyNanos[Math.max(0, rank - 1)]);
+    }
+
+    @Override
+    public String toString() {
+        return "FanOutReport{total=" + getTotalCount()
+                + ", success=" + successCount
+                + ", failure=" + failureCount
+                + ", timeout=" + timeoutCount
+                + ", p50=" + getP50().toMillis() + "ms"
+                + ", p90=" + getP90().toMillis() + "ms"
+                + ", p99=" + getP99().toMillis() + "ms"
+                + ", max=" + getMax().toMillis() + "ms"
+                + ", elapsed=" + elapsed.toMillis() + "ms}";
+    }
+}
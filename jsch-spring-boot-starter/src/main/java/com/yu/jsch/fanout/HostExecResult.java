@@ -0,0 +1,36 @@
+package com.yu.jsch.fanout;
+
+import com.yu.jsch.exec.ExecResult;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one host in a fan-out execution.
+ *
+ * @param target  host alias, or the HostConfig stable key for direct HostConfig targets
+ * @param outcome classification of the execution
+ * @param result  command result; null when the execution failed with an exception
+ * @param error   failure cause; null when a result is available
+ * @param latency wall-clock time spent on this host, excluding time queued behind concurrency limits
+ */
+public record HostExecResult(String target, Outcome outcome, ExecResult result, Throwable error, Duration latency) {
+
+    public enum Outcome {
+        /**
+         * Command completed with exit code 0.
+         */
+        SUCCESS,
+        /**
+         * Command exited non-zero or the execution failed.
+         */
+        FAILURE,
+        /**
+         * Execution or connect timeout elapsed.
+         */
+        TIMEOUT
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+}
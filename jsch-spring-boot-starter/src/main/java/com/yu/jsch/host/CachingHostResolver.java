@@ -0,0 +1,292 @@
+package com.yu.jsch.host;
+
+import com.yu.jsch.HostCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HostResolver decorator that caches resolved configs per host id, so executions do not hit the delegate (e.g. a
+ * database) on every call.
+ * <ul>
+ *     <li>At most max-size host ids are cached; the least recently used are dropped first.</li>
+ *     <li>A config older than the ttl is resolved again on the calling thread; one older than refresh-after is
+ *     resolved again in the background while the cached one keeps being served.</li>
+ *     <li>Unknown host ids are remembered for negative-ttl. Delegate failures are not cached: a failed refresh keeps
+ *     the cached config until its ttl ends.</li>
+ *     <li>Concurrent lookups of the same uncached host id share one delegate call.</li>
+ * </ul>
+ * When a reload returns a config that differs from the cached one (a new version, rotated credentials, or the host
+ * no longer resolves), the registered {@link HostChangeListener}s are notified, e.g. to invalidate pooled sessions
+ * that were opened with the old config. Callers get their own copy of each config, since session managers clear the
+ * credentials of the configs they build sessions from.
+ */
+public class CachingHostResolver implements HostResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingHostResolver.class);
+
+    /**
+     * Notified after a reload replaced a cached config with a different one.
+     */
+    @FunctionalInterface
+    public interface HostChangeListener {
+        /**
+         * @param previous the config served until now
+         * @param current  the reloaded config, or null when the host id no longer resolves
+         */
+        void hostChanged(String hostId, HostConfig previous, HostConfig current);
+    }
+
+    private final HostResolver delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final long negativeTtlNanos;
+    private final Executor refreshExecutor;
+
+    private final Map<String, Entry> entries;
+    private final Map<String, CompletableFuture<Optional<HostConfig>>> loads = new ConcurrentHashMap<>();
+    private final List<HostChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Bumped by invalidation, so loads started before it do not store their (possibly stale) result.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingHostResolver(HostResolver delegate, HostCacheProperties props) {
+        this(delegate, props, RefreshExecutor.EXECUTOR);
+    }
+
+    /**
+     * @param refreshExecutor runs refresh-ahead reloads; they may block on the delegate
+     */
+    public CachingHostResolver(HostResolver delegate, HostCacheProperties props, Executor refreshExecutor) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        Objects.requireNonNull(props, "props");
+        this.refreshExecutor = Objects.requireNonNull(refreshExecutor, "refreshExecutor");
+        if (props.getMaxSize() <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        if (!isPositive(props.getTtl())) throw new IllegalArgumentException("ttl must be > 0");
+        this.maxSize = props.getMaxSize();
+        this.ttlNanos = props.getTtl().toNanos();
+        long refreshAfter = isPositive(props.getRefreshAfter()) ? props.getRefreshAfter().toNanos() : 0L;
+        this.refreshAfterNanos = refreshAfter < ttlNanos ? refreshAfter : 0L;
+        this.negativeTtlNanos = isPositive(props.getNegativeTtl()) ? props.getNegativeTtl().toNanos() : 0L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static boolean isPositive(Duration d) {
+        return d != null && !d.isZero() && !d.isNegative();
+    }
+
+    public void addHostChangeListener(HostChangeListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    @Override
+    public Optional<HostConfig> resolve(String hostId) {
+        if (hostId == null) return delegate.resolve(null);
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(hostId);
+        }
+        if (entry != null && now - entry.loadedNanos < entry.ttlNanos) {
+            hits.increment();
+            if (entry.config != null && refreshAfterNanos > 0 && now - entry.loadedNanos >= refreshAfterNanos) {
+                refreshAsync(hostId, entry.config);
+            }
+            return Optional.ofNullable(copyOf(entry.config));
+        }
+        misses.increment();
+        return load(hostId).map(CachingHostResolver::copyOf);
+    }
+
+    /**
+     * Resolve {@code hostId} through the delegate, joining a load already running for it.
+     */
+    private Optional<HostConfig> load(String hostId) {
+        CompletableFuture<Optional<HostConfig>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<HostConfig>> running = loads.putIfAbsent(hostId, future);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+        return loadInto(hostId, future);
+    }
+
+    private Optional<HostConfig> loadInto(String hostId, CompletableFuture<Optional<HostConfig>> future) {
+        long gen = generation.get();
+        try {
+            Optional<HostConfig> result = Objects.requireNonNull(delegate.resolve(hostId), "resolver returned null");
+            store(hostId, result.orElse(null), gen);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(hostId, future);
+        }
+    }
+
+    private void refreshAsync(String hostId, HostConfig current) {
+        CompletableFuture<Optional<HostConfig>> future = new CompletableFuture<>();
+        if (loads.putIfAbsent(hostId, future) != null) return;
+        refreshes.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadInto(hostId, future);
+                } catch (RuntimeException e) {
+                    log.debug("Background refresh of SSH host {} failed: {}", hostId, e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(hostId, future);
+            future.complete(Optional.of(current));
+        }
+    }
+
+    private void store(String hostId, HostConfig config, long gen) {
+        Entry previous;
+        synchronized (entries) {
+            if (generation.get() != gen) {
+                // Invalidated while loading; the next lookup loads again
+                return;
+            }
+            if (config == null && negativeTtlNanos <= 0) {
+                previous = entries.remove(hostId);
+            } else {
+                previous = entries.put(hostId, new Entry(config, System.nanoTime(), config != null ? ttlNanos : negativeTtlNanos));
+            }
+        }
+        if (previous != null && previous.config != null && !previous.config.equals(config)) {
+            for (HostChangeListener l : listeners) {
+                try {
+                    l.hostChanged(hostId, previous.config, config);
+                } catch (RuntimeException e) {
+                    log.warn("Host change listener failed for SSH host {}: {}", hostId, e.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark the cached config of {@code hostId} as expired, e.g. after it was changed in the database; the next
+     * lookup resolves it again and notifies the listeners if it changed.
+     */
+    public void invalidate(String hostId) {
+        if (hostId == null) return;
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Entry entry = entries.get(hostId);
+            if (entry != null) {
+                entries.put(hostId, entry.expired());
+            }
+        }
+    }
+
+    /**
+     * Mark every cached config as expired.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.replaceAll((id, entry) -> entry.expired());
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), refreshes.sum(), loadFailures.sum(), evictions.sum(), size,
+                maxSize);
+    }
+
+    /**
+     * Copy with its own credential arrays, so clearing them does not affect the cached config.
+     */
+    private static HostConfig copyOf(HostConfig cfg) {
+        if (cfg == null) return null;
+        HostConfig.Auth auth = cfg.getAuth();
+        if (auth == null || (auth.getPassword() == null && auth.getPassphrase() == null)) return cfg;
+        return cfg.toBuilder()
+                .auth(auth.toBuilder()
+                        .password(auth.getPassword() != null ? auth.getPassword().clone() : null)
+                        .passphrase(auth.getPassphrase() != null ? auth.getPassphrase().clone() : null)
+                        .build())
+                .build();
+    }
+
+    /**
+     * @param config null for a host id that did not resolve
+     */
+    private record Entry(HostConfig config, long loadedNanos, long ttlNanos) {
+        Entry expired() {
+            return new Entry(config, loadedNanos, 0L);
+        }
+    }
+
+    /**
+     * @param hits         lookups served from the cache (including remembered unknown host ids)
+     * @param misses       lookups resolved through the delegate on the calling thread
+     * @param refreshes    background refreshes started
+     * @param loadFailures delegate calls that threw
+     * @param evictions    host ids dropped because the cache was full
+     */
+    public static record CacheStats(long hits, long misses, long refreshes, long loadFailures, long evictions, int size,
+                                    int maxSize) {
+    }
+
+    /**
+     * Shared daemon threads for refresh-ahead reloads; created on first use.
+     */
+    private static final class RefreshExecutor {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "jsch-host-cache-refresh-" + COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
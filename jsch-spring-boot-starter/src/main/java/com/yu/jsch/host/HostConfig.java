@@ -2,7 +2,11 @@ package com.yu.jsch.host;
 
 import com.yu.jsch.AuthType;
 import com.yu.jsch.KnownHostsMode;
+import com.yu.jsch.channel.ChannelTuning;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 
 /**
@@ -22,14 +26,27 @@ public class HostConfig {
     int connectTimeoutMillis;
     int readTimeoutMillis;
 
+    /**
+     * Channel window/packet/buffer sizes; null keeps the JSch defaults.
+     */
+    ChannelTuning tuning;
+
     Long version;
 
+    /**
+     * Computed once on first use; session managers look pools up by this key on every call.
+     */
+    @Getter(lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    String stableKey = host + ":" + port + ":" + username;
+
     /**
      * A stable key to identify this host for pooling purposes (excluding secrets).
      * Format: host:port:username
      */
     public String stableKey() {
-        return host + ":" + port + ":" + username;
+        return getStableKey();
     }
 
     /**
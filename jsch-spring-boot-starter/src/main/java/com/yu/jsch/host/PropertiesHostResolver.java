@@ -56,6 +56,7 @@ public class PropertiesHostResolver implements HostResolver {
                 .knownHosts(kh)
                 .connectTimeoutMillis(connectMs)
                 .readTimeoutMillis(readMs)
+                .tuning(def.getTuning())
                 .build();
         return Optional.of(cfg);
     }
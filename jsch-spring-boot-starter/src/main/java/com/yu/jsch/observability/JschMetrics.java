@@ -0,0 +1,160 @@
+package com.yu.jsch.observability;
+
+import com.jcraft.jsch.JSchException;
+import com.yu.jsch.channel.SftpChannelPool;
+import com.yu.jsch.host.CachingHostResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer instrumentation for sessions, exec and SFTP operations.
+ * <p>
+ * Timers are named after the configured metric names (ssh.session.connect, ssh.exec, ssh.sftp) and tagged with
+ * {@code alias}, {@code op} and {@code outcome}; they publish a percentile histogram. Retries and failed attempts are
+ * counted in {@code <metric>.retries} and {@code <metric>.failures}; session and channel pools expose active/idle/waiters
+ * gauges. Without a registry every call is a no-op.
+ */
+public final class JschMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+
+    public static final String SESSION_POOL_ACTIVE = "ssh.session.pool.active";
+    public static final String SESSION_POOL_IDLE = "ssh.session.pool.idle";
+    public static final String SESSION_POOL_WAITERS = "ssh.session.pool.waiters";
+    public static final String SESSION_CHANNELS_ACTIVE = "ssh.session.channels.active";
+    public static final String SFTP_CHANNELS_LEASED = "ssh.sftp.channels.leased";
+    public static final String SFTP_CHANNELS_IDLE = "ssh.sftp.channels.idle";
+    public static final String HOST_CACHE_HITS = "ssh.host.cache.hits";
+    public static final String HOST_CACHE_MISSES = "ssh.host.cache.misses";
+    public static final String HOST_CACHE_EVICTIONS = "ssh.host.cache.evictions";
+    public static final String HOST_CACHE_SIZE = "ssh.host.cache.size";
+
+    private static final String NONE = "none";
+    private static final JschMetrics NOOP = new JschMetrics(null);
+
+    private final MeterRegistry registry;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public JschMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static JschMetrics noop() {
+        return NOOP;
+    }
+
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * The backing registry, or null when metrics are disabled.
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public void recordTime(String metric, String alias, String op, String outcome, long durationNanos) {
+        if (registry == null) return;
+        MeterKey key = new MeterKey(metric, tag(alias), tag(op), tag(outcome));
+        timers.computeIfAbsent(key, k -> Timer.builder(k.name())
+                        .tags(Tags.of("alias", k.alias(), "op", k.op(), "outcome", k.extra()))
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry(String metric, String alias, String op) {
+        if (registry == null) return;
+        count(new MeterKey(metric + ".retries", tag(alias), tag(op), null), null);
+    }
+
+    public void recordFailure(String metric, String alias, String op, Throwable error) {
+        if (registry == null) return;
+        String errorTag = error != null ? error.getClass().getSimpleName() : NONE;
+        count(new MeterKey(metric + ".failures", tag(alias), tag(op), errorTag), "error");
+    }
+
+    /**
+     * Register a gauge tagged with {@code alias}. The gauge holds a weak reference to {@code obj}.
+     */
+    public <T> void gauge(String name, String alias, T obj, ToDoubleFunction<T> fn) {
+        if (registry == null) return;
+        Gauge.builder(name, obj, fn).tag("alias", tag(alias)).register(registry);
+    }
+
+    /**
+     * Remove the session gauges tagged with {@code alias}, so a session manager created again for the alias can
+     * register its own.
+     */
+    public void removeSessionGauges(String alias) {
+        if (registry == null) return;
+        for (String name : List.of(SESSION_POOL_ACTIVE, SESSION_POOL_IDLE, SESSION_POOL_WAITERS, SESSION_CHANNELS_ACTIVE)) {
+            registry.find(name).tag("alias", tag(alias)).meters().forEach(registry::remove);
+        }
+    }
+
+    /**
+     * Register leased/idle gauges for a shared SFTP channel pool.
+     */
+    public void bindChannelPool(SftpChannelPool channelPool) {
+        if (registry == null || channelPool == null) return;
+        Gauge.builder(SFTP_CHANNELS_LEASED, channelPool, p -> p.getPoolStats().leased()).register(registry);
+        Gauge.builder(SFTP_CHANNELS_IDLE, channelPool, p -> p.getPoolStats().idle()).register(registry);
+    }
+
+    /**
+     * Register hit/miss/eviction counters and a size gauge for a host resolver cache.
+     */
+    public void bindHostCache(CachingHostResolver cache) {
+        if (registry == null || cache == null) return;
+        FunctionCounter.builder(HOST_CACHE_HITS, cache, c -> c.getStats().hits()).register(registry);
+        FunctionCounter.builder(HOST_CACHE_MISSES, cache, c -> c.getStats().misses()).register(registry);
+        FunctionCounter.builder(HOST_CACHE_EVICTIONS, cache, c -> c.getStats().evictions()).register(registry);
+        Gauge.builder(HOST_CACHE_SIZE, cache, c -> c.getStats().size()).register(registry);
+    }
+
+    /**
+     * Outcome tag for a failed attempt: timeouts are reported separately from other failures.
+     */
+    public static String outcomeOf(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof TimeoutException) return OUTCOME_TIMEOUT;
+            String msg = t.getMessage();
+            if (t instanceof JSchException && msg != null && msg.toLowerCase().contains("timeout")) {
+                return OUTCOME_TIMEOUT;
+            }
+        }
+        return OUTCOME_FAILURE;
+    }
+
+    private void count(MeterKey key, String extraTagName) {
+        counters.computeIfAbsent(key, k -> {
+            Counter.Builder b = Counter.builder(k.name()).tag("alias", k.alias()).tag("op", k.op());
+            if (extraTagName != null) b.tag(extraTagName, k.extra());
+            return b.register(registry);
+        }).increment();
+    }
+
+    private static String tag(String value) {
+        return value != null && !value.isBlank() ? value : NONE;
+    }
+
+    private record MeterKey(String name, String alias, String op, String extra) {
+    }
+}
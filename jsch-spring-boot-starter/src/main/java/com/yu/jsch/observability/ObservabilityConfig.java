@@ -5,7 +5,7 @@ import com.yu.jsch.SshProperties;
 import java.util.Objects;
 
 /**
- * Internal observability configuration used to control structured logging and metric names.
+ * Internal observability configuration used to control structured logging, metric names and Micrometer meters.
  */
 public final class ObservabilityConfig {
 
@@ -13,12 +13,19 @@ public final class ObservabilityConfig {
     private final String sessionConnectMetric;
     private final String sshExecMetric;
     private final String sftpOperationMetric;
+    private final JschMetrics metrics;
 
     private ObservabilityConfig(boolean loggingEnabled, String sessionConnectMetric, String sshExecMetric, String sftpOperationMetric) {
+        this(loggingEnabled, sessionConnectMetric, sshExecMetric, sftpOperationMetric, JschMetrics.noop());
+    }
+
+    private ObservabilityConfig(boolean loggingEnabled, String sessionConnectMetric, String sshExecMetric, String sftpOperationMetric,
+                                JschMetrics metrics) {
         this.loggingEnabled = loggingEnabled;
         this.sessionConnectMetric = Objects.requireNonNullElse(sessionConnectMetric, "ssh.session.connect");
         this.sshExecMetric = Objects.requireNonNullElse(sshExecMetric, "ssh.exec");
         this.sftpOperationMetric = Objects.requireNonNullElse(sftpOperationMetric, "ssh.sftp");
+        this.metrics = metrics != null ? metrics : JschMetrics.noop();
     }
 
     public static ObservabilityConfig fromProperties(SshProperties.ObservabilityProperties props) {
@@ -42,6 +49,13 @@ public final class ObservabilityConfig {
         return new ObservabilityConfig(false, "ssh.session.connect", "ssh.exec", "ssh.sftp");
     }
 
+    /**
+     * Copy of this configuration recording Micrometer meters through the given metrics.
+     */
+    public ObservabilityConfig withMetrics(JschMetrics metrics) {
+        return new ObservabilityConfig(loggingEnabled, sessionConnectMetric, sshExecMetric, sftpOperationMetric, metrics);
+    }
+
     public boolean isLoggingEnabled() {
         return loggingEnabled;
     }
@@ -57,4 +71,8 @@ public final class ObservabilityConfig {
     public String sftpOperationMetric() {
         return sftpOperationMetric;
     }
+
+    public JschMetrics metrics() {
+        return metrics;
+    }
 }
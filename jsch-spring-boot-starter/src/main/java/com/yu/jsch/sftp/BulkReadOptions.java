@@ -0,0 +1,57 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Options for pipelined bulk reads of many small remote files.
+ */
+public final class BulkReadOptions {
+    /**
+     * Number of files whose open/read/close requests are in flight at the same time on the channel.
+     */
+    private final int window;
+    /**
+     * Largest file accepted; larger files are reported as failed with {@link SftpFileTooLargeException} once this many
+     * bytes were read. Zero or negative means unlimited (bounded only by the maximum array size).
+     */
+    private final long maxFileBytes;
+
+    private BulkReadOptions(Builder b) {
+        this.window = b.window;
+        this.maxFileBytes = b.maxFileBytes;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int window = 32;
+        private long maxFileBytes = 0L;
+
+        public Builder window(int window) {
+            if (window <= 0) throw new IllegalArgumentException("window must be > 0");
+            this.window = window;
+            return this;
+        }
+
+        public Builder maxFileBytes(long maxFileBytes) {
+            this.maxFileBytes = maxFileBytes;
+            return this;
+        }
+
+        public BulkReadOptions build() {
+            return new BulkReadOptions(this);
+        }
+    }
+
+    public static BulkReadOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Records SFTP operations to be run in order on a single session/channel as one batch.
+ * Each call only records the operation; nothing is sent until the recording callback returns.
+ */
+public interface SftpBatch {
+
+    SftpBatch mkdir(String path);
+
+    SftpBatch delete(String path);
+
+    SftpBatch rmdir(String path);
+
+    SftpBatch rename(String from, String to, boolean overwrite);
+
+    /**
+     * @param permissions POSIX permission bits (e.g. 0644)
+     */
+    SftpBatch chmod(String path, int permissions);
+}
@@ -0,0 +1,11 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Receives the content of each file of a bulk read as soon as it was read completely. Calls arrive one at a time on
+ * the thread running the bulk read, in completion order rather than request order.
+ */
+@FunctionalInterface
+public interface SftpContentHandler {
+
+    void handle(String path, byte[] content) throws Exception;
+}
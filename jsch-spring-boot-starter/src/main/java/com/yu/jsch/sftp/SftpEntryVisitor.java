@@ -0,0 +1,13 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Receives directory entries one by one while a listing is read from the server.
+ */
+@FunctionalInterface
+public interface SftpEntryVisitor {
+
+    /**
+     * @return true to continue with the next entry, false to stop the listing
+     */
+    boolean visit(SftpFileInfo entry);
+}
@@ -10,12 +10,27 @@ public final class SftpFileInfo {
     private final boolean directory;
     private final long size;
     private final Instant modifiedTime;
+    private final boolean symbolicLink;
+    private final int permissions;
+    private final int uid;
+    private final int gid;
+    private final Instant accessTime;
 
     public SftpFileInfo(String name, boolean directory, long size, Instant modifiedTime) {
+        this(name, directory, size, modifiedTime, false, 0, 0, 0, null);
+    }
+
+    public SftpFileInfo(String name, boolean directory, long size, Instant modifiedTime, boolean symbolicLink,
+                        int permissions, int uid, int gid, Instant accessTime) {
         this.name = name;
         this.directory = directory;
         this.size = size;
         this.modifiedTime = modifiedTime;
+        this.symbolicLink = symbolicLink;
+        this.permissions = permissions;
+        this.uid = uid;
+        this.gid = gid;
+        this.accessTime = accessTime;
     }
 
     public String getName() {
@@ -33,4 +48,30 @@ public final class SftpFileInfo {
     public Instant getModifiedTime() {
         return modifiedTime;
     }
+
+    /**
+     * Whether the entry itself is a symbolic link; listings report link attributes, not those of the link target.
+     */
+    public boolean isSymbolicLink() {
+        return symbolicLink;
+    }
+
+    /**
+     * POSIX mode bits including the file type bits (e.g. 0100644 for a regular file), 0 when not reported.
+     */
+    public int getPermissions() {
+        return permissions;
+    }
+
+    public int getUid() {
+        return uid;
+    }
+
+    public int getGid() {
+        return gid;
+    }
+
+    public Instant getAccessTime() {
+        return accessTime;
+    }
 }
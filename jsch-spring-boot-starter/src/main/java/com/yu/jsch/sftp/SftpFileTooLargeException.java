@@ -0,0 +1,14 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Thrown when a remote file is too large to be downloaded into memory.
+ */
+public class SftpFileTooLargeException extends SftpClientException {
+    public SftpFileTooLargeException(String message) {
+        super(message);
+    }
+
+    public SftpFileTooLargeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
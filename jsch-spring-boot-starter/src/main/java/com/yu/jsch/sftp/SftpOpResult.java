@@ -0,0 +1,50 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Outcome of one operation of an {@link SftpBatch}.
+ */
+public final class SftpOpResult {
+    private final String op;
+    private final String path;
+    private final SftpClientException error;
+
+    public SftpOpResult(String op, String path, SftpClientException error) {
+        this.op = op;
+        this.path = path;
+        this.error = error;
+    }
+
+    /**
+     * Operation name: mkdir, delete, rmdir, rename or chmod.
+     */
+    public String getOp() {
+        return op;
+    }
+
+    /**
+     * Remote path the operation was applied to (the source path for renames).
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Failure of the operation, or null when it succeeded.
+     */
+    public SftpClientException getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "SftpOpResult{" +
+                "op='" + op + '\'' +
+                ", path='" + path + '\'' +
+                ", error=" + error +
+                '}';
+    }
+}
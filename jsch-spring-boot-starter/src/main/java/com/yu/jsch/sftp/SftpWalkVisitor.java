@@ -0,0 +1,16 @@
+package com.yu.jsch.sftp;
+
+/**
+ * Receives the entries of a recursive remote walk. Calls are serialized, but arrive from the walk's worker threads
+ * in no particular order across directories.
+ */
+@FunctionalInterface
+public interface SftpWalkVisitor {
+
+    /**
+     * @param path  remote path of the entry (the walk root joined with the relative path)
+     * @param entry attributes of the entry as reported by the directory listing
+     * @return true to continue, false to stop the whole walk
+     */
+    boolean visit(String path, SftpFileInfo entry);
+}
@@ -24,6 +24,35 @@ public final class TransferOptions {
      * Placeholder for text mode; SFTP is binary by default.
      */
     private final boolean textMode;
+    /**
+     * Number of byte ranges transferred concurrently by local file uploads/downloads. 1 keeps a single stream.
+     */
+    private final int parallelism;
+    /**
+     * Size in bytes of each range transferred by a parallel file upload/download.
+     */
+    private final long chunkSizeBytes;
+    /**
+     * Continue a local file transfer from an existing partial file (the local file for downloads, a deterministic
+     * remote temp file for atomic uploads, the target itself for non-atomic ones) when its trailing bytes match the
+     * source, and keep the verified part of the partial file when the transfer fails. While ranges may leave holes in
+     * the partial file, a {@code .checkpoint} file next to it records how far it is contiguous. A non-atomic resume
+     * writes into the existing target, so it cannot be combined with overwrite=false.
+     */
+    private final boolean resume;
+    /**
+     * Read local upload sources through memory-mapped windows instead of FileChannel reads.
+     */
+    private final boolean memoryMapped;
+    /**
+     * Largest remote file accepted by in-memory (byte[]) downloads; larger files are refused before any byte is
+     * read. Zero or negative means unlimited (bounded only by the maximum array size).
+     */
+    private final long maxInMemoryBytes;
+    /**
+     * Carry the source modification time (seconds precision) over to the destination of a local file upload/download.
+     */
+    private final boolean preserveModifiedTime;
 
     private TransferOptions(Builder b) {
         this.atomic = b.atomic;
@@ -31,6 +60,12 @@ public final class TransferOptions {
         this.permissions = b.permissions;
         this.connectTimeoutMillis = b.connectTimeoutMillis;
         this.textMode = b.textMode;
+        this.parallelism = b.parallelism;
+        this.chunkSizeBytes = b.chunkSizeBytes;
+        this.resume = b.resume;
+        this.memoryMapped = b.memoryMapped;
+        this.maxInMemoryBytes = b.maxInMemoryBytes;
+        this.preserveModifiedTime = b.preserveModifiedTime;
     }
 
     public boolean isAtomic() {
@@ -53,6 +88,45 @@ public final class TransferOptions {
         return textMode;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getChunkSizeBytes() {
+        return chunkSizeBytes;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public long getMaxInMemoryBytes() {
+        return maxInMemoryBytes;
+    }
+
+    public boolean isPreserveModifiedTime() {
+        return preserveModifiedTime;
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .atomic(atomic)
+                .overwrite(overwrite)
+                .permissions(permissions)
+                .connectTimeoutMillis(connectTimeoutMillis)
+                .textMode(textMode)
+                .parallelism(parallelism)
+                .chunkSizeBytes(chunkSizeBytes)
+                .resume(resume)
+                .memoryMapped(memoryMapped)
+                .maxInMemoryBytes(maxInMemoryBytes)
+                .preserveModifiedTime(preserveModifiedTime);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -63,6 +137,12 @@ public final class TransferOptions {
         private Integer permissions = null;
         private int connectTimeoutMillis = 0;
         private boolean textMode = false;
+        private int parallelism = 1;
+        private long chunkSizeBytes = 8L * 1024 * 1024;
+        private boolean resume = false;
+        private boolean memoryMapped = false;
+        private long maxInMemoryBytes = 0L;
+        private boolean preserveModifiedTime = false;
 
         public Builder atomic(boolean atomic) {
             this.atomic = atomic;
@@ -89,7 +169,42 @@ public final class TransferOptions {
             return this;
         }
 
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder chunkSizeBytes(long chunkSizeBytes) {
+            if (chunkSizeBytes <= 0) throw new IllegalArgumentException("chunkSizeBytes must be > 0");
+            this.chunkSizeBytes = chunkSizeBytes;
+            return this;
+        }
+
+        public Builder resume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        public Builder memoryMapped(boolean memoryMapped) {
+            this.memoryMapped = memoryMapped;
+            return this;
+        }
+
+        public Builder maxInMemoryBytes(long maxInMemoryBytes) {
+            this.maxInMemoryBytes = maxInMemoryBytes;
+            return this;
+        }
+
+        public Builder preserveModifiedTime(boolean preserveModifiedTime) {
+            this.preserveModifiedTime = preserveModifiedTime;
+            return this;
+        }
+
         public TransferOptions build() {
+            if (resume && !atomic && !overwrite) {
+                throw new IllegalArgumentException("resume with atomic=false continues the existing target and requires overwrite=true");
+            }
             return new TransferOptions(this);
         }
     }
@@ -0,0 +1,104 @@
+package com.yu.jsch.sftp;
+
+import java.util.function.Predicate;
+
+/**
+ * Options for recursive remote walks.
+ */
+public final class WalkOptions {
+    /**
+     * Deepest level visited; entries directly below the root are at depth 1.
+     */
+    private final int maxDepth;
+    /**
+     * Number of directories listed concurrently, each over its own pooled session/channel.
+     */
+    private final int parallelism;
+    /**
+     * Entries handed to the visitor (null accepts all). Does not affect which directories are descended into.
+     */
+    private final Predicate<SftpFileInfo> filter;
+    /**
+     * Directories descended into (null descends into all). Symbolic links are never followed.
+     */
+    private final Predicate<SftpFileInfo> descendFilter;
+    /**
+     * Skip subdirectories that cannot be listed (permission denied, removed during the walk) instead of failing.
+     */
+    private final boolean skipUnreadable;
+
+    private WalkOptions(Builder b) {
+        this.maxDepth = b.maxDepth;
+        this.parallelism = b.parallelism;
+        this.filter = b.filter;
+        this.descendFilter = b.descendFilter;
+        this.skipUnreadable = b.skipUnreadable;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Predicate<SftpFileInfo> getFilter() {
+        return filter;
+    }
+
+    public Predicate<SftpFileInfo> getDescendFilter() {
+        return descendFilter;
+    }
+
+    public boolean isSkipUnreadable() {
+        return skipUnreadable;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxDepth = Integer.MAX_VALUE;
+        private int parallelism = 4;
+        private Predicate<SftpFileInfo> filter = null;
+        private Predicate<SftpFileInfo> descendFilter = null;
+        private boolean skipUnreadable = false;
+
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth <= 0) throw new IllegalArgumentException("maxDepth must be > 0");
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder filter(Predicate<SftpFileInfo> filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        public Builder descendFilter(Predicate<SftpFileInfo> descendFilter) {
+            this.descendFilter = descendFilter;
+            return this;
+        }
+
+        public Builder skipUnreadable(boolean skipUnreadable) {
+            this.skipUnreadable = skipUnreadable;
+            return this;
+        }
+
+        public WalkOptions build() {
+            return new WalkOptions(this);
+        }
+    }
+
+    public static WalkOptions defaults() {
+        return builder().build();
+    }
+}
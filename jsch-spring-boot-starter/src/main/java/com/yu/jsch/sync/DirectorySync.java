@@ -0,0 +1,515 @@
+package com.yu.jsch.sync;
+
+import com.yu.jsch.SftpTemplate;
+import com.yu.jsch.client.AsyncSupport;
+import com.yu.jsch.client.SftpClient;
+import com.yu.jsch.client.SshClient;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.SftpFileInfo;
+import com.yu.jsch.sftp.SftpNoSuchFileException;
+import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.sftp.WalkOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Mirrors a directory tree between the local file system and a host over SFTP, transferring only the files whose
+ * size or modification time (optionally SHA-256 checksum) differ.
+ * <p>
+ * Both trees are listed up front: the local walk runs alongside the remote walk, which lists directories
+ * concurrently. Deletions, directory creation and transfers then run on up to
+ * {@link SyncOptions#getParallelism()} workers, each operation borrowing a pooled session/channel through the
+ * SftpClient. A path that fails is recorded in the report and does not stop the others; a tree that cannot be
+ * listed fails the whole sync before anything is changed.
+ */
+public class DirectorySync {
+
+    /**
+     * Files per {@code sha256sum} invocation, keeping command lines well below common ARG_MAX limits.
+     */
+    private static final int CHECKSUM_BATCH = 64;
+
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final SftpClient sftpClient;
+    private final SshClient sshClient;
+
+    public DirectorySync(SftpClient sftpClient) {
+        this(sftpClient, null);
+    }
+
+    /**
+     * @param sshClient used for remote checksums ({@link SyncOptions#isChecksum()}); may be null otherwise
+     */
+    public DirectorySync(SftpClient sftpClient, SshClient sshClient) {
+        this.sftpClient = Objects.requireNonNull(sftpClient, "sftpClient");
+        this.sshClient = sshClient;
+    }
+
+    /**
+     * Make the remote directory mirror the local one. Missing remote directories (including the root) are created.
+     */
+    public SyncReport upload(String hostAlias, Path localDir, String remoteDir, SyncOptions options) throws SftpClientException {
+        Objects.requireNonNull(localDir, "localDir");
+        Objects.requireNonNull(remoteDir, "remoteDir");
+        SyncOptions opts = options != null ? options : SyncOptions.defaults();
+        TransferOptions fileOpts = opts.getTransferOptions().toBuilder().preserveModifiedTime(true).build();
+        LocalEndpoint local = new LocalEndpoint(localDir);
+        RemoteEndpoint remote = new RemoteEndpoint(hostAlias, remoteDir);
+        return run(local, remote, opts, rel -> sftpClient.upload(hostAlias, local.resolve(rel), remote.path(rel), fileOpts));
+    }
+
+    /**
+     * Make the local directory mirror the remote one. Missing local directories (including the root) are created.
+     */
+    public SyncReport download(String hostAlias, String remoteDir, Path localDir, SyncOptions options) throws SftpClientException {
+        Objects.requireNonNull(remoteDir, "remoteDir");
+        Objects.requireNonNull(localDir, "localDir");
+        SyncOptions opts = options != null ? options : SyncOptions.defaults();
+        TransferOptions fileOpts = opts.getTransferOptions().toBuilder().preserveModifiedTime(true).build();
+        RemoteEndpoint remote = new RemoteEndpoint(hostAlias, remoteDir);
+        LocalEndpoint local = new LocalEndpoint(localDir);
+        return run(remote, local, opts, rel -> sftpClient.download(hostAlias, remote.path(rel), local.resolve(rel), fileOpts));
+    }
+
+    // --------------- internals ---------------
+
+    record Entry(boolean directory, long size, long modifiedSeconds) {
+    }
+
+    interface Action<T> {
+        void run(T item) throws Exception;
+    }
+
+    /**
+     * One side of a sync. Paths are relative to the synced directory and '/'-separated; "" is the root.
+     */
+    interface Endpoint {
+        /**
+         * Every file and directory below the root, or null when the root does not exist.
+         */
+        Map<String, Entry> list(int parallelism) throws Exception;
+
+        void createDirectory(String rel) throws Exception;
+
+        void deleteFile(String rel) throws Exception;
+
+        void deleteDirectory(String rel) throws Exception;
+
+        /**
+         * Hex SHA-256 checksums of the given files; files that could not be hashed are missing from the result.
+         */
+        Map<String, String> checksums(List<String> rels) throws Exception;
+
+        String path(String rel);
+    }
+
+    /**
+     * Make {@code target} mirror {@code source}; {@code transfer} copies one changed file between them.
+     */
+    SyncReport run(Endpoint source, Endpoint target, SyncOptions opts, Action<String> transfer) throws SftpClientException {
+        if (opts.isChecksum() && sshClient == null) {
+            throw new IllegalStateException("Checksum comparison requires an SshClient");
+        }
+        long startNanos = System.nanoTime();
+        int parallelism = opts.getParallelism();
+        ExecutorService workers = AsyncSupport.defaultExecutor(true, parallelism);
+        try {
+            Future<Map<String, Entry>> targetListing = workers.submit(() -> target.list(parallelism));
+            Map<String, Entry> sourceTree = source.list(parallelism);
+            if (sourceTree == null) {
+                throw new SftpNoSuchFileException("Source directory does not exist: " + source.path(""));
+            }
+            Map<String, Entry> targetTree = await(targetListing);
+            if (targetTree == null) {
+                target.createDirectory("");
+                targetTree = Map.of();
+            }
+
+            List<SyncFailure> failures = Collections.synchronizedList(new ArrayList<>());
+            BiConsumer<String, Exception> recordFailure = (rel, ex) -> failures.add(new SyncFailure(rel, ex));
+            AtomicInteger filesDeleted = new AtomicInteger();
+            AtomicInteger directoriesDeleted = new AtomicInteger();
+            AtomicInteger directoriesCreated = new AtomicInteger();
+            AtomicInteger filesTransferred = new AtomicInteger();
+            AtomicLong bytesTransferred = new AtomicLong();
+
+            // Extraneous entries and type conflicts (file on one side, directory on the other) leave the target first
+            List<String> deleteFiles = new ArrayList<>();
+            List<String> deleteDirectories = new ArrayList<>();
+            for (Map.Entry<String, Entry> e : targetTree.entrySet()) {
+                Entry src = sourceTree.get(e.getKey());
+                boolean conflict = src != null && src.directory() != e.getValue().directory();
+                if (src != null && !conflict) continue;
+                if (opts.isDeleteExtraneous()) {
+                    (e.getValue().directory() ? deleteDirectories : deleteFiles).add(e.getKey());
+                } else if (conflict) {
+                    recordFailure.accept(e.getKey(), new IOException("Type conflicts with the source; enable deleteExtraneous to replace it"));
+                }
+            }
+            forEach(workers, parallelism, deleteFiles, rel -> {
+                target.deleteFile(rel);
+                filesDeleted.incrementAndGet();
+            }, recordFailure);
+            for (List<String> level : byDepth(deleteDirectories, true)) {
+                forEach(workers, parallelism, level, rel -> {
+                    target.deleteDirectory(rel);
+                    directoriesDeleted.incrementAndGet();
+                }, recordFailure);
+            }
+
+            List<String> createDirectories = new ArrayList<>();
+            List<String> transfers = new ArrayList<>();
+            List<String> checksumCandidates = new ArrayList<>();
+            int unchanged = 0;
+            for (Map.Entry<String, Entry> e : sourceTree.entrySet()) {
+                String rel = e.getKey();
+                Entry src = e.getValue();
+                Entry dst = targetTree.get(rel);
+                boolean present = dst != null && dst.directory() == src.directory();
+                if (dst != null && !present && !opts.isDeleteExtraneous()) continue;
+                if (src.directory()) {
+                    if (!present) createDirectories.add(rel);
+                } else if (!present || src.size() != dst.size()) {
+                    transfers.add(rel);
+                } else if (opts.isChecksum()) {
+                    checksumCandidates.add(rel);
+                } else if (src.modifiedSeconds() != dst.modifiedSeconds()) {
+                    transfers.add(rel);
+                } else {
+                    unchanged++;
+                }
+            }
+            if (!checksumCandidates.isEmpty()) {
+                Map<String, String> sourceSums = checksums(source, checksumCandidates, workers, parallelism);
+                Map<String, String> targetSums = checksums(target, checksumCandidates, workers, parallelism);
+                for (String rel : checksumCandidates) {
+                    String sum = sourceSums.get(rel);
+                    if (sum != null && sum.equals(targetSums.get(rel))) {
+                        unchanged++;
+                    } else {
+                        transfers.add(rel);
+                    }
+                }
+            }
+
+            for (List<String> level : byDepth(createDirectories, false)) {
+                forEach(workers, parallelism, level, rel -> {
+                    target.createDirectory(rel);
+                    directoriesCreated.incrementAndGet();
+                }, recordFailure);
+            }
+            forEach(workers, parallelism, transfers, rel -> {
+                transfer.run(rel);
+                filesTransferred.incrementAndGet();
+                bytesTransferred.addAndGet(sourceTree.get(rel).size());
+            }, recordFailure);
+
+            return new SyncReport(filesTransferred.get(), bytesTransferred.get(), unchanged, filesDeleted.get(),
+                    directoriesCreated.get(), directoriesDeleted.get(), failures, Duration.ofNanos(System.nanoTime() - startNanos));
+        } catch (Exception ex) {
+            throw SftpTemplate.mapException(ex);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> checksums(Endpoint endpoint, List<String> rels, ExecutorService workers, int parallelism)
+            throws Exception {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < rels.size(); i += CHECKSUM_BATCH) {
+            batches.add(rels.subList(i, Math.min(rels.size(), i + CHECKSUM_BATCH)));
+        }
+        Map<String, String> sums = new ConcurrentHashMap<>();
+        // A batch that cannot be hashed leaves its files without a checksum, so they are transferred
+        forEach(workers, parallelism, batches, batch -> sums.putAll(endpoint.checksums(batch)), (batch, ex) -> {
+        });
+        return sums;
+    }
+
+    /**
+     * Run the action for every item on up to {@code parallelism} workers. Failures are handed to {@code onFailure}
+     * and do not stop the remaining items; interruption does.
+     */
+    private static <T> void forEach(ExecutorService workers, int parallelism, List<T> items, Action<T> action,
+                                    BiConsumer<T, Exception> onFailure) throws InterruptedException {
+        if (items.isEmpty()) return;
+        int n = Math.min(parallelism, items.size());
+        AtomicInteger next = new AtomicInteger();
+        ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(workers);
+        List<Future<Void>> futures = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                futures.add(completion.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < items.size()) {
+                        if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+                        T item = items.get(index);
+                        try {
+                            action.run(item);
+                        } catch (Exception ex) {
+                            if (ex instanceof InterruptedException) throw ex;
+                            onFailure.accept(item, ex);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < n; i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException ee) {
+            // Item failures are handed to onFailure, so only interruption and unchecked errors get here
+            Throwable cause = ee.getCause();
+            if (cause instanceof InterruptedException ie) throw ie;
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<Void> f : futures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Group paths by depth, deepest first when {@code deepestFirst}, so parents are created before and removed after
+     * their children while each level runs concurrently.
+     */
+    private static List<List<String>> byDepth(List<String> rels, boolean deepestFirst) {
+        TreeMap<Integer, List<String>> levels = new TreeMap<>();
+        for (String rel : rels) {
+            int depth = (int) rel.chars().filter(c -> c == '/').count();
+            levels.computeIfAbsent(depth, d -> new ArrayList<>()).add(rel);
+        }
+        return new ArrayList<>(deepestFirst ? levels.descendingMap().values() : levels.values());
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof Exception ex) throw ex;
+            throw ee;
+        }
+    }
+
+    private static String shellQuote(String s) {
+        return "'" + s.replace("'", "'\\''") + "'";
+    }
+
+    private final class RemoteEndpoint implements Endpoint {
+        private final String hostAlias;
+        private final String root;
+
+        RemoteEndpoint(String hostAlias, String root) {
+            this.hostAlias = hostAlias;
+            this.root = root.length() > 1 && root.endsWith("/") ? root.substring(0, root.length() - 1) : root;
+        }
+
+        @Override
+        public Map<String, Entry> list(int parallelism) throws SftpClientException {
+            Map<String, SftpFileInfo> found;
+            try {
+                found = sftpClient.find(hostAlias, root, WalkOptions.builder().parallelism(parallelism).build());
+            } catch (SftpNoSuchFileException missing) {
+                return null;
+            }
+            String prefix = root.endsWith("/") ? root : root + "/";
+            Map<String, Entry> tree = new TreeMap<>();
+            for (Map.Entry<String, SftpFileInfo> e : found.entrySet()) {
+                SftpFileInfo f = e.getValue();
+                // Symbolic links are not synced, matching the local walk
+                if (f.isSymbolicLink()) continue;
+                long mtime = f.getModifiedTime() != null ? f.getModifiedTime().getEpochSecond() : -1L;
+                tree.put(e.getKey().substring(prefix.length()), new Entry(f.isDirectory(), f.getSize(), mtime));
+            }
+            return tree;
+        }
+
+        @Override
+        public void createDirectory(String rel) throws SftpClientException {
+            if (!rel.isEmpty()) {
+                sftpClient.mkdir(hostAlias, path(rel));
+                return;
+            }
+            // Create the root and any missing parents
+            List<String> missing = new ArrayList<>();
+            for (String dir = root; !dir.isEmpty() && !dir.equals("/"); dir = parentOf(dir)) {
+                missing.add(0, dir);
+            }
+            SftpClientException last = null;
+            for (String dir : missing) {
+                try {
+                    sftpClient.mkdir(hostAlias, dir);
+                    last = null;
+                } catch (SftpClientException ex) {
+                    // Existing parents fail to be created; only the last directory must succeed
+                    last = ex;
+                }
+            }
+            if (last != null) throw last;
+        }
+
+        @Override
+        public void deleteFile(String rel) throws SftpClientException {
+            sftpClient.delete(hostAlias, path(rel));
+        }
+
+        @Override
+        public void deleteDirectory(String rel) throws SftpClientException {
+            sftpClient.rmdir(hostAlias, path(rel));
+        }
+
+        @Override
+        public Map<String, String> checksums(List<String> rels) throws Exception {
+            StringBuilder command = new StringBuilder("sha256sum --");
+            Map<String, String> byPath = new TreeMap<>();
+            for (String rel : rels) {
+                String path = path(rel);
+                byPath.put(path, rel);
+                command.append(' ').append(shellQuote(path));
+            }
+            // Unreadable files make sha256sum exit non-zero but the other lines are still valid
+            ExecResult result = sshClient.exec(hostAlias, SshCommandRequest.builder(command.toString()).idempotent(true).build());
+            Map<String, String> sums = new TreeMap<>();
+            for (String line : result.getStdout().split("\n")) {
+                // Escaped names start with a backslash; those files are simply treated as changed
+                if (line.length() < 67 || line.charAt(0) == '\\') continue;
+                String rel = byPath.get(line.substring(66));
+                if (rel != null) sums.put(rel, line.substring(0, 64));
+            }
+            return sums;
+        }
+
+        @Override
+        public String path(String rel) {
+            if (rel.isEmpty()) return root;
+            return root.endsWith("/") ? root + rel : root + "/" + rel;
+        }
+
+        private String parentOf(String dir) {
+            int slash = dir.lastIndexOf('/');
+            return slash > 0 ? dir.substring(0, slash) : slash == 0 ? "/" : "";
+        }
+    }
+
+    static final class LocalEndpoint implements Endpoint {
+        private final Path root;
+
+        LocalEndpoint(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public Map<String, Entry> list(int parallelism) throws IOException {
+            if (!Files.isDirectory(root)) {
+                if (Files.exists(root)) throw new IOException("Not a directory: " + root);
+                return null;
+            }
+            Map<String, Entry> tree = new TreeMap<>();
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root)) {
+                        tree.put(relativize(dir), new Entry(true, 0L, attrs.lastModifiedTime().to(TimeUnit.SECONDS)));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // Symbolic links and special files are not synced
+                    if (attrs.isRegularFile()) {
+                        tree.put(relativize(file), new Entry(false, attrs.size(), attrs.lastModifiedTime().to(TimeUnit.SECONDS)));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return tree;
+        }
+
+        @Override
+        public void createDirectory(String rel) throws IOException {
+            Files.createDirectories(resolve(rel));
+        }
+
+        @Override
+        public void deleteFile(String rel) throws IOException {
+            Files.deleteIfExists(resolve(rel));
+        }
+
+        @Override
+        public void deleteDirectory(String rel) throws IOException {
+            Files.deleteIfExists(resolve(rel));
+        }
+
+        @Override
+        public Map<String, String> checksums(List<String> rels) throws IOException {
+            Map<String, String> sums = new TreeMap<>();
+            byte[] buf = new byte[DIGEST_BUFFER_SIZE];
+            for (String rel : rels) {
+                MessageDigest digest = sha256();
+                try (InputStream in = Files.newInputStream(resolve(rel))) {
+                    int n;
+                    while ((n = in.read(buf)) >= 0) {
+                        digest.update(buf, 0, n);
+                    }
+                } catch (NoSuchFileException missing) {
+                    continue;
+                }
+                sums.put(rel, HexFormat.of().formatHex(digest.digest()));
+            }
+            return sums;
+        }
+
+        @Override
+        public String path(String rel) {
+            return resolve(rel).toString();
+        }
+
+        Path resolve(String rel) {
+            return rel.isEmpty() ? root : root.resolve(rel);
+        }
+
+        private String relativize(Path path) {
+            return root.relativize(path).toString().replace(root.getFileSystem().getSeparator(), "/");
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.yu.jsch.sync;
+
+/**
+ * A file or directory a sync could not transfer, create or delete.
+ *
+ * @param path  path relative to the synced directories, '/'-separated
+ * @param error failure cause
+ */
+public record SyncFailure(String path, Throwable error) {
+}
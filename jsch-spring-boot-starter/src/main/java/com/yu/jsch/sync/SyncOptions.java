@@ -0,0 +1,90 @@
+package com.yu.jsch.sync;
+
+import com.yu.jsch.sftp.TransferOptions;
+
+/**
+ * Options for a directory sync.
+ */
+public final class SyncOptions {
+    /**
+     * Maximum number of files transferred, deleted or directories listed concurrently.
+     */
+    private final int parallelism;
+    /**
+     * Remove destination files and directories that do not exist in the source tree.
+     */
+    private final boolean deleteExtraneous;
+    /**
+     * Compare files of equal size by SHA-256 checksum (computed remotely with {@code sha256sum} over exec)
+     * instead of by modification time.
+     */
+    private final boolean checksum;
+    /**
+     * Options applied to each file transfer. Modification times are always preserved so that the next sync can
+     * compare them.
+     */
+    private final TransferOptions transferOptions;
+
+    private SyncOptions(Builder b) {
+        this.parallelism = b.parallelism;
+        this.deleteExtraneous = b.deleteExtraneous;
+        this.checksum = b.checksum;
+        this.transferOptions = b.transferOptions;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isDeleteExtraneous() {
+        return deleteExtraneous;
+    }
+
+    public boolean isChecksum() {
+        return checksum;
+    }
+
+    public TransferOptions getTransferOptions() {
+        return transferOptions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int parallelism = 4;
+        private boolean deleteExtraneous = false;
+        private boolean checksum = false;
+        private TransferOptions transferOptions = TransferOptions.defaults();
+
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder deleteExtraneous(boolean deleteExtraneous) {
+            this.deleteExtraneous = deleteExtraneous;
+            return this;
+        }
+
+        public Builder checksum(boolean checksum) {
+            this.checksum = checksum;
+            return this;
+        }
+
+        public Builder transferOptions(TransferOptions transferOptions) {
+            this.transferOptions = transferOptions != null ? transferOptions : TransferOptions.defaults();
+            return this;
+        }
+
+        public SyncOptions build() {
+            return new SyncOptions(this);
+        }
+    }
+
+    public static SyncOptions defaults() {
+        return builder().build();
+    }
+}
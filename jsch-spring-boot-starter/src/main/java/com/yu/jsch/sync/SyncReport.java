@@ -0,0 +1,86 @@
+package com.yu.jsch.sync;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a directory sync: what was transferred, created and deleted, and which paths failed.
+ */
+public final class SyncReport {
+
+    private final int filesTransferred;
+    private final long bytesTransferred;
+    private final int filesUnchanged;
+    private final int filesDeleted;
+    private final int directoriesCreated;
+    private final int directoriesDeleted;
+    private final List<SyncFailure> failures;
+    private final Duration elapsed;
+
+    SyncReport(int filesTransferred, long bytesTransferred, int filesUnchanged, int filesDeleted,
+               int directoriesCreated, int directoriesDeleted, List<SyncFailure> failures, Duration elapsed) {
+        this.filesTransferred = filesTransferred;
+        this.bytesTransferred = bytesTransferred;
+        this.filesUnchanged = filesUnchanged;
+        this.filesDeleted = filesDeleted;
+        this.directoriesCreated = directoriesCreated;
+        this.directoriesDeleted = directoriesDeleted;
+        this.failures = List.copyOf(failures);
+        this.elapsed = elapsed;
+    }
+
+    public int getFilesTransferred() {
+        return filesTransferred;
+    }
+
+    /**
+     * Total size of the transferred files.
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Files skipped because the destination already matched the source.
+     */
+    public int getFilesUnchanged() {
+        return filesUnchanged;
+    }
+
+    public int getFilesDeleted() {
+        return filesDeleted;
+    }
+
+    public int getDirectoriesCreated() {
+        return directoriesCreated;
+    }
+
+    public int getDirectoriesDeleted() {
+        return directoriesDeleted;
+    }
+
+    /**
+     * Paths that could not be synced, in completion order.
+     */
+    public List<SyncFailure> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Wall-clock duration of the whole sync, including listing both trees.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncReport{transferred=" + filesTransferred + " files/" + bytesTransferred + " bytes, unchanged=" + filesUnchanged
+                + ", deleted=" + filesDeleted + " files/" + directoriesDeleted + " dirs, created=" + directoriesCreated
+                + " dirs, failures=" + failures.size() + ", elapsed=" + elapsed + "}";
+    }
+}
@@ -7,6 +7,8 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 
 /**
  * Simple resource utility for reading classpath or filesystem resources.
@@ -64,4 +66,20 @@ public final class ResourceUtils {
     public static String readAsString(String location) throws IOException {
         return new String(readAllBytes(location), StandardCharsets.UTF_8);
     }
+
+    /**
+     * Modification time and size of a filesystem path (with ~ expansion), or null when it does not exist or cannot
+     * be read. Lets caches detect a changed file without reading it.
+     */
+    public static FileStamp stamp(String path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(Path.of(expandHome(path)), BasicFileAttributes.class);
+            return new FileStamp(attrs.lastModifiedTime(), attrs.size());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public record FileStamp(FileTime lastModified, long size) {
+    }
 }
@@ -0,0 +1,185 @@
+package com.yu.jsch.warmup;
+
+import com.yu.jsch.HostConfigJschSessionManager;
+import com.yu.jsch.JschSessionManager;
+import com.yu.jsch.client.HostNotFoundException;
+import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.host.HostResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connects to a set of hosts in parallel while the application starts, so sessions are already parked in the
+ * session pools when the first executions arrive. Each host gets one session through a no-op execution (which
+ * returns it to the pool) and, for {@link HostConfigJschSessionManager}, its pool is then filled to min-idle.
+ * <p>
+ * At most max-concurrency hosts are connected at once, and startup waits no longer than the timeout; hosts still
+ * connecting then finish in the background. Failures are logged and never fail startup.
+ */
+public class ConnectionWarmUp implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionWarmUp.class);
+
+    /**
+     * Below the phase in which Spring Boot starts the embedded web server, so the warm-up finishes before traffic
+     * is accepted.
+     */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final JschSessionManager sessionManager;
+    private final HostResolver resolver;
+    private final List<String> hostIds;
+    private final int maxConcurrency;
+    private final Duration timeout;
+
+    private final Map<String, WarmUpResult> results = new ConcurrentHashMap<>();
+    private volatile ExecutorService workers;
+    private volatile boolean running;
+
+    /**
+     * @param hostIds        aliases/ids to resolve and connect; duplicates are ignored
+     * @param maxConcurrency maximum hosts connected at the same time
+     * @param timeout        how long {@link #warmUp()} waits; zero or negative waits until all hosts are done
+     */
+    public ConnectionWarmUp(JschSessionManager sessionManager, HostResolver resolver, Collection<String> hostIds,
+                            int maxConcurrency, Duration timeout) {
+        this.sessionManager = Objects.requireNonNull(sessionManager, "sessionManager");
+        this.resolver = Objects.requireNonNull(resolver, "resolver");
+        this.hostIds = List.copyOf(new LinkedHashSet<>(Objects.requireNonNull(hostIds, "hostIds")));
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be > 0");
+        this.maxConcurrency = maxConcurrency;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Connect all hosts and wait up to the timeout. Returns the hosts finished so far, in the configured order.
+     */
+    public Map<String, WarmUpResult> warmUp() {
+        if (hostIds.isEmpty()) return Map.of();
+        long start = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(maxConcurrency, hostIds.size()), r -> {
+            Thread t = new Thread(r, "jsch-warm-up-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = pool;
+        CountDownLatch done = new CountDownLatch(hostIds.size());
+        for (String hostId : hostIds) {
+            pool.execute(() -> {
+                try {
+                    results.put(hostId, warmUp(hostId));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        pool.shutdown();
+        boolean completed = await(done);
+        Map<String, WarmUpResult> snapshot = results();
+        long succeeded = snapshot.values().stream().filter(WarmUpResult::isSuccess).count();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (completed) {
+            log.info("SSH warm-up connected {} of {} hosts in {} ms", succeeded, hostIds.size(), elapsedMs);
+        } else {
+            log.warn("SSH warm-up connected {} of {} hosts within {} ms; {} still connecting in the background",
+                    succeeded, hostIds.size(), elapsedMs, done.getCount());
+        }
+        return snapshot;
+    }
+
+    private boolean await(CountDownLatch done) {
+        try {
+            if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+                done.await();
+                return true;
+            }
+            return done.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private WarmUpResult warmUp(String hostId) {
+        long start = System.nanoTime();
+        try {
+            HostConfig cfg = resolver.resolve(hostId).orElseThrow(() -> new HostNotFoundException(hostId));
+            // Borrowing connects a session; returning it parks it in the host's pool
+            sessionManager.execute(cfg, session -> null);
+            if (sessionManager instanceof HostConfigJschSessionManager pooled) {
+                pooled.prewarm(cfg);
+            }
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+            log.atInfo()
+                    .addKeyValue("event", "warm-up")
+                    .addKeyValue("alias", hostId)
+                    .addKeyValue("duration_ms", duration.toMillis())
+                    .log("ssh host warmed up");
+            return new WarmUpResult(hostId, duration, null);
+        } catch (Exception e) {
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+            log.atWarn()
+                    .addKeyValue("event", "warm-up")
+                    .addKeyValue("alias", hostId)
+                    .addKeyValue("duration_ms", duration.toMillis())
+                    .addKeyValue("error", e.getClass().getSimpleName())
+                    .addKeyValue("message", e.getMessage())
+                    .log("ssh host warm-up failed");
+            return new WarmUpResult(hostId, duration, e);
+        }
+    }
+
+    /**
+     * Results of the hosts finished so far, in the configured order.
+     */
+    public Map<String, WarmUpResult> results() {
+        Map<String, WarmUpResult> ordered = new LinkedHashMap<>();
+        for (String hostId : hostIds) {
+            WarmUpResult r = results.get(hostId);
+            if (r != null) ordered.put(hostId, r);
+        }
+        return ordered;
+    }
+
+    @Override
+    public void start() {
+        if (running) return;
+        running = true;
+        warmUp();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        ExecutorService pool = workers;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.yu.jsch.warmup;
+
+import java.time.Duration;
+
+/**
+ * Outcome of warming up one host.
+ *
+ * @param hostId   alias or id the host was resolved by
+ * @param duration time to resolve the host and connect its first session
+ * @param error    the failure, or null when a session was connected
+ */
+public record WarmUpResult(String hostId, Duration duration, Exception error) {
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
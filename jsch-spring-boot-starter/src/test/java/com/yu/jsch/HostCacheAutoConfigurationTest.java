@@ -0,0 +1,89 @@
+package com.yu.jsch;
+
+import com.yu.jsch.host.CachingHostResolver;
+import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.host.HostResolver;
+import com.yu.jsch.host.PropertiesHostResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostCacheAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JschAutoConfiguration.class));
+
+    @Test
+    void noCacheByDefault() {
+        runner.run(context -> {
+            assertThat(context).doesNotHaveBean(CachingHostResolver.class);
+            assertThat(context.getBean(HostResolver.class)).isInstanceOf(PropertiesHostResolver.class);
+        });
+    }
+
+    @Test
+    void cachesTheDefaultResolver() {
+        runner.withPropertyValues("ssh.host-cache.enabled=true", "ssh.host-cache.ttl=1m")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(PropertiesHostResolver.class);
+                    assertThat(context.getBean(HostResolver.class)).isInstanceOf(CachingHostResolver.class);
+                });
+    }
+
+    @Test
+    void cachesAnApplicationResolverThatStaysInjectableByItsType() {
+        runner.withUserConfiguration(DatabaseResolverConfig.class)
+                .withPropertyValues("ssh.host-cache.enabled=true")
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(PropertiesHostResolver.class);
+                    DatabaseHostResolver database = context.getBean(DatabaseHostResolver.class);
+                    HostResolver resolver = context.getBean(HostResolver.class);
+                    assertThat(resolver).isInstanceOf(CachingHostResolver.class);
+
+                    resolver.resolve("db-1");
+                    resolver.resolve("db-1");
+                    assertThat(database.calls).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void failsWhenTheApplicationResolverIsPrimary() {
+        runner.withUserConfiguration(PrimaryResolverConfig.class)
+                .withPropertyValues("ssh.host-cache.enabled=true")
+                .run(context -> assertThat(context).hasFailed());
+    }
+
+    static class DatabaseHostResolver implements HostResolver {
+        int calls;
+
+        @Override
+        public Optional<HostConfig> resolve(String hostId) {
+            calls++;
+            return Optional.of(HostConfig.builder().host("10.0.0.1").port(22).username("deploy").build());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class DatabaseResolverConfig {
+        @Bean
+        DatabaseHostResolver databaseHostResolver() {
+            return new DatabaseHostResolver();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class PrimaryResolverConfig {
+        @Bean
+        @Primary
+        DatabaseHostResolver databaseHostResolver() {
+            return new DatabaseHostResolver();
+        }
+    }
+}
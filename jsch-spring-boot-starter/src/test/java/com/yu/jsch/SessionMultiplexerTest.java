@@ -0,0 +1,173 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.yu.jsch.observability.ObservabilityConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SessionMultiplexerTest {
+
+    private final List<SessionMultiplexer> multiplexers = new ArrayList<>();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @AfterEach
+    void close() {
+        unblock.countDown();
+        multiplexers.forEach(SessionMultiplexer::close);
+    }
+
+    @Test
+    void fillsASessionBeforeConnectingAnother() throws Exception {
+        StubFactory factory = new StubFactory();
+        SessionMultiplexer mux = multiplexer(factory.factory, props(2, 3, 0));
+
+        List<SessionMultiplexer.Lease> leases = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            leases.add(mux.acquire());
+        }
+        assertThat(factory.connects.get()).isEqualTo(1);
+        assertThat(leases).extracting(SessionMultiplexer.Lease::session).containsOnly(leases.get(0).session());
+
+        leases.add(mux.acquire());
+        assertThat(factory.connects.get()).isEqualTo(2);
+
+        MultiplexingJschSessionManager.MultiplexStats stats = mux.stats();
+        assertThat(stats.sessions()).isEqualTo(2);
+        assertThat(stats.activeSessions()).isEqualTo(2);
+        assertThat(stats.channelsInUse()).isEqualTo(4);
+        assertThat(stats.maxChannelsPerSession()).isEqualTo(3);
+    }
+
+    @Test
+    void leasesTheLeastLoadedSessionAndFreesSlotsOnClose() throws Exception {
+        StubFactory factory = new StubFactory();
+        SessionMultiplexer mux = multiplexer(factory.factory, props(2, 2, 0));
+        SessionMultiplexer.Lease a1 = mux.acquire();
+        SessionMultiplexer.Lease a2 = mux.acquire();
+        SessionMultiplexer.Lease b1 = mux.acquire();
+
+        a1.close();
+        a2.close();
+        a2.close(); // closing twice frees the slot once
+
+        SessionMultiplexer.Lease next = mux.acquire();
+        assertThat(next.session()).isSameAs(a1.session());
+        assertThat(mux.stats().channelsInUse()).isEqualTo(2);
+        assertThat(factory.connects.get()).isEqualTo(2);
+        b1.close();
+        next.close();
+        assertThat(mux.stats().channelsInUse()).isZero();
+        assertThat(mux.stats().sessions()).isEqualTo(2);
+    }
+
+    @Test
+    void waitsAtMostMaxWaitWhenEverySlotIsTaken() throws Exception {
+        StubFactory factory = new StubFactory();
+        SessionPoolProperties props = props(1, 2, 0);
+        props.setMaxWait(Duration.ofMillis(50));
+        SessionMultiplexer mux = multiplexer(factory.factory, props);
+        mux.acquire();
+        SessionMultiplexer.Lease second = mux.acquire();
+
+        assertThatThrownBy(mux::acquire).isInstanceOf(JSchException.class).hasMessageContaining("No SSH session slot");
+
+        second.close();
+        assertThat(mux.acquire().session()).isSameAs(second.session());
+    }
+
+    @Test
+    void refusedChannelLowersOnlyThatSessionsLimit() throws Exception {
+        StubFactory factory = new StubFactory();
+        SessionMultiplexer mux = multiplexer(factory.factory, props(2, 4, 0));
+        SessionMultiplexer.Lease first = mux.acquire();
+        SessionMultiplexer.Lease second = mux.acquire();
+
+        assertThatThrownBy(() -> mux.execute(session -> {
+            throw new JSchException("channel is not opened.");
+        })).isInstanceOf(JSchException.class);
+        assertThat(mux.stats().maxChannelsPerSession()).isEqualTo(2);
+
+        // The first session is full at its lowered limit; a new session starts at the configured limit
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sessions.add(mux.acquire().session());
+        }
+        assertThat(factory.connects.get()).isEqualTo(2);
+        assertThat(sessions).doesNotContain(first.session()).containsOnly(sessions.get(0));
+        second.close();
+    }
+
+    @Test
+    void refillOfASlowHostDoesNotHoldUpOtherHosts() throws Exception {
+        StubFactory blocked = new StubFactory();
+        blocked.block = true;
+        StubFactory fast = new StubFactory();
+        SessionPoolProperties props = props(2, 2, 1);
+        props.setEvictionInterval(Duration.ofMillis(20));
+        multiplexer(blocked.factory, props);
+        SessionMultiplexer other = multiplexer(fast.factory, props);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (other.stats().sessions() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(other.stats().sessions()).isEqualTo(1);
+        assertThat(blocked.connects.get()).isEqualTo(1);
+    }
+
+    private SessionMultiplexer multiplexer(JschSessionFactory factory, SessionPoolProperties props) {
+        SessionMultiplexer mux = new SessionMultiplexer(factory, props, List.of(), ObservabilityConfig.disabled(), "test");
+        multiplexers.add(mux);
+        return mux;
+    }
+
+    private static SessionPoolProperties props(int maxTotal, int channels, int minIdle) {
+        SessionPoolProperties props = new SessionPoolProperties();
+        props.setEnabled(true);
+        props.setMultiplex(true);
+        props.setMaxTotal(maxTotal);
+        props.setMaxChannelsPerSession(channels);
+        props.setMinIdle(minIdle);
+        props.setMaxWait(Duration.ofSeconds(5));
+        props.setEvictionInterval(Duration.ZERO);
+        return props;
+    }
+
+    /**
+     * Session factory handing out connected session mocks; with {@code block} set, connecting hangs until the test ends.
+     */
+    private final class StubFactory {
+        final JschSessionFactory factory = mock(JschSessionFactory.class);
+        final AtomicInteger connects = new AtomicInteger();
+        volatile boolean block;
+
+        StubFactory() {
+            try {
+                when(factory.createAndConnect(any(), any())).thenAnswer(inv -> {
+                    connects.incrementAndGet();
+                    if (block) unblock.await();
+                    Session session = mock(Session.class);
+                    when(session.isConnected()).thenReturn(true);
+                    return session;
+                });
+            } catch (JSchException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
+import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.strategy.ExponentialBackoffRetryStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SftpTemplateDownloadRetryTest {
+
+    private static final String PATH = "/data/report.csv";
+    private static final byte[] CONTENT = "id,name\n1,alpha\n2,beta\n3,gamma\n".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void retriedDownloadResumesAtTheBytesAlreadyRead() throws Exception {
+        int failAfter = 10;
+        ChannelSftp sftp = mock(ChannelSftp.class);
+        SftpATTRS attrs = mock(SftpATTRS.class);
+        when(attrs.getSize()).thenReturn((long) CONTENT.length);
+        when(sftp.stat(PATH)).thenReturn(attrs);
+        when(sftp.get(PATH, null, 0L)).thenReturn(new FailingInputStream(Arrays.copyOf(CONTENT, failAfter)));
+        when(sftp.get(PATH, null, (long) failAfter))
+                .thenReturn(new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, failAfter, CONTENT.length)));
+
+        SftpTemplate template = new SftpTemplate(sessionManager(), channelFactory(sftp),
+                ExponentialBackoffRetryStrategy.builder().maxAttempts(2).baseDelayMillis(1).build());
+
+        assertThat(template.download(PATH, 1000)).isEqualTo(CONTENT);
+        // The int overload is the transfer mode, which always reads from offset 0
+        verify(sftp, never()).get(any(String.class), isNull(), anyInt());
+    }
+
+    private static JschSessionManager sessionManager() {
+        Session session = mock(Session.class);
+        return new JschSessionManager() {
+            @Override
+            public <T> T execute(SessionCallback<T> callback) throws Exception {
+                return callback.doInSession(session);
+            }
+
+            @Override
+            public boolean isValid(Session s) {
+                return true;
+            }
+
+            @Override
+            public void close(Session s) {
+            }
+        };
+    }
+
+    private static SftpChannelFactory channelFactory(ChannelSftp sftp) {
+        return new SftpChannelFactory() {
+            @Override
+            public ChannelSftp open(Session session, int connectTimeoutMillis) {
+                return sftp;
+            }
+        };
+    }
+
+    /**
+     * Yields its bytes, then fails like a dropped connection.
+     */
+    private static final class FailingInputStream extends InputStream {
+        private final ByteArrayInputStream data;
+
+        FailingInputStream(byte[] bytes) {
+            this.data = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = data.read();
+            if (b < 0) throw new IOException("connection reset");
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = data.read(b, off, len);
+            if (n < 0) throw new IOException("connection reset");
+            return n;
+        }
+    }
+}
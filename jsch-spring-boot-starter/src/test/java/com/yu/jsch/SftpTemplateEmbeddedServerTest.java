@@ -0,0 +1,136 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.Session;
+import com.yu.jsch.auth.PasswordAuthStrategy;
+import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.sftp.TransferOptions;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs file transfers through a real JSch ChannelSftp against an in-process SFTP server, so a JSch upgrade that
+ * changes how transfer modes are opened fails here.
+ */
+class SftpTemplateEmbeddedServerTest {
+
+    private static final String USERNAME = "test";
+    private static final String PASSWORD = "test";
+
+    @TempDir
+    static Path root;
+
+    @TempDir
+    Path local;
+
+    private static SshServer sshd;
+    private static JschSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        Files.createDirectories(root.resolve("data"));
+        sshd = SshServer.setUpDefaultServer();
+        sshd.setHost("127.0.0.1");
+        sshd.setPort(0);
+        sshd.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(root.resolve(".hostkey.ser")));
+        sshd.setPasswordAuthenticator((username, password, session) -> USERNAME.equals(username) && PASSWORD.equals(password));
+        sshd.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        sshd.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        sshd.start();
+        JSch jsch = new JSch();
+        sessionFactory = JschSessionFactory.builder()
+                .jsch(() -> jsch)
+                .host("127.0.0.1")
+                .port(sshd.getPort())
+                .username(USERNAME)
+                .connectTimeoutMillis(5000)
+                .socketTimeoutMillis(30000)
+                .knownHostsMode(KnownHostsMode.OFF)
+                .authStrategy(new PasswordAuthStrategy(PASSWORD))
+                .build();
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        if (sshd != null) sshd.stop(true);
+    }
+
+    @Test
+    void writeAtOffsetModeWritesInPlaceWithoutTruncating() throws Exception {
+        Files.writeString(root.resolve("data/digits.txt"), "0123456789");
+        Session session = sessionFactory.createAndConnect();
+        try {
+            ChannelSftp sftp = new SftpChannelFactory().open(session, 5000);
+            try {
+                try (OutputStream out = sftp.put("/data/digits.txt", null, SftpTemplate.WRITE_AT_OFFSET, 4L)) {
+                    out.write("ab".getBytes(StandardCharsets.US_ASCII));
+                }
+                try (OutputStream out = sftp.put("/data/new.txt", null, SftpTemplate.WRITE_AT_OFFSET, 0L)) {
+                    out.write("new".getBytes(StandardCharsets.US_ASCII));
+                }
+            } finally {
+                sftp.disconnect();
+            }
+        } finally {
+            session.disconnect();
+        }
+
+        assertThat(root.resolve("data/digits.txt")).hasContent("0123ab6789");
+        assertThat(root.resolve("data/new.txt")).hasContent("new");
+    }
+
+    @Test
+    void parallelRangesRoundTripTheExactBytes() throws Exception {
+        byte[] content = new byte[700_000];
+        new Random(11).nextBytes(content);
+        Path source = local.resolve("source.bin");
+        Files.write(source, content);
+        TransferOptions ranges = TransferOptions.builder().parallelism(4).chunkSizeBytes(100_000).build();
+        SftpTemplate template = new SftpTemplate(new SingleUseJschSessionManager(sessionFactory));
+
+        template.upload(source, "/data/atomic.bin", ranges);
+        template.upload(source, "/data/direct.bin", ranges.toBuilder().atomic(false).build());
+        template.download("/data/atomic.bin", local.resolve("copy.bin"), ranges);
+
+        assertThat(root.resolve("data/atomic.bin")).hasBinaryContent(content);
+        assertThat(root.resolve("data/direct.bin")).hasBinaryContent(content);
+        assertThat(local.resolve("copy.bin")).hasBinaryContent(content);
+    }
+
+    @Test
+    void resumedUploadRewritesTheRangesAfterTheCheckpoint() throws Exception {
+        byte[] content = new byte[500_000];
+        new Random(13).nextBytes(content);
+        Path source = local.resolve("source.bin");
+        Files.write(source, content);
+        // Left by a crashed parallel upload: full size, but a hole after the recorded offset
+        byte[] partial = content.clone();
+        Arrays.fill(partial, 200_000, 300_000, (byte) 0);
+        Files.write(root.resolve("data/.tmp-resumed.bin.part"), partial);
+        Files.writeString(root.resolve("data/.tmp-resumed.bin.part.checkpoint"), "200000");
+        TransferOptions resume = TransferOptions.builder().parallelism(4).chunkSizeBytes(100_000).resume(true).build();
+
+        new SftpTemplate(new SingleUseJschSessionManager(sessionFactory)).upload(source, "/data/resumed.bin", resume);
+
+        assertThat(root.resolve("data/resumed.bin")).hasBinaryContent(content);
+        assertThat(root.resolve("data/.tmp-resumed.bin.part")).doesNotExist();
+        assertThat(root.resolve("data/.tmp-resumed.bin.part.checkpoint")).doesNotExist();
+    }
+}
@@ -0,0 +1,358 @@
+package com.yu.jsch;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import com.yu.jsch.channel.SftpChannelFactory;
+import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.sftp.TransferOptions;
+import com.yu.jsch.strategy.ExponentialBackoffRetryStrategy;
+import com.yu.jsch.strategy.NoRetryStrategy;
+import com.yu.jsch.strategy.RetryStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SftpTemplateRangeTransferTest {
+
+    private static final int CHUNK = 64 * 1024;
+    private static final byte[] CONTENT = content(5 * CHUNK + 1234);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parallelDownloadRetriesAFailedRangeFromItsCheckpoint() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.files.put("/data/file.bin", CONTENT.clone());
+        // Second read of the second range
+        remote.failReadAt.set(3L * CHUNK + 100);
+        Path local = dir.resolve("file.bin");
+
+        template(remote, retries()).download("/data/file.bin", local, twoBlockRanges());
+
+        assertThat(Files.readAllBytes(local)).isEqualTo(CONTENT);
+        assertThat(remote.readOffsets).containsExactlyInAnyOrder(0L, 2L * CHUNK, 3L * CHUNK, 4L * CHUNK);
+        assertThat(dir.resolve("file.bin.checkpoint")).doesNotExist();
+    }
+
+    @Test
+    void parallelUploadRetriesAFailedRange() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.failWriteAt.set(3L * CHUNK + 100);
+        Path local = dir.resolve("file.bin");
+        Files.write(local, CONTENT);
+
+        template(remote, retries()).upload(local, "/data/file.bin", twoBlockRanges());
+
+        assertThat(remote.files.get("/data/file.bin")).isEqualTo(CONTENT);
+        assertThat(remote.files).containsOnlyKeys("/data/file.bin");
+        // Acknowledged bytes are checkpointed per flush, so the failed range is written again from its start
+        assertThat(remote.writes).filteredOn(w -> w.endsWith("@" + 2L * CHUNK)).hasSize(2);
+    }
+
+    @Test
+    void memoryMappedParallelUploadWritesEveryRange() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        Path local = dir.resolve("file.bin");
+        Files.write(local, CONTENT);
+
+        template(remote, new NoRetryStrategy()).upload(local, "/data/file.bin",
+                twoBlockRanges().toBuilder().memoryMapped(true).build());
+
+        assertThat(remote.files.get("/data/file.bin")).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void resumedDownloadDoesNotTrustHolesBeforeTheCheckpoint() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.files.put("/data/file.bin", CONTENT.clone());
+        // A crashed parallel download: full size, right tail, but a range before it never arrived
+        Path local = dir.resolve("file.bin");
+        byte[] partial = CONTENT.clone();
+        Arrays.fill(partial, 2 * CHUNK, 3 * CHUNK, (byte) 0);
+        Files.write(local, partial);
+        Files.writeString(dir.resolve("file.bin.checkpoint"), String.valueOf(2 * CHUNK));
+
+        template(remote, new NoRetryStrategy()).download("/data/file.bin", local, parallel(true));
+
+        assertThat(Files.readAllBytes(local)).isEqualTo(CONTENT);
+        assertThat(dir.resolve("file.bin.checkpoint")).doesNotExist();
+        // The tail check before the checkpoint, then only the ranges after it
+        assertThat(remote.readOffsets).doesNotContain(0L);
+    }
+
+    @Test
+    void failedParallelDownloadKeepsOnlyTheContiguousPrefix() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.files.put("/data/file.bin", CONTENT.clone());
+        remote.failReadAt.set(2L * CHUNK + 100);
+        Path local = dir.resolve("file.bin");
+
+        assertThatThrownBy(() -> template(remote, new NoRetryStrategy()).download("/data/file.bin", local, parallel(false)))
+                .isInstanceOf(SftpClientException.class);
+
+        byte[] kept = Files.readAllBytes(local);
+        assertThat(kept.length).isLessThanOrEqualTo(2 * CHUNK + 100);
+        assertThat(kept).isEqualTo(Arrays.copyOf(CONTENT, kept.length));
+        assertThat(dir.resolve("file.bin.checkpoint")).doesNotExist();
+
+        template(remote, new NoRetryStrategy()).download("/data/file.bin", local, parallel(true));
+        assertThat(Files.readAllBytes(local)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void failedNonAtomicParallelUploadRecordsItsCheckpointForALaterResume() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.failWriteAt.set(2L * CHUNK + 100);
+        Path local = dir.resolve("file.bin");
+        Files.write(local, CONTENT);
+        TransferOptions nonAtomic = parallel(false).toBuilder().atomic(false).build();
+
+        assertThatThrownBy(() -> template(remote, new NoRetryStrategy()).upload(local, "/data/file.bin", nonAtomic))
+                .isInstanceOf(SftpClientException.class);
+        String recorded = new String(remote.files.get("/data/file.bin.checkpoint"), StandardCharsets.US_ASCII);
+        assertThat(Long.parseLong(recorded)).isLessThanOrEqualTo(2L * CHUNK);
+
+        template(remote, new NoRetryStrategy()).upload(local, "/data/file.bin", nonAtomic.toBuilder().resume(true).build());
+
+        assertThat(remote.files.get("/data/file.bin")).isEqualTo(CONTENT);
+        assertThat(remote.files).doesNotContainKey("/data/file.bin.checkpoint");
+    }
+
+    @Test
+    void resumedUploadRewritesTheRangesAfterTheCheckpoint() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        byte[] partial = CONTENT.clone();
+        Arrays.fill(partial, CHUNK, 2 * CHUNK, (byte) 0);
+        remote.files.put("/data/.tmp-file.bin.part", partial);
+        remote.files.put("/data/.tmp-file.bin.part.checkpoint", String.valueOf(CHUNK).getBytes(StandardCharsets.US_ASCII));
+        Path local = dir.resolve("file.bin");
+        Files.write(local, CONTENT);
+
+        template(remote, new NoRetryStrategy()).upload(local, "/data/file.bin", parallel(true));
+
+        assertThat(remote.files.get("/data/file.bin")).isEqualTo(CONTENT);
+        assertThat(remote.files).containsOnlyKeys("/data/file.bin");
+        assertThat(remote.writes).doesNotContain("/data/.tmp-file.bin.part@0");
+    }
+
+    @Test
+    void partialWrittenInOrderIsResumedFromItsEnd() throws Exception {
+        FakeRemote remote = new FakeRemote();
+        remote.files.put("/data/file.bin", CONTENT.clone());
+        Path local = dir.resolve("file.bin");
+        Files.write(local, Arrays.copyOf(CONTENT, 3 * CHUNK));
+
+        template(remote, new NoRetryStrategy()).download("/data/file.bin", local,
+                TransferOptions.builder().resume(true).build());
+
+        assertThat(Files.readAllBytes(local)).isEqualTo(CONTENT);
+        // The tail check, then the rest of the file
+        assertThat(remote.readOffsets).containsExactly(2L * CHUNK, 3L * CHUNK);
+    }
+
+    private static TransferOptions parallel(boolean resume) {
+        return TransferOptions.builder().parallelism(3).chunkSizeBytes(CHUNK).resume(resume).build();
+    }
+
+    private static TransferOptions twoBlockRanges() {
+        return TransferOptions.builder().parallelism(2).chunkSizeBytes(2L * CHUNK).build();
+    }
+
+    private static RetryStrategy retries() {
+        return ExponentialBackoffRetryStrategy.builder().maxAttempts(3).baseDelayMillis(1).build();
+    }
+
+    private static SftpTemplate template(FakeRemote remote, RetryStrategy retry) {
+        Session session = mock(Session.class);
+        JschSessionManager sessions = new JschSessionManager() {
+            @Override
+            public <T> T execute(SessionCallback<T> callback) throws Exception {
+                return callback.doInSession(session);
+            }
+
+            @Override
+            public boolean isValid(Session s) {
+                return true;
+            }
+
+            @Override
+            public void close(Session s) {
+            }
+        };
+        return new SftpTemplate(sessions, new SftpChannelFactory() {
+            @Override
+            public ChannelSftp open(Session s, int connectTimeoutMillis) {
+                return remote.sftp;
+            }
+        }, retry);
+    }
+
+    private static byte[] content(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static SftpException noSuchFile(String path) {
+        return new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "No such file: " + path);
+    }
+
+    /**
+     * In-memory remote file system behind a mocked ChannelSftp. Reads and writes crossing the armed fail offsets fail
+     * once, like a dropped connection, after transferring the bytes before it.
+     */
+    private static final class FakeRemote {
+        final Map<String, byte[]> files = Collections.synchronizedMap(new HashMap<>());
+        final List<Long> readOffsets = new CopyOnWriteArrayList<>();
+        final List<String> writes = new CopyOnWriteArrayList<>();
+        final AtomicLong failReadAt = new AtomicLong(-1L);
+        final AtomicLong failWriteAt = new AtomicLong(-1L);
+        final ChannelSftp sftp = mock(ChannelSftp.class);
+
+        FakeRemote() throws Exception {
+            Session session = mock(Session.class);
+            when(sftp.getSession()).thenReturn(session);
+            when(sftp.stat(anyString())).thenAnswer(inv -> {
+                byte[] data = existing(inv.getArgument(0));
+                SftpATTRS attrs = mock(SftpATTRS.class);
+                when(attrs.getSize()).thenReturn((long) data.length);
+                return attrs;
+            });
+            when(sftp.get(anyString())).thenAnswer(inv -> new ByteArrayInputStream(existing(inv.getArgument(0))));
+            when(sftp.get(anyString(), isNull(), anyLong())).thenAnswer(inv -> {
+                long offset = inv.getArgument(2);
+                readOffsets.add(offset);
+                return new RemoteInput(existing(inv.getArgument(0)), offset);
+            });
+            when(sftp.put(anyString(), isNull(), anyInt(), anyLong())).thenAnswer(inv -> {
+                String path = inv.getArgument(0);
+                int mode = inv.getArgument(2);
+                long offset = inv.getArgument(3);
+                writes.add(path + "@" + offset);
+                if (mode == ChannelSftp.OVERWRITE) {
+                    files.put(path, new byte[0]);
+                } else {
+                    files.putIfAbsent(path, new byte[0]);
+                }
+                return new RemoteOutput(path, offset);
+            });
+            doAnswer(inv -> {
+                String path = inv.getArgument(0);
+                if (files.remove(path) == null) throw noSuchFile(path);
+                return null;
+            }).when(sftp).rm(anyString());
+            doAnswer(inv -> {
+                String from = inv.getArgument(0);
+                byte[] data = files.remove(from);
+                if (data == null) throw noSuchFile(from);
+                files.put(inv.getArgument(1), data);
+                return null;
+            }).when(sftp).rename(anyString(), anyString());
+        }
+
+        private byte[] existing(String path) throws SftpException {
+            byte[] data = files.get(path);
+            if (data == null) throw noSuchFile(path);
+            return data;
+        }
+
+        private static boolean crosses(AtomicLong failAt, long from, long to) {
+            long at = failAt.get();
+            return at >= from && at < to && failAt.compareAndSet(at, -1L);
+        }
+
+        private final class RemoteInput extends InputStream {
+            private final byte[] data;
+            private long position;
+
+            RemoteInput(byte[] data, long position) {
+                this.data = data;
+                this.position = position;
+            }
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (position >= data.length) return -1;
+                int n = (int) Math.min(len, data.length - position);
+                if (crosses(failReadAt, position, position + n)) {
+                    throw new IOException("connection reset");
+                }
+                System.arraycopy(data, (int) position, b, off, n);
+                position += n;
+                return n;
+            }
+        }
+
+        private final class RemoteOutput extends OutputStream {
+            private final String path;
+            private long position;
+
+            RemoteOutput(String path, long position) {
+                this.path = path;
+                this.position = position;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                long at = failWriteAt.get();
+                if (crosses(failWriteAt, position, position + len)) {
+                    int before = (int) (at - position);
+                    writeAt(b, off, before);
+                    throw new IOException("connection reset");
+                }
+                writeAt(b, off, len);
+            }
+
+            private void writeAt(byte[] b, int off, int len) {
+                synchronized (files) {
+                    byte[] data = files.getOrDefault(path, new byte[0]);
+                    if (position + len > data.length) {
+                        data = Arrays.copyOf(data, (int) (position + len));
+                    }
+                    System.arraycopy(b, off, data, (int) position, len);
+                    files.put(path, data);
+                }
+                position += len;
+            }
+        }
+    }
+}
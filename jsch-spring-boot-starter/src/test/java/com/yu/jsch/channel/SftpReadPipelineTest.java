@@ -0,0 +1,206 @@
+package com.yu.jsch.channel;
+
+import com.jcraft.jsch.ChannelSubsystem;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SftpReadPipelineTest {
+
+    private static final int SSH_FXP_VERSION = 2;
+    private static final int SSH_FXP_OPEN = 3;
+    private static final int SSH_FXP_CLOSE = 4;
+    private static final int SSH_FXP_READ = 5;
+    private static final int SSH_FXP_STATUS = 101;
+    private static final int SSH_FXP_HANDLE = 102;
+    private static final int SSH_FXP_DATA = 103;
+
+    private Thread server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) server.interrupt();
+    }
+
+    @Test
+    void readsWithTheSessionsMaxPacketSize() throws Exception {
+        byte[] content = new byte[40_000];
+        new Random(7).nextBytes(content);
+        FakeServer fake = new FakeServer(Map.of("/a.bin", content), true);
+        Session session = session(fake, "16384", 0);
+
+        byte[][] read = new byte[1][];
+        try (SftpReadPipeline pipeline = SftpReadPipeline.open(session, 0)) {
+            pipeline.readAll(List.of("/a.bin"), 4, 0, new SftpReadPipeline.Listener() {
+                @Override
+                public void completed(int index, byte[] data) {
+                    read[0] = data;
+                }
+
+                @Override
+                public void failed(int index, Exception error) throws Exception {
+                    throw error;
+                }
+            });
+        }
+
+        assertThat(read[0]).isEqualTo(content);
+        assertThat(fake.readLengths).isNotEmpty().containsOnly(16384);
+    }
+
+    @Test
+    void capsTheReadSizeAt32KiB() throws Exception {
+        Session session = mock(Session.class);
+        when(session.getConfig(ChannelTuning.MAX_PACKET_SIZE_KEY)).thenReturn(String.valueOf(256 * 1024));
+
+        assertThat(ChannelTuning.sftpReadSize(session)).isEqualTo(32 * 1024);
+        assertThat(ChannelTuning.sftpReadSize(mock(Session.class))).isEqualTo(32 * 1024);
+    }
+
+    @Test
+    void failsWhenTheServerStopsAnsweringWithinTheReadTimeout() throws Exception {
+        FakeServer fake = new FakeServer(Map.of(), false);
+        Session session = session(fake, null, 200);
+
+        long start = System.nanoTime();
+        try (SftpReadPipeline pipeline = SftpReadPipeline.open(session, 0)) {
+            assertThatThrownBy(() -> pipeline.readAll(List.of("/a.bin"), 1, 0, new SftpReadPipeline.Listener() {
+                @Override
+                public void completed(int index, byte[] data) {
+                }
+
+                @Override
+                public void failed(int index, Exception error) {
+                }
+            })).isInstanceOf(SocketTimeoutException.class);
+        }
+        assertThat(System.nanoTime() - start).isLessThan(5_000_000_000L);
+    }
+
+    private Session session(FakeServer fake, String maxPacketSize, int timeoutMillis) throws Exception {
+        PipedInputStream clientIn = new PipedInputStream(256 * 1024);
+        PipedOutputStream serverOut = new PipedOutputStream(clientIn);
+        PipedInputStream serverIn = new PipedInputStream(256 * 1024);
+        PipedOutputStream clientOut = new PipedOutputStream(serverIn);
+
+        ChannelSubsystem channel = mock(ChannelSubsystem.class);
+        when(channel.getInputStream()).thenReturn(clientIn);
+        when(channel.getOutputStream()).thenReturn(clientOut);
+        doAnswer(inv -> {
+            serverOut.close();
+            return null;
+        }).when(channel).disconnect();
+
+        Session session = mock(Session.class);
+        when(session.openChannel("subsystem")).thenReturn(channel);
+        when(session.getConfig(ChannelTuning.MAX_PACKET_SIZE_KEY)).thenReturn(maxPacketSize);
+        when(session.getTimeout()).thenReturn(timeoutMillis);
+
+        server = new Thread(() -> fake.serve(new DataInputStream(serverIn), new DataOutputStream(serverOut)));
+        server.setDaemon(true);
+        server.start();
+        return session;
+    }
+
+    /**
+     * Answers INIT, and OPEN/READ/CLOSE for in-memory files when {@code answerRequests} is set.
+     */
+    private static final class FakeServer {
+        private final Map<String, byte[]> files;
+        private final boolean answerRequests;
+        private final Map<String, String> handles = new ConcurrentHashMap<>();
+        final List<Integer> readLengths = new CopyOnWriteArrayList<>();
+
+        FakeServer(Map<String, byte[]> files, boolean answerRequests) {
+            this.files = files;
+            this.answerRequests = answerRequests;
+        }
+
+        void serve(DataInputStream in, DataOutputStream out) {
+            try {
+                in.readInt();
+                in.readByte();
+                in.readInt();
+                out.writeInt(5);
+                out.writeByte(SSH_FXP_VERSION);
+                out.writeInt(3);
+                out.flush();
+                while (!Thread.currentThread().isInterrupted()) {
+                    byte[] packet = new byte[in.readInt()];
+                    in.readFully(packet);
+                    if (answerRequests) answer(new DataInputStream(new ByteArrayInputStream(packet)), out);
+                }
+            } catch (IOException ignore) {
+            }
+        }
+
+        private void answer(DataInputStream req, DataOutputStream out) throws IOException {
+            int type = req.readUnsignedByte();
+            int id = req.readInt();
+            String name = readString(req);
+            switch (type) {
+                case SSH_FXP_OPEN -> {
+                    handles.put("h" + id, name);
+                    byte[] handle = ("h" + id).getBytes();
+                    out.writeInt(1 + 4 + 4 + handle.length);
+                    out.writeByte(SSH_FXP_HANDLE);
+                    out.writeInt(id);
+                    out.writeInt(handle.length);
+                    out.write(handle);
+                }
+                case SSH_FXP_READ -> {
+                    long offset = req.readLong();
+                    int len = req.readInt();
+                    readLengths.add(len);
+                    byte[] content = files.get(handles.get(name));
+                    if (offset >= content.length) {
+                        status(out, id, 1);
+                    } else {
+                        byte[] chunk = Arrays.copyOfRange(content, (int) offset, (int) Math.min(content.length, offset + len));
+                        out.writeInt(1 + 4 + 4 + chunk.length);
+                        out.writeByte(SSH_FXP_DATA);
+                        out.writeInt(id);
+                        out.writeInt(chunk.length);
+                        out.write(chunk);
+                    }
+                }
+                case SSH_FXP_CLOSE -> status(out, id, 0);
+                default -> status(out, id, 8);
+            }
+            out.flush();
+        }
+
+        private static void status(DataOutputStream out, int id, int code) throws IOException {
+            out.writeInt(1 + 4 + 4);
+            out.writeByte(SSH_FXP_STATUS);
+            out.writeInt(id);
+            out.writeInt(code);
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            byte[] b = new byte[in.readInt()];
+            in.readFully(b);
+            return new String(b);
+        }
+    }
+}
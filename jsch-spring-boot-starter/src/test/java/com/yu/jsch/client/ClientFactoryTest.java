@@ -0,0 +1,64 @@
+package com.yu.jsch.client;
+
+import com.yu.jsch.AuthType;
+import com.yu.jsch.SshProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientFactoryTest {
+
+    @Test
+    void buildsClientsWithoutConnecting() {
+        SshProperties props = new SshProperties();
+        props.getHosts().put("web", host("web.example.com", AuthType.PASSWORD, "secret", null));
+        props.getHosts().put("db", host("db.example.com", AuthType.PUBLIC_KEY, null, "/keys/id_rsa"));
+        ClientFactory.Builder builder = ClientFactory.builder(props);
+
+        assertThat(builder.buildSshClient()).isNotNull();
+        assertThat(builder.buildSftpClient()).isNotNull();
+        builder.contextRegistry().close();
+    }
+
+    @Test
+    void rejectsMissingAuthenticationTypeAtBuildTime() {
+        SshProperties props = new SshProperties();
+        props.getHosts().put("web", host("web.example.com", AuthType.PASSWORD, "secret", null));
+        props.getHosts().put("broken", host("broken.example.com", null, null, null));
+
+        assertThatThrownBy(() -> ClientFactory.builder(props).buildSshClient())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ssh.hosts.broken.authentication.type");
+    }
+
+    @Test
+    void rejectsBlankPasswordAtBuildTime() {
+        SshProperties props = new SshProperties();
+        props.getHosts().put("web", host("web.example.com", AuthType.PASSWORD, " ", null));
+
+        assertThatThrownBy(() -> ClientFactory.builder(props).buildSftpClient())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("password is required");
+    }
+
+    @Test
+    void rejectsMissingPrivateKeyAtBuildTime() {
+        SshProperties props = new SshProperties();
+        props.getHosts().put("web", host("web.example.com", AuthType.PUBLIC_KEY, null, null));
+
+        assertThatThrownBy(() -> ClientFactory.builder(props).buildSshClient())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("private-key-path or private-key");
+    }
+
+    private static SshProperties.Host host(String hostname, AuthType type, String password, String keyPath) {
+        SshProperties.Host host = new SshProperties.Host();
+        host.setHost(hostname);
+        host.setUsername("deploy");
+        host.getAuthentication().setType(type);
+        host.getAuthentication().setPassword(password);
+        host.getAuthentication().setPrivateKeyPath(keyPath);
+        return host;
+    }
+}
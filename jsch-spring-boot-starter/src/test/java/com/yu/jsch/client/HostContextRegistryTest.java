@@ -0,0 +1,68 @@
+package com.yu.jsch.client;
+
+import com.yu.jsch.HostDefinition;
+import com.yu.jsch.PooledJschSessionManager;
+import com.yu.jsch.observability.ObservabilityConfig;
+import com.yu.jsch.sftp.SftpClientException;
+import com.yu.jsch.strategy.NoRetryStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HostContextRegistryTest {
+
+    private final PooledJschSessionManager sessionManager = mock(PooledJschSessionManager.class);
+    private final HostContextRegistry registry = new HostContextRegistry(Set.of("web"),
+            alias -> new HostContextRegistry.HostResources(host(), new NoRetryStrategy(), sessionManager),
+            ObservabilityConfig.disabled(), null, null);
+
+    @AfterEach
+    void close() {
+        registry.close();
+    }
+
+    @Test
+    void evictKeepsAContextHandedOutButNotYetUsed() {
+        DefaultSftpClient.HostContext ctx = registry.sftpContext("web");
+
+        registry.evict("web");
+
+        assertThat(registry.activeAliases()).containsExactly("web");
+        verify(sessionManager, never()).shutdown();
+
+        ctx.release();
+        registry.evict("web");
+
+        assertThat(registry.activeAliases()).isEmpty();
+        verify(sessionManager, times(1)).shutdown();
+    }
+
+    @Test
+    void clientReleasesTheContextWhenTheOperationFails() throws Exception {
+        when(sessionManager.execute(any())).thenThrow(new IllegalStateException("connection refused"));
+        DefaultSftpClient client = new DefaultSftpClient(registry, "web");
+
+        assertThatThrownBy(() -> client.delete("web", "/tmp/file")).isInstanceOf(SftpClientException.class);
+        registry.evict("web");
+
+        assertThat(registry.activeAliases()).isEmpty();
+        verify(sessionManager, times(1)).shutdown();
+    }
+
+    private static HostDefinition host() {
+        return HostDefinition.builder()
+                .timeouts(HostDefinition.Timeouts.builder().connect(Duration.ofSeconds(5)).build())
+                .build();
+    }
+}
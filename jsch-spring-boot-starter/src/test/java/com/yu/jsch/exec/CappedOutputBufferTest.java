@@ -0,0 +1,72 @@
+package com.yu.jsch.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CappedOutputBufferTest {
+
+    @Test
+    void keepsEverythingBelowTheCap() {
+        CappedOutputBuffer buffer = new CappedOutputBuffer(16);
+
+        write(buffer, "hello ");
+        write(buffer, "world");
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("hello world");
+        assertThat(buffer.isTruncated()).isFalse();
+        assertThat(buffer.getTotalBytes()).isEqualTo(11);
+    }
+
+    @Test
+    void discardsBytesPastTheCapButCountsThem() {
+        CappedOutputBuffer buffer = new CappedOutputBuffer(8);
+
+        write(buffer, "0123456");
+        write(buffer, "789abc");
+        write(buffer, "def");
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("01234567");
+        assertThat(buffer.isTruncated()).isTrue();
+        assertThat(buffer.getTotalBytes()).isEqualTo(16);
+    }
+
+    @Test
+    void exactlyAtTheCapIsNotTruncated() {
+        CappedOutputBuffer buffer = new CappedOutputBuffer(4);
+
+        write(buffer, "abcd");
+
+        assertThat(buffer.isTruncated()).isFalse();
+    }
+
+    @Test
+    void zeroOrNegativeCapIsUnlimited() {
+        CappedOutputBuffer unlimited = new CappedOutputBuffer(0);
+        CappedOutputBuffer negative = new CappedOutputBuffer(-1);
+        String output = "x".repeat(100_000);
+
+        write(unlimited, output);
+        write(negative, output);
+
+        assertThat(unlimited.toString(StandardCharsets.UTF_8)).hasSize(100_000);
+        assertThat(negative.isTruncated()).isFalse();
+    }
+
+    @Test
+    void honoursOffsetAndLength() {
+        CappedOutputBuffer buffer = new CappedOutputBuffer(0);
+        byte[] bytes = "--payload--".getBytes(StandardCharsets.UTF_8);
+
+        buffer.write(bytes, 2, 7);
+
+        assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("payload");
+    }
+
+    private static void write(CappedOutputBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+}
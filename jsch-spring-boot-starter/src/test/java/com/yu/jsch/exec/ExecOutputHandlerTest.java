@@ -0,0 +1,87 @@
+package com.yu.jsch.exec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecOutputHandlerTest {
+
+    private final List<String> out = new ArrayList<>();
+    private final List<String> err = new ArrayList<>();
+    private final ExecOutputHandler handler = ExecOutputHandler.lines(StandardCharsets.UTF_8, out::add, err::add);
+
+    @Test
+    void splitsLinesAcrossChunks() throws IOException {
+        stdout("first li");
+        stdout("ne\nsecond line\nthi");
+        stdout("rd");
+        handler.onFinish();
+
+        assertThat(out).containsExactly("first line", "second line", "third");
+    }
+
+    @Test
+    void stripsCarriageReturnsAndKeepsEmptyLines() throws IOException {
+        stdout("a\r\n\r\nb\n\n");
+        handler.onFinish();
+
+        assertThat(out).containsExactly("a", "", "b", "");
+    }
+
+    @Test
+    void keepsMultiByteCharactersSplitBetweenChunks() throws IOException {
+        byte[] bytes = "größe\n".getBytes(StandardCharsets.UTF_8);
+        // Split inside the two-byte 'ö'
+        handler.onStdout(bytes, 0, 3);
+        handler.onStdout(bytes, 3, bytes.length - 3);
+
+        assertThat(out).containsExactly("größe");
+    }
+
+    @Test
+    void keepsStreamsApart() throws IOException {
+        stdout("out 1\nout");
+        stderr("err 1\n");
+        stdout(" 2\n");
+        handler.onFinish();
+
+        assertThat(out).containsExactly("out 1", "out 2");
+        assertThat(err).containsExactly("err 1");
+    }
+
+    @Test
+    void finishWithoutPendingOutputEmitsNothing() throws IOException {
+        stdout("done\n");
+        handler.onFinish();
+
+        assertThat(out).containsExactly("done");
+    }
+
+    @Test
+    void nullConsumerIgnoresTheStream() throws IOException {
+        List<String> lines = new ArrayList<>();
+        ExecOutputHandler stdoutOnly = ExecOutputHandler.lines(StandardCharsets.UTF_8, lines::add, null);
+        byte[] bytes = "x\n".getBytes(StandardCharsets.UTF_8);
+
+        stdoutOnly.onStderr(bytes, 0, bytes.length);
+        stdoutOnly.onStdout(bytes, 0, bytes.length);
+        stdoutOnly.onFinish();
+
+        assertThat(lines).containsExactly("x");
+    }
+
+    private void stdout(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        handler.onStdout(bytes, 0, bytes.length);
+    }
+
+    private void stderr(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        handler.onStderr(bytes, 0, bytes.length);
+    }
+}
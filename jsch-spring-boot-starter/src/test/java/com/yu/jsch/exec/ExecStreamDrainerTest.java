@@ -0,0 +1,54 @@
+package com.yu.jsch.exec;
+
+import com.jcraft.jsch.ChannelExec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecStreamDrainerTest {
+
+    @Test
+    void drainsBothStreamsAndReportsCompletion() throws Exception {
+        ChannelExec channel = mock(ChannelExec.class);
+        when(channel.getExitStatus()).thenReturn(0);
+        CappedOutputBuffer stdout = new CappedOutputBuffer(0);
+        CappedOutputBuffer stderr = new CappedOutputBuffer(0);
+
+        boolean timedOut = ExecStreamDrainer.drain(channel, stream("x".repeat(200_000)), stream("warning\n"),
+                stdout, stderr, Duration.ofSeconds(5));
+
+        assertThat(timedOut).isFalse();
+        assertThat(stdout.getTotalBytes()).isEqualTo(200_000);
+        assertThat(stderr.toString(StandardCharsets.UTF_8)).isEqualTo("warning\n");
+    }
+
+    @Test
+    void awaitCloseReturnsOnceTheChannelIsClosed() throws Exception {
+        ChannelExec channel = mock(ChannelExec.class);
+        when(channel.isClosed()).thenReturn(false, false, true);
+
+        assertThat(ExecStreamDrainer.awaitClose(channel, Duration.ofSeconds(5))).isFalse();
+        verify(channel, never()).disconnect();
+    }
+
+    @Test
+    void awaitCloseDisconnectsWhenTheTimeoutElapses() throws Exception {
+        ChannelExec channel = mock(ChannelExec.class);
+
+        assertThat(ExecStreamDrainer.awaitClose(channel, Duration.ofMillis(20))).isTrue();
+        verify(channel).disconnect();
+    }
+
+    private static InputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,199 @@
+package com.yu.jsch.fanout;
+
+import com.yu.jsch.client.SshClient;
+import com.yu.jsch.exec.ExecResult;
+import com.yu.jsch.exec.SshCommandRequest;
+import com.yu.jsch.exec.SshExecutionException;
+import com.yu.jsch.host.HostConfig;
+import com.yu.jsch.host.HostResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanOutExecutorTest {
+
+    private final SshCommandRequest request = SshCommandRequest.builder("uptime").build();
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final Concurrency concurrency = new Concurrency();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void repeatedAliasRunsOneAtATime() throws Exception {
+        SshClient client = slowClient(20, 0);
+        FanOutExecutor fanOut = new FanOutExecutor(client, pool, 8, 1);
+        List<String> aliases = List.of("a", "a", "a", "a", "a", "a", "a", "a");
+
+        FanOutReport report = fanOut.execute(aliases, request, null);
+
+        assertThat(report.getSuccessCount()).isEqualTo(8);
+        assertThat(concurrency.max("a")).isEqualTo(1);
+    }
+
+    @Test
+    void limitsAliasesOfTheSameHostTogether() throws Exception {
+        HostConfig shared = HostConfig.builder().host("10.0.0.1").port(22).username("deploy").build();
+        HostResolver resolver = alias -> Optional.of(shared);
+        SshClient client = slowClient(20, 0);
+        FanOutExecutor fanOut = new FanOutExecutor(client, resolver, pool, 8, 2);
+
+        FanOutReport report = fanOut.execute(List.of("web-1", "web-1-admin", "web-1-legacy", "web-1-ops"), request, null);
+
+        assertThat(report.getSuccessCount()).isEqualTo(4);
+        assertThat(concurrency.maxOverall()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void resolvesEachAliasOnceInParallelAndExecutesOnTheResolvedConfig() throws Exception {
+        // Completes only when the lookups of all four hosts run at the same time
+        CountDownLatch allResolving = new CountDownLatch(4);
+        Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+        HostResolver resolver = alias -> {
+            lookups.computeIfAbsent(alias, k -> new AtomicInteger()).incrementAndGet();
+            allResolving.countDown();
+            try {
+                allResolving.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(HostConfig.builder().host(alias + ".example.com").port(22).username("deploy").build());
+        };
+        SshClient client = slowClient(1, 0);
+        FanOutExecutor fanOut = new FanOutExecutor(client, resolver, pool, 8, 2);
+
+        FanOutReport report = fanOut.execute(List.of("a", "b", "c", "d", "a", "b"), request, null);
+
+        assertThat(report.getSuccessCount()).isEqualTo(6);
+        assertThat(allResolving.getCount()).isZero();
+        assertThat(lookups).hasSize(4).allSatisfy((alias, count) -> assertThat(count.get()).isEqualTo(1));
+        verify(client, times(6)).exec(any(HostConfig.class), any(SshCommandRequest.class));
+        verify(client, never()).exec(anyString(), any(SshCommandRequest.class));
+    }
+
+    @Test
+    void fallsBackToTheAliasWhenTheClientCannotExecuteOnAConfig() throws Exception {
+        HostResolver resolver = alias -> Optional.of(HostConfig.builder().host("10.0.0.1").port(22).username("deploy").build());
+        SshClient client = mock(SshClient.class);
+        when(client.exec(any(HostConfig.class), any(SshCommandRequest.class)))
+                .thenThrow(new UnsupportedOperationException("Direct HostConfig execution not supported"));
+        when(client.exec(anyString(), any(SshCommandRequest.class))).thenReturn(ExecResult.builder().exitCode(0).build());
+        FanOutExecutor fanOut = new FanOutExecutor(client, resolver, pool, 8, 2);
+
+        FanOutReport report = fanOut.execute(List.of("web", "db"), request, null);
+
+        assertThat(report.getSuccessCount()).isEqualTo(2);
+        verify(client).exec(eq("web"), any(SshCommandRequest.class));
+        verify(client).exec(eq("db"), any(SshCommandRequest.class));
+    }
+
+    @Test
+    void otherHostsRunWhileOneHostIsAtItsLimit() throws Exception {
+        SshClient client = slowClient(20, 0);
+        FanOutExecutor fanOut = new FanOutExecutor(client, pool, 4, 1);
+        List<String> aliases = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            aliases.add("busy");
+        }
+        aliases.add("idle");
+
+        FanOutReport report = fanOut.execute(aliases, request, null);
+
+        assertThat(report.getTotalCount()).isEqualTo(5);
+        // "idle" is dispatched alongside the first "busy" run instead of queuing behind all of them
+        assertThat(report.getResults().get(0).target()).isEqualTo("idle");
+    }
+
+    @Test
+    void classifiesFailuresAndReleasesEveryPermit() throws Exception {
+        SshClient client = mock(SshClient.class);
+        when(client.exec(anyString(), any(SshCommandRequest.class))).thenAnswer(inv -> {
+            String alias = inv.getArgument(0);
+            return switch (alias) {
+                case "ok" -> ExecResult.builder().exitCode(0).build();
+                case "exit" -> ExecResult.builder().exitCode(3).build();
+                case "slow" -> ExecResult.builder().exitCode(-1).timedOut(true).build();
+                default -> throw new SshExecutionException("connection refused");
+            };
+        });
+        FanOutExecutor fanOut = new FanOutExecutor(client, pool, 1, 1);
+        List<HostExecResult> seen = new ArrayList<>();
+
+        FanOutReport report = fanOut.execute(List.of("ok", "exit", "slow", "down"), request, seen::add);
+        // A second run only completes if the first one handed all permits back
+        FanOutReport again = fanOut.execute(List.of("ok", "ok"), request, null);
+
+        assertThat(report.getSuccessCount()).isEqualTo(1);
+        assertThat(report.getFailureCount()).isEqualTo(2);
+        assertThat(report.getTimeoutCount()).isEqualTo(1);
+        assertThat(seen).hasSize(4);
+        assertThat(again.getSuccessCount()).isEqualTo(2);
+    }
+
+    private SshClient slowClient(long millis, int exitCode) throws SshExecutionException {
+        SshClient client = mock(SshClient.class);
+        when(client.exec(anyString(), any(SshCommandRequest.class)))
+                .thenAnswer(inv -> run(inv.getArgument(0), millis, exitCode));
+        when(client.exec(any(HostConfig.class), any(SshCommandRequest.class)))
+                .thenAnswer(inv -> run(inv.<HostConfig>getArgument(0).stableKey(), millis, exitCode));
+        return client;
+    }
+
+    private ExecResult run(String key, long millis, int exitCode) throws InterruptedException {
+        concurrency.enter(key);
+        try {
+            Thread.sleep(key.equals("idle") ? 1 : millis);
+            return ExecResult.builder().exitCode(exitCode).build();
+        } finally {
+            concurrency.exit(key);
+        }
+    }
+
+    private static final class Concurrency {
+        private final Map<String, AtomicInteger> current = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> max = new ConcurrentHashMap<>();
+        private final AtomicInteger overall = new AtomicInteger();
+        private final AtomicInteger maxOverall = new AtomicInteger();
+
+        void enter(String key) {
+            int n = current.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            max.computeIfAbsent(key, k -> new AtomicInteger()).accumulateAndGet(n, Math::max);
+            maxOverall.accumulateAndGet(overall.incrementAndGet(), Math::max);
+        }
+
+        void exit(String key) {
+            current.get(key).decrementAndGet();
+            overall.decrementAndGet();
+        }
+
+        int max(String key) {
+            return max.get(key).get();
+        }
+
+        int maxOverall() {
+            return maxOverall.get();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.yu.jsch.fanout;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FanOutReportTest {
+
+    @Test
+    void countsOutcomes() {
+        FanOutReport report = new FanOutReport(List.of(
+                result("a", HostExecResult.Outcome.SUCCESS, 10),
+                result("b", HostExecResult.Outcome.FAILURE, 20),
+                result("c", HostExecResult.Outcome.SUCCESS, 30),
+                result("d", HostExecResult.Outcome.TIMEOUT, 40)), Duration.ofMillis(45));
+
+        assertThat(report.getTotalCount()).isEqualTo(4);
+        assertThat(report.getSuccessCount()).isEqualTo(2);
+        assertThat(report.getFailureCount()).isEqualTo(1);
+        assertThat(report.getTimeoutCount()).isEqualTo(1);
+        assertThat(report.getElapsed()).isEqualTo(Duration.ofMillis(45));
+        assertThat(report.getResults()).extracting(HostExecResult::target).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    void latencyPercentilesUseNearestRank() {
+        List<HostExecResult> results = new ArrayList<>();
+        // Completion order differs from latency order
+        for (int ms = 100; ms >= 1; ms--) {
+            results.add(result("h" + ms, HostExecResult.Outcome.SUCCESS, ms));
+        }
+        FanOutReport report = new FanOutReport(results, Duration.ofSeconds(1));
+
+        assertThat(report.getP50()).isEqualTo(Duration.ofMillis(50));
+        assertThat(report.getP90()).isEqualTo(Duration.ofMillis(90));
+        assertThat(report.getP99()).isEqualTo(Duration.ofMillis(99));
+        assertThat(report.getMax()).isEqualTo(Duration.ofMillis(100));
+        assertThat(report.percentile(0)).isEqualTo(Duration.ofMillis(1));
+        assertThat(report.percentile(150)).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void emptyReportHasZeroLatencies() {
+        FanOutReport report = new FanOutReport(List.of(), Duration.ZERO);
+
+        assertThat(report.getTotalCount()).isZero();
+        assertThat(report.getP99()).isEqualTo(Duration.ZERO);
+        assertThat(report.toString()).contains("total=0");
+    }
+
+    @Test
+    void resultsAreACopy() {
+        List<HostExecResult> results = new ArrayList<>(List.of(result("a", HostExecResult.Outcome.SUCCESS, 1)));
+        FanOutReport report = new FanOutReport(results, Duration.ZERO);
+
+        results.add(result("b", HostExecResult.Outcome.SUCCESS, 1));
+
+        assertThat(report.getTotalCount()).isEqualTo(1);
+    }
+
+    private static HostExecResult result(String target, HostExecResult.Outcome outcome, long latencyMillis) {
+        return new HostExecResult(target, outcome, null, null, Duration.ofMillis(latencyMillis));
+    }
+}
@@ -0,0 +1,260 @@
+package com.yu.jsch.host;
+
+import com.yu.jsch.AuthType;
+import com.yu.jsch.HostCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingHostResolverTest {
+
+    private final CountingResolver delegate = new CountingResolver();
+
+    @Test
+    void servesCachedConfigWithinTtl() {
+        delegate.put("app", config(1L));
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO));
+
+        assertThat(cache.resolve("app")).contains(config(1L));
+        assertThat(cache.resolve("app")).contains(config(1L));
+
+        assertThat(delegate.calls("app")).isEqualTo(1);
+        assertThat(cache.getStats().hits()).isEqualTo(1);
+        assertThat(cache.getStats().misses()).isEqualTo(1);
+        assertThat(cache.getStats().size()).isEqualTo(1);
+    }
+
+    @Test
+    void resolvesAgainAfterTtl() throws Exception {
+        delegate.put("app", config(1L));
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMillis(50), Duration.ZERO, Duration.ZERO));
+
+        cache.resolve("app");
+        delegate.put("app", config(2L));
+        Thread.sleep(80);
+
+        assertThat(cache.resolve("app")).contains(config(2L));
+        assertThat(delegate.calls("app")).isEqualTo(2);
+    }
+
+    @Test
+    void refreshesAheadWhileServingTheCachedConfig() throws Exception {
+        delegate.put("app", config(1L));
+        CachingHostResolver cache = new CachingHostResolver(delegate,
+                props(Duration.ofMinutes(5), Duration.ofMillis(20), Duration.ZERO), Runnable::run);
+
+        cache.resolve("app");
+        delegate.put("app", config(2L));
+        Thread.sleep(40);
+
+        // Served from the cache; the refresh ran on the (direct) refresh executor
+        assertThat(cache.resolve("app")).contains(config(1L));
+        assertThat(cache.resolve("app")).contains(config(2L));
+        assertThat(delegate.calls("app")).isEqualTo(2);
+        assertThat(cache.getStats().refreshes()).isEqualTo(1);
+    }
+
+    @Test
+    void remembersUnknownHostsForNegativeTtl() {
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ofMinutes(1)));
+
+        assertThat(cache.resolve("missing")).isEmpty();
+        assertThat(cache.resolve("missing")).isEmpty();
+
+        assertThat(delegate.calls("missing")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRememberUnknownHostsWithoutNegativeTtl() {
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO));
+
+        cache.resolve("missing");
+        cache.resolve("missing");
+
+        assertThat(delegate.calls("missing")).isEqualTo(2);
+        assertThat(cache.getStats().size()).isZero();
+    }
+
+    @Test
+    void doesNotCacheDelegateFailures() {
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ofMinutes(1)));
+        delegate.failNext = true;
+
+        assertThatThrownBy(() -> cache.resolve("app")).isInstanceOf(IllegalStateException.class);
+        delegate.put("app", config(1L));
+
+        assertThat(cache.resolve("app")).contains(config(1L));
+        assertThat(cache.getStats().loadFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateReloadsAndNotifiesListenersOfChanges() {
+        delegate.put("app", config(1L));
+        delegate.put("other", config(1L));
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO));
+        List<String> changes = new ArrayList<>();
+        cache.addHostChangeListener((hostId, previous, current) ->
+                changes.add(hostId + ":" + previous.getVersion() + "->" + (current != null ? current.getVersion() : null)));
+        cache.resolve("app");
+        cache.resolve("other");
+
+        delegate.put("app", config(2L));
+        cache.invalidate("app");
+        assertThat(cache.resolve("app")).contains(config(2L));
+        assertThat(cache.resolve("other")).contains(config(1L));
+
+        delegate.remove("other");
+        cache.invalidateAll();
+        assertThat(cache.resolve("app")).contains(config(2L));
+        assertThat(cache.resolve("other")).isEmpty();
+
+        assertThat(changes).containsExactly("app:1->2", "other:1->null");
+        assertThat(delegate.calls("app")).isEqualTo(3);
+        assertThat(delegate.calls("other")).isEqualTo(2);
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        HostResolver slow = hostId -> {
+            if (calls.incrementAndGet() == 1) {
+                entered.countDown();
+                await(release);
+            }
+            return Optional.of(config(calls.get()));
+        };
+        CachingHostResolver cache = new CachingHostResolver(slow, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO));
+
+        Thread loader = new Thread(() -> cache.resolve("app"));
+        loader.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate("app");
+        release.countDown();
+        loader.join(5000);
+
+        assertThat(cache.resolve("app")).contains(config(2L));
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentMissesShareOneDelegateCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        HostResolver slow = hostId -> {
+            calls.incrementAndGet();
+            await(release);
+            return Optional.of(config(1L));
+        };
+        CachingHostResolver cache = new CachingHostResolver(slow, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> cache.resolve("app"));
+            threads.add(t);
+            t.start();
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread t : threads) {
+            t.join(5000);
+        }
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedHostsWhenFull() {
+        delegate.put("a", config(1L));
+        delegate.put("b", config(1L));
+        delegate.put("c", config(1L));
+        HostCacheProperties props = props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO);
+        props.setMaxSize(2);
+        CachingHostResolver cache = new CachingHostResolver(delegate, props);
+
+        cache.resolve("a");
+        cache.resolve("b");
+        cache.resolve("a");
+        cache.resolve("c");
+        cache.resolve("a");
+        cache.resolve("b");
+
+        assertThat(delegate.calls("a")).isEqualTo(1);
+        assertThat(delegate.calls("b")).isEqualTo(2);
+        assertThat(cache.getStats().evictions()).isEqualTo(2);
+        assertThat(cache.getStats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void clearingReturnedCredentialsKeepsTheCachedOnes() {
+        delegate.put("app", config(1L).toBuilder()
+                .auth(HostConfig.Auth.builder().type(AuthType.PASSWORD).password("secret".toCharArray()).build())
+                .build());
+        CachingHostResolver cache = new CachingHostResolver(delegate, props(Duration.ofMinutes(5), Duration.ZERO, Duration.ZERO));
+
+        cache.resolve("app").orElseThrow().clearSensitive();
+
+        assertThat(cache.resolve("app").orElseThrow().getAuth().getPassword()).isEqualTo("secret".toCharArray());
+    }
+
+    private static HostCacheProperties props(Duration ttl, Duration refreshAfter, Duration negativeTtl) {
+        HostCacheProperties props = new HostCacheProperties();
+        props.setTtl(ttl);
+        props.setRefreshAfter(refreshAfter);
+        props.setNegativeTtl(negativeTtl);
+        return props;
+    }
+
+    private static HostConfig config(long version) {
+        return HostConfig.builder().host("10.0.0.1").port(22).username("deploy").version(version).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingResolver implements HostResolver {
+        private final Map<String, HostConfig> hosts = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        private volatile boolean failNext;
+
+        void put(String hostId, HostConfig config) {
+            hosts.put(hostId, config);
+        }
+
+        void remove(String hostId) {
+            hosts.remove(hostId);
+        }
+
+        int calls(String hostId) {
+            AtomicInteger n = calls.get(hostId);
+            return n != null ? n.get() : 0;
+        }
+
+        @Override
+        public Optional<HostConfig> resolve(String hostId) {
+            calls.computeIfAbsent(hostId, k -> new AtomicInteger()).incrementAndGet();
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("database unavailable");
+            }
+            return Optional.ofNullable(hosts.get(hostId));
+        }
+    }
+}
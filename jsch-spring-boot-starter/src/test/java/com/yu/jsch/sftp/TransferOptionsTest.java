@@ -0,0 +1,26 @@
+package com.yu.jsch.sftp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransferOptionsTest {
+
+    @Test
+    void rejectsNonAtomicResumeWithoutOverwrite() {
+        TransferOptions.Builder builder = TransferOptions.builder().resume(true).atomic(false).overwrite(false);
+
+        assertThatThrownBy(builder::build)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("overwrite");
+    }
+
+    @Test
+    void acceptsResumeWithoutOverwriteWhenAtomic() {
+        TransferOptions opts = TransferOptions.builder().resume(true).overwrite(false).build();
+
+        assertThat(opts.isResume()).isTrue();
+        assertThat(opts.toBuilder().atomic(false).overwrite(true).build().isAtomic()).isFalse();
+    }
+}
@@ -0,0 +1,233 @@
+package com.yu.jsch.sync;
+
+import com.yu.jsch.client.SftpClient;
+import com.yu.jsch.sftp.SftpNoSuchFileException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class DirectorySyncTest {
+
+    private final DirectorySync sync = new DirectorySync(mock(SftpClient.class));
+    private final List<String> transferred = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void createsMissingTargetRootAndCopiesEverything() throws Exception {
+        FakeEndpoint source = new FakeEndpoint()
+                .dir("a")
+                .file("a/b.txt", 5, 100)
+                .file("c.txt", 3, 100);
+        FakeEndpoint target = FakeEndpoint.missing();
+
+        SyncReport report = sync.run(source, target, SyncOptions.defaults(), transferred::add);
+
+        assertThat(target.ops).containsExactly("mkdir ", "mkdir a");
+        assertThat(transferred).containsExactlyInAnyOrder("a/b.txt", "c.txt");
+        assertThat(report.getDirectoriesCreated()).isEqualTo(1);
+        assertThat(report.getFilesTransferred()).isEqualTo(2);
+        assertThat(report.getBytesTransferred()).isEqualTo(8);
+        assertThat(report.isSuccess()).isTrue();
+    }
+
+    @Test
+    void transfersOnlyFilesWhoseSizeOrModifiedTimeDiffer() throws Exception {
+        FakeEndpoint source = new FakeEndpoint()
+                .file("same.txt", 10, 100)
+                .file("resized.txt", 11, 100)
+                .file("touched.txt", 10, 200);
+        FakeEndpoint target = new FakeEndpoint()
+                .file("same.txt", 10, 100)
+                .file("resized.txt", 10, 100)
+                .file("touched.txt", 10, 100);
+
+        SyncReport report = sync.run(source, target, SyncOptions.defaults(), transferred::add);
+
+        assertThat(transferred).containsExactlyInAnyOrder("resized.txt", "touched.txt");
+        assertThat(report.getFilesUnchanged()).isEqualTo(1);
+        assertThat(target.ops).isEmpty();
+    }
+
+    @Test
+    void deletesExtraneousEntriesChildrenBeforeParents() throws Exception {
+        FakeEndpoint source = new FakeEndpoint().file("keep.txt", 1, 100);
+        FakeEndpoint target = new FakeEndpoint()
+                .file("keep.txt", 1, 100)
+                .file("extra.txt", 1, 100)
+                .dir("x")
+                .dir("x/y")
+                .file("x/y/z.txt", 1, 100);
+
+        SyncReport report = sync.run(source, target, SyncOptions.builder().deleteExtraneous(true).parallelism(1).build(),
+                transferred::add);
+
+        assertThat(target.ops).containsExactly("rm extra.txt", "rm x/y/z.txt", "rmdir x/y", "rmdir x");
+        assertThat(report.getFilesDeleted()).isEqualTo(2);
+        assertThat(report.getDirectoriesDeleted()).isEqualTo(2);
+        assertThat(transferred).isEmpty();
+    }
+
+    @Test
+    void keepsExtraneousEntriesByDefault() throws Exception {
+        FakeEndpoint source = new FakeEndpoint().file("keep.txt", 1, 100);
+        FakeEndpoint target = new FakeEndpoint()
+                .file("keep.txt", 1, 100)
+                .file("extra.txt", 1, 100);
+
+        SyncReport report = sync.run(source, target, SyncOptions.defaults(), transferred::add);
+
+        assertThat(target.ops).isEmpty();
+        assertThat(report.getFilesUnchanged()).isEqualTo(1);
+        assertThat(report.isSuccess()).isTrue();
+    }
+
+    @Test
+    void typeConflictIsReportedUnlessExtraneousEntriesAreDeleted() throws Exception {
+        FakeEndpoint source = new FakeEndpoint().file("a", 4, 100);
+
+        FakeEndpoint kept = new FakeEndpoint().dir("a");
+        SyncReport report = sync.run(source, kept, SyncOptions.defaults(), transferred::add);
+        assertThat(report.getFailures()).extracting(SyncFailure::path).containsExactly("a");
+        assertThat(kept.ops).isEmpty();
+        assertThat(transferred).isEmpty();
+
+        FakeEndpoint replaced = new FakeEndpoint().dir("a");
+        report = sync.run(source, replaced, SyncOptions.builder().deleteExtraneous(true).build(), transferred::add);
+        assertThat(report.isSuccess()).isTrue();
+        assertThat(replaced.ops).containsExactly("rmdir a");
+        assertThat(transferred).containsExactly("a");
+    }
+
+    @Test
+    void failedTransferIsRecordedAndTheOthersContinue() throws Exception {
+        FakeEndpoint source = new FakeEndpoint()
+                .file("bad.txt", 1, 100)
+                .file("good.txt", 2, 100);
+
+        SyncReport report = sync.run(source, new FakeEndpoint(), SyncOptions.defaults(), rel -> {
+            if (rel.equals("bad.txt")) throw new IOException("denied");
+            transferred.add(rel);
+        });
+
+        assertThat(transferred).containsExactly("good.txt");
+        assertThat(report.getFilesTransferred()).isEqualTo(1);
+        assertThat(report.getBytesTransferred()).isEqualTo(2);
+        assertThat(report.getFailures()).extracting(SyncFailure::path).containsExactly("bad.txt");
+    }
+
+    @Test
+    void missingSourceFailsBeforeTouchingTheTarget() {
+        FakeEndpoint target = FakeEndpoint.missing();
+
+        assertThatThrownBy(() -> sync.run(FakeEndpoint.missing(), target, SyncOptions.defaults(), transferred::add))
+                .isInstanceOf(SftpNoSuchFileException.class);
+        assertThat(target.ops).isEmpty();
+    }
+
+    @Test
+    void mirrorsBetweenLocalDirectories(@TempDir Path tmp) throws Exception {
+        Path src = tmp.resolve("src");
+        Path dst = tmp.resolve("dst");
+        Files.createDirectories(src.resolve("nested"));
+        Files.writeString(src.resolve("nested/a.txt"), "hello");
+        Files.writeString(src.resolve("b.txt"), "world");
+        Files.createDirectories(dst.resolve("stale"));
+        Files.writeString(dst.resolve("stale/old.txt"), "old");
+        DirectorySync.LocalEndpoint source = new DirectorySync.LocalEndpoint(src);
+        DirectorySync.LocalEndpoint target = new DirectorySync.LocalEndpoint(dst);
+        SyncOptions opts = SyncOptions.builder().deleteExtraneous(true).build();
+
+        SyncReport first = sync.run(source, target, opts, rel ->
+                Files.copy(source.resolve(rel), target.resolve(rel), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.COPY_ATTRIBUTES));
+
+        assertThat(first.getFilesTransferred()).isEqualTo(2);
+        assertThat(first.getFilesDeleted()).isEqualTo(1);
+        assertThat(first.getDirectoriesDeleted()).isEqualTo(1);
+        assertThat(first.getDirectoriesCreated()).isEqualTo(1);
+        assertThat(dst.resolve("stale")).doesNotExist();
+        assertThat(dst.resolve("nested/a.txt")).hasContent("hello");
+
+        Files.setLastModifiedTime(src.resolve("b.txt"), FileTime.fromMillis(0));
+        SyncReport second = sync.run(source, target, opts, rel ->
+                Files.copy(source.resolve(rel), target.resolve(rel), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.COPY_ATTRIBUTES));
+
+        assertThat(second.getFilesTransferred()).isEqualTo(1);
+        assertThat(second.getFilesUnchanged()).isEqualTo(1);
+        assertThat(Files.getLastModifiedTime(dst.resolve("b.txt"))).isEqualTo(FileTime.fromMillis(0));
+    }
+
+    /**
+     * In-memory endpoint that records the changes made to it.
+     */
+    private static final class FakeEndpoint implements DirectorySync.Endpoint {
+        private final Map<String, DirectorySync.Entry> tree;
+        private final List<String> ops = Collections.synchronizedList(new ArrayList<>());
+
+        FakeEndpoint() {
+            this(new TreeMap<>());
+        }
+
+        private FakeEndpoint(Map<String, DirectorySync.Entry> tree) {
+            this.tree = tree;
+        }
+
+        static FakeEndpoint missing() {
+            return new FakeEndpoint(null);
+        }
+
+        FakeEndpoint dir(String rel) {
+            tree.put(rel, new DirectorySync.Entry(true, 0L, 0L));
+            return this;
+        }
+
+        FakeEndpoint file(String rel, long size, long modifiedSeconds) {
+            tree.put(rel, new DirectorySync.Entry(false, size, modifiedSeconds));
+            return this;
+        }
+
+        @Override
+        public Map<String, DirectorySync.Entry> list(int parallelism) {
+            return tree;
+        }
+
+        @Override
+        public void createDirectory(String rel) {
+            ops.add("mkdir " + rel);
+        }
+
+        @Override
+        public void deleteFile(String rel) {
+            ops.add("rm " + rel);
+        }
+
+        @Override
+        public void deleteDirectory(String rel) {
+            ops.add("rmdir " + rel);
+        }
+
+        @Override
+        public Map<String, String> checksums(List<String> rels) {
+            return Map.of();
+        }
+
+        @Override
+        public String path(String rel) {
+            return "/fake/" + rel;
+        }
+    }
+}